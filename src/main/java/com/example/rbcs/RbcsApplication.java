@@ -1,14 +1,50 @@
 package com.example.rbcs;
 
+import com.example.rbcs.domain.service.DepositAggregationProperties;
+import com.example.rbcs.domain.service.TransactionExecutionProperties;
+import com.example.rbcs.domain.service.TransferNettingProperties;
+import com.example.rbcs.infrastructure.activity.RecentActivityProperties;
+import com.example.rbcs.infrastructure.archive.ArchiveProperties;
+import com.example.rbcs.infrastructure.cluster.ClusterProperties;
+import com.example.rbcs.infrastructure.dedup.DedupProperties;
+import com.example.rbcs.infrastructure.export.ExportProperties;
+import com.example.rbcs.infrastructure.id.IdGeneratorProperties;
+import com.example.rbcs.infrastructure.idempotency.IdempotencyProperties;
+import com.example.rbcs.infrastructure.lock.LockProperties;
+import com.example.rbcs.infrastructure.outbox.OutboxProperties;
+import com.example.rbcs.infrastructure.partition.PartitionProperties;
+import com.example.rbcs.infrastructure.recovery.RecoveryProperties;
+import com.example.rbcs.infrastructure.ringbuffer.RingBufferProperties;
 import com.example.rbcs.infrastructure.sqs.EventQueuesProperties;
+import com.example.rbcs.infrastructure.stream.RedisStreamProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync
-@EnableConfigurationProperties(EventQueuesProperties.class)
+@EnableScheduling
+@EnableConfigurationProperties({
+		EventQueuesProperties.class,
+		TransactionExecutionProperties.class,
+		DepositAggregationProperties.class,
+		TransferNettingProperties.class,
+		PartitionProperties.class,
+		ClusterProperties.class,
+		OutboxProperties.class,
+		LockProperties.class,
+		RedisStreamProperties.class,
+		RingBufferProperties.class,
+		RecoveryProperties.class,
+		DedupProperties.class,
+		IdempotencyProperties.class,
+		IdGeneratorProperties.class,
+		RecentActivityProperties.class,
+		ExportProperties.class,
+		ArchiveProperties.class
+})
 public class RbcsApplication {
 
 	public static void main(String[] args) {
@@ -2,6 +2,9 @@ package com.example.rbcs.applications;
 
 import com.example.rbcs.domain.entity.Transaction;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface TransactionApplicationService {
     /**
      * 转账
@@ -26,4 +29,13 @@ public interface TransactionApplicationService {
      * @return Transaction
      */
     Transaction createDepositTransaction(Long accountId, Long amount);
+
+    /**
+     * 批量创建交易
+     * 引用的账户一次性查询校验，交易按块批量插入并批量发送执行消息，每块处理完成后把结果交给sink
+     * 单笔校验失败不影响其他交易
+     * @param items 待创建的交易
+     * @param sink 按块接收处理结果，结果按下标排序
+     */
+    void createTransactions(List<TransactionBatchItem> items, Consumer<List<TransactionBatchResult>> sink);
 }
@@ -0,0 +1,13 @@
+package com.example.rbcs.applications;
+
+import com.example.rbcs.domain.entity.Transaction;
+
+/**
+ * 批量提交中的一笔交易
+ * @param type 交易类型
+ * @param sourceAccountId 交易账号主体
+ * @param destinationAccountId 收款账号，仅转账时有效
+ * @param amount 金额
+ */
+public record TransactionBatchItem(Transaction.Type type, Long sourceAccountId, Long destinationAccountId, long amount) {
+}
@@ -0,0 +1,20 @@
+package com.example.rbcs.applications;
+
+import com.example.rbcs.domain.entity.Transaction;
+
+/**
+ * 批量提交中一笔交易的处理结果，transaction 与 exception 二者有其一
+ * @param index 在提交列表中的下标
+ * @param transaction 创建成功的交易
+ * @param exception 失败的异常类型
+ * @param message 失败原因
+ */
+public record TransactionBatchResult(int index, Transaction transaction, String exception, String message) {
+    public static TransactionBatchResult created(int index, Transaction transaction) {
+        return new TransactionBatchResult(index, transaction, null, null);
+    }
+
+    public static TransactionBatchResult failed(int index, Exception e) {
+        return new TransactionBatchResult(index, null, e.getClass().getSimpleName(), e.getMessage());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.rbcs.applications;
+
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.repository.TransactionSearchCriteria;
+
+import java.util.List;
+
+public interface TransactionQueryService {
+    /**
+     * 账户的交易历史，包括作为主体和作为收款方的交易，按创建时间倒序
+     * 按 (created_at, id) 键集分页，任意深度的翻页代价与第一页相同
+     * @param accountId 账户ID
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param limit 每页条数
+     * @return 一页交易历史
+     */
+    HistoryPage getAccountHistory(Long accountId, String cursor, int limit);
+
+    /**
+     * 账户最近的交易，优先从redis中的最近交易列表读取，列表不存在时查询数据库并回填
+     * @param accountId 账户ID
+     * @param limit 条数
+     * @return 最近的交易，最新的在前
+     */
+    List<TransactionRepository.HistoryRow> getRecentActivity(Long accountId, int limit);
+
+    /**
+     * 多条件搜索交易，按创建时间倒序，按 (created_at, id) 键集分页
+     * 只在第一页返回交易总数，结果集较大时为估算值
+     * @param criteria 搜索条件
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param limit 每页条数
+     * @return 一页搜索结果
+     */
+    SearchPage search(TransactionSearchCriteria criteria, String cursor, int limit);
+
+    /**
+     * @param rows 本页的交易
+     * @param nextCursor 下一页的游标，没有更多数据时为空
+     */
+    record HistoryPage(List<TransactionRepository.HistoryRow> rows, String nextCursor) {
+    }
+
+    /**
+     * @param rows 本页的交易
+     * @param nextCursor 下一页的游标，没有更多数据时为空
+     * @param count 交易总数，只在第一页返回
+     */
+    record SearchPage(List<TransactionRepository.HistoryRow> rows, String nextCursor, TransactionRepository.SearchCount count) {
+    }
+}
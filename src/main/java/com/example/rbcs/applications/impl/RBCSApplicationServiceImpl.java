@@ -2,26 +2,32 @@ package com.example.rbcs.applications.impl;
 
 import com.example.rbcs.applications.AccountApplicationService;
 import com.example.rbcs.applications.TransactionApplicationService;
+import com.example.rbcs.applications.TransactionBatchItem;
+import com.example.rbcs.applications.TransactionBatchResult;
 import com.example.rbcs.domain.entity.Account;
 import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.event.TransactionBatchExecuteRequest;
 import com.example.rbcs.domain.event.TransactionExecuteRequest;
 import com.example.rbcs.domain.exception.AccountNotFoundException;
+import com.example.rbcs.domain.exception.AmountInvalidException;
+import com.example.rbcs.domain.exception.DomainException;
+import com.example.rbcs.domain.exception.TransactionAccountInvalid;
 import com.example.rbcs.domain.repository.AccountRepository;
-import com.example.rbcs.domain.repository.TransactionRepository;
 import com.example.rbcs.domain.service.AccountService;
 import com.example.rbcs.domain.service.TransactionService;
-import com.example.rbcs.infrastructure.sqs.SqsPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @Service
@@ -31,9 +37,8 @@ public class RBCSApplicationServiceImpl implements AccountApplicationService, Tr
     private final TransactionService transactionService;
     private final AccountService accountService;
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
-    private final RedissonClient redissonClient;
-    private final SqsPublisher sqsPublisher;
+    @Value("${rbcs.transaction.batch.chunk-size:500}")
+    private int batchChunkSize;
     @Override
     public Account createAccount(String accountNumber) {
         final var acc = Account.builder()
@@ -89,28 +94,91 @@ public class RBCSApplicationServiceImpl implements AccountApplicationService, Tr
         return transactionService.createTransaction(accountService.getValidAccount(accountId), null, Transaction.Type.DEPOSIT, amount);
     }
 
-    @EventListener
-    public void onTransactionCreated(TransactionExecuteRequest request) {
-        transactionService.executeTransaction(request.transactionId());
+    @Override
+    public void createTransactions(List<TransactionBatchItem> items, Consumer<List<TransactionBatchResult>> sink) {
+        final var accountIds = items.stream()
+                .flatMap(item -> Stream.of(item.sourceAccountId(), item.destinationAccountId()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        final Map<Long, Account> accounts = new HashMap<>();
+        accountRepository.findAllById(accountIds).forEach(account -> accounts.put(account.getId(), account));
+
+        for (int from = 0; from < items.size(); from += batchChunkSize) {
+            final var to = Math.min(from + batchChunkSize, items.size());
+            final List<TransactionBatchResult> results = new ArrayList<>(to - from);
+            final List<Transaction> transactions = new ArrayList<>(to - from);
+            final List<Integer> indexes = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                try {
+                    transactions.add(toTransaction(items.get(i), accounts));
+                    indexes.add(i);
+                } catch (DomainException e) {
+                    results.add(TransactionBatchResult.failed(i, e));
+                }
+            }
+            try {
+                transactionService.createTransactions(transactions);
+                for (int i = 0; i < transactions.size(); i++) {
+                    results.add(TransactionBatchResult.created(indexes.get(i), transactions.get(i)));
+                }
+            } catch (Exception e) {
+                log.error("failed to create transactions [{}, {}) in batch", from, to, e);
+                indexes.forEach(index -> results.add(TransactionBatchResult.failed(index, e)));
+            }
+            results.sort(Comparator.comparingInt(TransactionBatchResult::index));
+            sink.accept(results);
+        }
     }
 
     /**
-     * 每小时执行一次，获取一个小时前的1000条还处于pending的交易，重新执行
+     * 按单笔创建的规则校验后构造交易，账户从预先查询的结果中取
      */
-    @Scheduled(cron = "0 0 * * * ?")
-    public void executePendingTransactions() {
-        var lock = redissonClient.getLock("pending-transactions-re-execute");
-        try {
-            if (lock.tryLock(1, 600, TimeUnit.SECONDS)) {
-                Date dateHourBefore = new Date(System.currentTimeMillis() - 1000 * 60 * 60);
-                var transactions = transactionRepository.findAllByStatusAndCreatedAtLessThanEqual(Transaction.Status.PENDING, dateHourBefore, PageRequest.of(0, 1000));
-                log.info("Executing {} pending transactions on scheduler", transactions.size());
-                transactions.forEach(transaction -> sqsPublisher.publish(transaction.getId()));
+    private static Transaction toTransaction(TransactionBatchItem item, Map<Long, Account> accounts) {
+        if (item.type() == null) {
+            throw new TransactionAccountInvalid("Transaction type cannot be null");
+        }
+        if (item.amount() <= 0) {
+            throw new AmountInvalidException("Amount must be greater than zero");
+        }
+        final var source = validAccount(item.sourceAccountId(), accounts);
+        Account target = null;
+        if (item.type() == Transaction.Type.TRANSFER) {
+            if (item.destinationAccountId() == null) {
+                throw new TransactionAccountInvalid("Destination account id is required for transfer");
+            }
+            if (Objects.equals(item.sourceAccountId(), item.destinationAccountId())) {
+                throw new TransactionAccountInvalid("Source and destination account id cannot be the same");
             }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        } finally {
-            lock.unlock();
+            target = validAccount(item.destinationAccountId(), accounts);
         }
+        return Transaction.builder()
+                .sourceAccount(source)
+                .targetAccount(target)
+                .type(item.type())
+                .amount(item.amount())
+                .build();
+    }
+
+    private static Account validAccount(Long accountId, Map<Long, Account> accounts) {
+        if (accountId == null) {
+            throw new TransactionAccountInvalid("Source account id is required");
+        }
+        final var account = accounts.get(accountId);
+        if (account == null) {
+            throw new AccountNotFoundException("Account " + accountId + " not found");
+        }
+        account.assertActivateStatus();
+        return account;
+    }
+
+    @EventListener
+    public void onTransactionCreated(TransactionExecuteRequest request) {
+        transactionService.executeTransaction(request.transactionId());
+    }
+
+    @EventListener
+    public void onTransactionsBatch(TransactionBatchExecuteRequest request) {
+        request.handledIds().addAll(transactionService.executeTransactions(request.transactionIds()));
     }
 }
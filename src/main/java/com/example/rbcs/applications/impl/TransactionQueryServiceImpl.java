@@ -0,0 +1,153 @@
+package com.example.rbcs.applications.impl;
+
+import com.example.rbcs.applications.TransactionQueryService;
+import com.example.rbcs.domain.exception.AccountNotFoundException;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.repository.TransactionSearchCriteria;
+import com.example.rbcs.infrastructure.activity.RecentActivity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+@Service
+public class TransactionQueryServiceImpl implements TransactionQueryService {
+    static final int MAX_LIMIT = 200;
+    /**
+     * 第一页的游标，MySQL DATETIME 的上限
+     */
+    private static final Date FIRST_PAGE_CREATED_AT = new Date(253_402_300_799_000L);
+    private static final Comparator<TransactionRepository.HistoryRow> NEWEST_FIRST =
+            Comparator.comparing(TransactionRepository.HistoryRow::getCreatedAt)
+                    .thenComparing(TransactionRepository.HistoryRow::getId)
+                    .reversed();
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final ObjectProvider<RecentActivity> recentActivity;
+    private final long exactCountLimit;
+
+    public TransactionQueryServiceImpl(TransactionRepository transactionRepository,
+                                       AccountRepository accountRepository,
+                                       ObjectProvider<RecentActivity> recentActivity,
+                                       @Value("${rbcs.transaction.search.exact-count-limit:10000}") long exactCountLimit) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.recentActivity = recentActivity;
+        this.exactCountLimit = exactCountLimit;
+    }
+
+    /**
+     * 账户作为主体和作为收款方的交易分别走各自的索引读取一页，合并后取前limit条
+     */
+    @Override
+    public HistoryPage getAccountHistory(Long accountId, String cursor, int limit) {
+        checkLimit(limit);
+        if (!accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException();
+        }
+        final var position = position(cursor);
+        final var beforeCreatedAt = new Date(position[0]);
+        // 多取一条用于判断是否还有下一页
+        final var page = PageRequest.of(0, limit + 1);
+        final List<TransactionRepository.HistoryRow> rows = new ArrayList<>(
+                transactionRepository.findHistoryBySource(accountId, beforeCreatedAt, position[1], page));
+        rows.addAll(transactionRepository.findHistoryByTarget(accountId, beforeCreatedAt, position[1], page));
+        rows.sort(NEWEST_FIRST);
+        final var nextCursor = nextCursor(rows, limit);
+        return new HistoryPage(rows.size() > limit ? List.copyOf(rows.subList(0, limit)) : rows, nextCursor);
+    }
+
+    @Override
+    public SearchPage search(TransactionSearchCriteria criteria, String cursor, int limit) {
+        checkLimit(limit);
+        if (criteria.minAmount() != null && criteria.maxAmount() != null && criteria.minAmount() > criteria.maxAmount()) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount");
+        }
+        if (criteria.from() != null && criteria.to() != null && !criteria.from().before(criteria.to())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (criteria.accountId() == null && criteria.status() == null && criteria.from() == null
+                && (criteria.type() != null || criteria.minAmount() != null || criteria.maxAmount() != null)) {
+            // 类型和金额没有索引，没有时间起点时可能为了凑满一页倒序扫描整张表
+            throw new IllegalArgumentException("from is required when filtering by type or amount without accountId or status");
+        }
+        final var position = position(cursor);
+        final var rows = transactionRepository.search(criteria, new Date(position[0]), position[1], limit + 1);
+        final var count = StringUtils.hasText(cursor) ? null : transactionRepository.countSearch(criteria, exactCountLimit);
+        final var nextCursor = nextCursor(rows, limit);
+        return new SearchPage(rows.size() > limit ? List.copyOf(rows.subList(0, limit)) : rows, nextCursor, count);
+    }
+
+    @Override
+    public List<TransactionRepository.HistoryRow> getRecentActivity(Long accountId, int limit) {
+        final var activity = recentActivity.getIfAvailable();
+        if (activity == null) {
+            return getAccountHistory(accountId, null, limit).rows();
+        }
+        if (limit <= 0 || limit > activity.getCapacity()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + activity.getCapacity());
+        }
+        final var cached = activity.recent(accountId, limit);
+        if (cached != null) {
+            return cached;
+        }
+        final var token = activity.loadToken(accountId);
+        final var rows = getAccountHistory(accountId, null, Math.min(activity.getCapacity(), MAX_LIMIT)).rows();
+        activity.load(accountId, token, rows);
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    /**
+     * 游标对应的 (created_at, id)，第一页从最大值开始
+     */
+    private static long[] position(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return new long[]{FIRST_PAGE_CREATED_AT.getTime(), Long.MAX_VALUE};
+        }
+        return decode(cursor);
+    }
+
+    /**
+     * @param rows 按倒序多读了一条的结果
+     */
+    private static String nextCursor(List<TransactionRepository.HistoryRow> rows, int limit) {
+        if (rows.size() <= limit) {
+            return null;
+        }
+        final var last = rows.get(limit - 1);
+        return encode(last.getCreatedAt().getTime(), last.getId());
+    }
+
+    private static String encode(long createdAt, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decode(String cursor) {
+        try {
+            final var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor", e);
+        }
+    }
+}
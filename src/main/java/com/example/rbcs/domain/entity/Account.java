@@ -3,6 +3,7 @@ package com.example.rbcs.domain.entity;
 import com.example.rbcs.domain.exception.AccountStatusInvalid;
 import com.example.rbcs.domain.exception.AmountInvalidException;
 import com.example.rbcs.domain.exception.InsufficientBalanceException;
+import com.example.rbcs.infrastructure.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,6 +11,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -30,7 +32,7 @@ import java.util.Date;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -43,6 +45,14 @@ public class Account {
     @Builder.Default
     private Long balance = 0L;
 
+    /**
+     * 余额分片数，0表示未分片；分片后余额保存在AccountShard中，账户上的余额为0
+     */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer shards = 0;
+
     @Version
     private Integer version;
 
@@ -60,6 +70,46 @@ public class Account {
         if (balance == null) {
             balance = 0L;
         }
+
+        if (shards == null) {
+            shards = 0;
+        }
+    }
+
+    public boolean isSharded() {
+        return shards != null && shards > 0;
+    }
+
+    /**
+     * 开启余额分片，账户上的余额转出到分片中
+     * @param count 分片数
+     * @return 需要分配到各个分片的余额
+     */
+    public long shard(int count) {
+        if (count < 2) {
+            throw new IllegalArgumentException("shard count must be at least 2");
+        }
+        if (isSharded()) {
+            throw new AccountStatusInvalid("account is already sharded");
+        }
+        final var amount = balance;
+        shards = count;
+        balance = 0L;
+        log.info("[aid:{}]shard balance {} into {} shards", id, amount, count);
+        return amount;
+    }
+
+    /**
+     * 取消余额分片，分片上的余额合并回账户
+     * @param shardBalance 所有分片的余额之和
+     */
+    public void unshard(long shardBalance) {
+        if (!isSharded()) {
+            throw new AccountStatusInvalid("account is not sharded");
+        }
+        shards = 0;
+        balance += shardBalance;
+        log.info("[aid:{}]unshard, current balance: {}", id, balance);
     }
 
     public void deposit(long amount) {
@@ -77,6 +127,19 @@ public class Account {
         log.info("[aid:{}]withdraw amount: {}, current balance: {}", id, amount, balance);
     }
 
+    /**
+     * 一次性应用轧差后的净额
+     * @param delta 净额，负数表示净转出
+     */
+    public void applyNetDelta(long delta) {
+        assertActivateStatus();
+        if (balance + delta < 0) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+        balance += delta;
+        log.info("[aid:{}]apply net delta: {}, current balance: {}", id, delta, balance);
+    }
+
     public boolean canWithdraw(long amount) {
         assertAmount(amount);
         assertActivateStatus();
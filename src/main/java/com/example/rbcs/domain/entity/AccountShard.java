@@ -0,0 +1,36 @@
+package com.example.rbcs.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 账户余额分片（子账户）
+ * 热点账户开启分片后，余额分散在多个分片上，存取款只更新其中一行，避免所有交易竞争同一行
+ * 分片只有余额，账户状态仍以账户为准
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_shard", columnNames = {"account_id", "shard_index"})
+})
+public class AccountShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    @Builder.Default
+    private Long balance = 0L;
+}
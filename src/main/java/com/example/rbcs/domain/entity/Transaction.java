@@ -4,6 +4,7 @@ import com.example.rbcs.domain.exception.AmountInvalidException;
 import com.example.rbcs.domain.exception.TransactionAccountInvalid;
 import com.example.rbcs.domain.exception.TransactionStatusInvalid;
 import com.example.rbcs.domain.exception.TransactionTypeInvalid;
+import com.example.rbcs.infrastructure.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,18 +30,23 @@ import java.util.Objects;
 @Slf4j
 @org.hibernate.annotations.Cache(region = "RBCS", usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(indexes = {
-        @Index(name = "idx_transaction_status", columnList = "status")
+        @Index(name = "idx_transaction_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_transaction_created", columnList = "created_at, id"),
+        @Index(name = "idx_transaction_source_created", columnList = "source_account_id, created_at, id"),
+        @Index(name = "idx_transaction_target_created", columnList = "target_account_id, created_at, id")
 })
 public class Transaction extends AbstractAggregateRoot<Transaction> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private long id;
+    // 交易表可按ID范围分区，MySQL分区表不支持外键，因此对所有部署都不创建到账户表的外键，
+    // 账户只冻结不删除，交易引用的账户由创建交易时的校验保证存在
     @ManyToOne
-    @JoinColumn(name = "source_account_id")
+    @JoinColumn(name = "source_account_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Account sourceAccount;
     @ManyToOne
-    @JoinColumn(name = "target_account_id")
+    @JoinColumn(name = "target_account_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Account targetAccount;
     private long amount;
 
@@ -159,6 +165,8 @@ public class Transaction extends AbstractAggregateRoot<Transaction> {
                 sourceAccount.deposit(amount);
                 break;
             case TRANSFER:
+                // 先校验收款账户，避免扣款后入账失败导致余额不一致
+                targetAccount.assertActivateStatus();
                 sourceAccount.withdraw(amount);
                 targetAccount.deposit(amount);
                 break;
@@ -169,6 +177,16 @@ public class Transaction extends AbstractAggregateRoot<Transaction> {
         status = Status.COMPLETED;
     }
 
+    /**
+     * 标记交易完成，账户余额由调用方以原子更新的方式直接修改
+     */
+    public void markCompleted() {
+        if (status != Status.PENDING) {
+            throw new TransactionStatusInvalid("Transaction is not in pending state");
+        }
+        status = Status.COMPLETED;
+    }
+
     public void fail(String reason) {
         if (status == Status.FAILED) return;
         if (status != Status.PENDING) {
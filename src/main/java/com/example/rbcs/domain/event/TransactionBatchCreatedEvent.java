@@ -0,0 +1,14 @@
+package com.example.rbcs.domain.event;
+
+import com.example.rbcs.domain.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * 批量创建交易完成，执行消息按批发送
+ */
+public class TransactionBatchCreatedEvent extends DomainEvent<List<Transaction>> {
+    public TransactionBatchCreatedEvent(List<Transaction> aggregateRoot) {
+        super(aggregateRoot);
+    }
+}
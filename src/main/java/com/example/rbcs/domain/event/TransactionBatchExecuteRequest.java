@@ -0,0 +1,14 @@
+package com.example.rbcs.domain.event;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量执行交易请求，处理方把已经处理完成的交易ID写入handledIds，发起方据此逐条确认消息
+ */
+public record TransactionBatchExecuteRequest(List<Long> transactionIds, Set<Long> handledIds) {
+    public TransactionBatchExecuteRequest(List<Long> transactionIds) {
+        this(transactionIds, ConcurrentHashMap.newKeySet());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.rbcs.domain.exception;
+
+public class IdempotencyKeyReused extends DomainException {
+    public IdempotencyKeyReused(String message) {
+        super(message);
+    }
+}
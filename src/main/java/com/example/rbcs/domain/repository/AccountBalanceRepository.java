@@ -0,0 +1,19 @@
+package com.example.rbcs.domain.repository;
+
+/**
+ * 账户余额的原子更新，绕过实体的读-改-写
+ */
+public interface AccountBalanceRepository {
+    /**
+     * 带条件的原子扣款，余额不足、账户未激活或账户已分片时不更新
+     * 同时递增版本号，与实体方式的乐观锁更新互斥
+     * @return 更新的行数，0表示条件不满足
+     */
+    int withdrawAtomically(long id, long amount);
+
+    /**
+     * 带条件的原子入账，账户未激活或账户已分片时不更新
+     * @return 更新的行数，0表示条件不满足
+     */
+    int depositAtomically(long id, long amount);
+}
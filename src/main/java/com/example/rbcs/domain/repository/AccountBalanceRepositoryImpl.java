@@ -0,0 +1,62 @@
+package com.example.rbcs.domain.repository;
+
+import com.example.rbcs.domain.entity.Account;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 以原生SQL带条件更新余额
+ * 1. JPQL批量更新会清空账户实体所在的缓存region，账户与交易共用 RBCS region，每次执行都会连带清掉所有缓存的交易；
+ *    这里把更新同步到一个没有实体映射的查询空间，Hibernate不清空任何region
+ * 2. 只从二级缓存中移除被更新的账户，事务完成后再移除一次，避免提交前其他事务把旧余额读入缓存
+ */
+@RequiredArgsConstructor
+public class AccountBalanceRepositoryImpl implements AccountBalanceRepository {
+    private static final String BALANCE_QUERY_SPACE = "account_balance";
+    private static final String WITHDRAW_SQL = "update account set balance = balance - :amount, version = version + 1, updated_at = current_timestamp " +
+            "where id = :id and shards = 0 and balance >= :amount and status = 'ACTIVATED'";
+    private static final String DEPOSIT_SQL = "update account set balance = balance + :amount, version = version + 1, updated_at = current_timestamp " +
+            "where id = :id and shards = 0 and status = 'ACTIVATED'";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int withdrawAtomically(long id, long amount) {
+        return update(WITHDRAW_SQL, id, amount);
+    }
+
+    @Override
+    public int depositAtomically(long id, long amount) {
+        return update(DEPOSIT_SQL, id, amount);
+    }
+
+    private int update(String sql, long id, long amount) {
+        // 查询空间与实体无关，Hibernate不会自动flush账户的修改
+        entityManager.flush();
+        final NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(BALANCE_QUERY_SPACE);
+        query.setParameter("id", id);
+        query.setParameter("amount", amount);
+        final var updated = query.executeUpdate();
+        if (updated > 0) {
+            evict(id);
+        }
+        return updated;
+    }
+
+    private void evict(long id) {
+        final var cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Account.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Account.class, id);
+                }
+            });
+        }
+    }
+}
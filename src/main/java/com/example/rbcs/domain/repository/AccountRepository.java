@@ -1,12 +1,34 @@
 package com.example.rbcs.domain.repository;
 
 import com.example.rbcs.domain.entity.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountBalanceRepository {
     Optional<Account> findByAccountNumber(String accountNumber);
     List<Account> findByAccountNumberIn(List<String> accountNumber);
-}
\ No newline at end of file
+
+    @Query("select a.status from Account a where a.id = :id")
+    Optional<Account.Status> findStatusById(@Param("id") Long id);
+
+    @Query("select a.shards from Account a where a.id = :id")
+    Optional<Integer> findShardsById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * 按账户ID顺序锁定账户行
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllForUpdate(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,33 @@
+package com.example.rbcs.domain.repository;
+
+import com.example.rbcs.domain.entity.AccountShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AccountShardRepository extends JpaRepository<AccountShard, Long> {
+    /**
+     * 按分片顺序锁定账户的所有分片，跨分片借款和取消分片时使用
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AccountShard s where s.accountId = :accountId order by s.shardIndex")
+    List<AccountShard> findAllForUpdate(@Param("accountId") Long accountId);
+
+    @Query("select coalesce(sum(s.balance), 0) from AccountShard s where s.accountId = :accountId")
+    long sumBalance(@Param("accountId") Long accountId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountShard s set s.balance = s.balance - :amount " +
+            "where s.accountId = :accountId and s.shardIndex = :shardIndex and s.balance >= :amount")
+    int withdrawAtomically(@Param("accountId") Long accountId, @Param("shardIndex") int shardIndex, @Param("amount") long amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountShard s set s.balance = s.balance + :amount " +
+            "where s.accountId = :accountId and s.shardIndex = :shardIndex")
+    int depositAtomically(@Param("accountId") Long accountId, @Param("shardIndex") int shardIndex, @Param("amount") long amount);
+}
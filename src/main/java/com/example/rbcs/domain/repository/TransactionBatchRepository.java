@@ -0,0 +1,16 @@
+package com.example.rbcs.domain.repository;
+
+import com.example.rbcs.domain.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * 交易的批量写入，绕过JPA逐条insert
+ */
+public interface TransactionBatchRepository {
+    /**
+     * 以JDBC批量的方式插入交易，插入后回填交易ID，必须在事务内调用
+     * @param transactions 未持久化的交易
+     */
+    void insertAll(List<Transaction> transactions);
+}
@@ -0,0 +1,67 @@
+package com.example.rbcs.domain.repository;
+
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.infrastructure.id.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 直接用JDBC批量插入，交易ID在写库前由 SnowflakeIdGenerator 分配
+ * 批量插入的交易不经过持久化上下文，也不会进入二级缓存
+ */
+@RequiredArgsConstructor
+public class TransactionBatchRepositoryImpl implements TransactionBatchRepository {
+    private static final String INSERT_SQL = "insert into transaction " +
+            "(id, source_account_id, target_account_id, amount, status, type, created_at, updated_at, version) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        final var idGenerator = SnowflakeIdGenerator.get();
+        final var now = new Date();
+        for (Transaction transaction : transactions) {
+            transaction.prePersist();
+            transaction.setId(idGenerator.nextId());
+            transaction.setCreatedAt(now);
+            transaction.setUpdatedAt(now);
+            transaction.setVersion(0);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                final var transaction = transactions.get(i);
+                ps.setLong(1, transaction.getId());
+                ps.setLong(2, transaction.getSourceAccount().getId());
+                if (transaction.getTargetAccount() != null) {
+                    ps.setLong(3, transaction.getTargetAccount().getId());
+                } else {
+                    ps.setNull(3, Types.BIGINT);
+                }
+                ps.setLong(4, transaction.getAmount());
+                ps.setString(5, transaction.getStatus().name());
+                ps.setString(6, transaction.getType().name());
+                ps.setTimestamp(7, new Timestamp(now.getTime()));
+                ps.setTimestamp(8, new Timestamp(now.getTime()));
+                ps.setInt(9, 0);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return transactions.size();
+            }
+        });
+    }
+}
@@ -3,10 +3,98 @@ package com.example.rbcs.domain.repository;
 import com.example.rbcs.domain.entity.Transaction;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Date;
 import java.util.List;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findAllByStatusAndCreatedAtLessThanEqual(Transaction.Status status, Date date, Pageable pageable);
-}
\ No newline at end of file
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionBatchRepository, TransactionSearchRepository {
+    long countByStatusAndCreatedAtLessThanEqual(Transaction.Status status, Date date);
+
+    @Query("select min(t.id) from Transaction t where t.status = :status and t.createdAt <= :before")
+    Long findMinIdByStatusAndCreatedAtLessThanEqual(@Param("status") Transaction.Status status, @Param("before") Date before);
+
+    /**
+     * 不小于fromId的最小超时pending交易ID，用于跳过没有数据的分段
+     */
+    @Query("select min(t.id) from Transaction t where t.status = :status and t.createdAt <= :before and t.id >= :fromId")
+    Long findMinIdByStatusAndCreatedAtLessThanEqualAndIdGreaterThanEqual(@Param("status") Transaction.Status status,
+                                                                         @Param("before") Date before,
+                                                                         @Param("fromId") long fromId);
+
+    /**
+     * 在交易ID范围内按 (created_at, id) 键集分页，从游标之后继续读取，走 (status, created_at, id) 索引
+     */
+    @Query("""
+            select t.id as id, t.createdAt as createdAt from Transaction t
+            where t.status = :status and t.createdAt <= :before
+              and t.id >= :fromId and t.id < :toId
+              and (t.createdAt > :afterCreatedAt or (t.createdAt = :afterCreatedAt and t.id > :afterId))
+            order by t.createdAt, t.id
+            """)
+    List<KeysetRow> findKeysetPage(@Param("status") Transaction.Status status,
+                                   @Param("before") Date before,
+                                   @Param("fromId") long fromId,
+                                   @Param("toId") long toId,
+                                   @Param("afterCreatedAt") Date afterCreatedAt,
+                                   @Param("afterId") long afterId,
+                                   Pageable pageable);
+
+    /**
+     * 账户作为交易主体的交易，按 (created_at, id) 倒序从游标之前继续读取，走 (source_account_id, created_at, id) 索引
+     */
+    @Query("""
+            select t.id as id, t.sourceAccount.id as sourceAccountId, t.targetAccount.id as targetAccountId,
+                   t.type as type, t.status as status, t.amount as amount, t.createdAt as createdAt
+            from Transaction t
+            where t.sourceAccount.id = :accountId
+              and (t.createdAt < :beforeCreatedAt or (t.createdAt = :beforeCreatedAt and t.id < :beforeId))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<HistoryRow> findHistoryBySource(@Param("accountId") Long accountId,
+                                         @Param("beforeCreatedAt") Date beforeCreatedAt,
+                                         @Param("beforeId") long beforeId,
+                                         Pageable pageable);
+
+    /**
+     * 账户作为收款方的交易，走 (target_account_id, created_at, id) 索引
+     */
+    @Query("""
+            select t.id as id, t.sourceAccount.id as sourceAccountId, t.targetAccount.id as targetAccountId,
+                   t.type as type, t.status as status, t.amount as amount, t.createdAt as createdAt
+            from Transaction t
+            where t.targetAccount.id = :accountId
+              and (t.createdAt < :beforeCreatedAt or (t.createdAt = :beforeCreatedAt and t.id < :beforeId))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<HistoryRow> findHistoryByTarget(@Param("accountId") Long accountId,
+                                         @Param("beforeCreatedAt") Date beforeCreatedAt,
+                                         @Param("beforeId") long beforeId,
+                                         Pageable pageable);
+
+    /**
+     * 交易历史的轻量投影，不加载账户实体
+     */
+    interface HistoryRow {
+        Long getId();
+
+        Long getSourceAccountId();
+
+        Long getTargetAccountId();
+
+        Transaction.Type getType();
+
+        Transaction.Status getStatus();
+
+        long getAmount();
+
+        Date getCreatedAt();
+    }
+
+    interface KeysetRow {
+        Long getId();
+
+        Date getCreatedAt();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.rbcs.domain.repository;
+
+import com.example.rbcs.domain.entity.Transaction;
+
+import java.util.Date;
+
+/**
+ * 交易搜索条件，为空的条件不参与过滤
+ * @param status 交易状态
+ * @param type 交易类型
+ * @param accountId 账户ID，匹配作为主体或作为收款方的交易
+ * @param minAmount 最小金额（包含）
+ * @param maxAmount 最大金额（包含）
+ * @param from 创建时间起点（包含）
+ * @param to 创建时间终点（不包含）
+ */
+public record TransactionSearchCriteria(Transaction.Status status,
+                                        Transaction.Type type,
+                                        Long accountId,
+                                        Long minAmount,
+                                        Long maxAmount,
+                                        Date from,
+                                        Date to) {
+}
@@ -0,0 +1,28 @@
+package com.example.rbcs.domain.repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 多条件交易搜索，由查询规划选择驱动索引
+ */
+public interface TransactionSearchRepository {
+    /**
+     * 按 (created_at, id) 倒序从游标之前读取一页
+     * @param limit 最多返回的条数
+     */
+    List<TransactionRepository.HistoryRow> search(TransactionSearchCriteria criteria, Date beforeCreatedAt, long beforeId, int limit);
+
+    /**
+     * 满足条件的交易数，不超过exactLimit时精确计数，超过时从数据库统计信息估算
+     * @param exactLimit 精确计数最多扫描的行数
+     */
+    SearchCount countSearch(TransactionSearchCriteria criteria, long exactLimit);
+
+    /**
+     * @param value 交易数
+     * @param exact 是否精确，不精确时为估算值或下限
+     */
+    record SearchCount(long value, boolean exact) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.rbcs.domain.repository;
+
+import com.example.rbcs.domain.entity.Transaction;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 交易搜索的查询规划
+ * 1. 按条件选择驱动索引：有账户条件时分别走 (source_account_id, created_at, id) 和 (target_account_id, created_at, id) 两个索引；
+ *    否则有状态条件时走 (status, created_at, id)；都没有时走 (created_at, id)
+ * 2. 时间范围和游标落在驱动索引的 (created_at, id) 上按索引顺序倒序读取，其余条件在读取到的行上过滤，读满一页即停止
+ * 3. 有账户或状态条件时，MySQL上用 force index 固定规划选择的索引，避免优化器因为金额、类型等条件的统计偏差退化为全表扫描；
+ *    只按时间读取的规划不强制索引，由优化器在时间范围上选择，此时按类型或金额过滤必须带时间起点（见 TransactionQueryServiceImpl），扫描行数以时间范围为界
+ */
+@Slf4j
+public class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+    private static final String COLUMNS = "t.id, t.source_account_id, t.target_account_id, t.type, t.status, t.amount, t.created_at";
+    private static final Comparator<TransactionRepository.HistoryRow> NEWEST_FIRST =
+            Comparator.comparing(TransactionRepository.HistoryRow::getCreatedAt)
+                    .thenComparing(TransactionRepository.HistoryRow::getId)
+                    .reversed();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile Boolean mysql;
+
+    public TransactionSearchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 规划可选的驱动索引
+     */
+    enum Access {
+        SOURCE_ACCOUNT("idx_transaction_source_created", "t.source_account_id = :accountId"),
+        TARGET_ACCOUNT("idx_transaction_target_created", "t.target_account_id = :accountId"),
+        STATUS("idx_transaction_status_created", "t.status = :status"),
+        CREATED("idx_transaction_created", null);
+
+        final String index;
+        final String predicate;
+
+        Access(String index, String predicate) {
+            this.index = index;
+            this.predicate = predicate;
+        }
+    }
+
+    static List<Access> plan(TransactionSearchCriteria criteria) {
+        if (criteria.accountId() != null) {
+            return List.of(Access.SOURCE_ACCOUNT, Access.TARGET_ACCOUNT);
+        }
+        if (criteria.status() != null) {
+            return List.of(Access.STATUS);
+        }
+        return List.of(Access.CREATED);
+    }
+
+    @Override
+    public List<TransactionRepository.HistoryRow> search(TransactionSearchCriteria criteria, Date beforeCreatedAt, long beforeId, int limit) {
+        final var params = parameters(criteria)
+                .addValue("beforeCreatedAt", beforeCreatedAt)
+                .addValue("beforeId", beforeId)
+                .addValue("limit", limit);
+        final List<TransactionRepository.HistoryRow> rows = new ArrayList<>();
+        for (Access access : plan(criteria)) {
+            final var sql = "select " + COLUMNS + " from transaction t" + hint(access)
+                    + " where " + where(access, criteria)
+                    + " and (t.created_at < :beforeCreatedAt or (t.created_at = :beforeCreatedAt and t.id < :beforeId))"
+                    + " order by t.created_at desc, t.id desc limit :limit";
+            rows.addAll(jdbcTemplate.query(sql, params, TransactionSearchRepositoryImpl::mapRow));
+        }
+        rows.sort(NEWEST_FIRST);
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    /**
+     * 先在驱动索引上最多扫描exactLimit行计数；达到上限时MySQL上用EXPLAIN的估算行数，其他数据库返回下限
+     */
+    @Override
+    public SearchCount countSearch(TransactionSearchCriteria criteria, long exactLimit) {
+        final var params = parameters(criteria).addValue("exactLimit", exactLimit);
+        long total = 0;
+        boolean exact = true;
+        for (Access access : plan(criteria)) {
+            final var from = " from transaction t" + hint(access) + " where " + where(access, criteria);
+            final var counted = jdbcTemplate.queryForObject(
+                    "select count(*) from (select 1" + from + " limit :exactLimit) c", params, Long.class);
+            if (counted == null || counted < exactLimit) {
+                total += counted == null ? 0 : counted;
+                continue;
+            }
+            exact = false;
+            total += Math.max(counted, estimate("select 1" + from, params));
+        }
+        return new SearchCount(total, exact);
+    }
+
+    private long estimate(String sql, MapSqlParameterSource params) {
+        if (!isMysql()) {
+            return 0;
+        }
+        try {
+            final var estimates = jdbcTemplate.query("explain " + sql, params, (rs, rowNum) -> {
+                final var rows = rs.getLong("rows");
+                final var filtered = rs.getDouble("filtered");
+                return (long) (rows * (rs.wasNull() ? 100 : filtered) / 100);
+            });
+            return estimates.isEmpty() ? 0 : estimates.get(0);
+        } catch (DataAccessException e) {
+            log.warn("failed to estimate search count", e);
+            return 0;
+        }
+    }
+
+    private String hint(Access access) {
+        return access.predicate != null && isMysql() ? " force index (" + access.index + ")" : "";
+    }
+
+    private boolean isMysql() {
+        if (mysql == null) {
+            mysql = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql"));
+        }
+        return mysql;
+    }
+
+    private static String where(Access access, TransactionSearchCriteria criteria) {
+        final List<String> conditions = new ArrayList<>();
+        if (access.predicate != null) {
+            conditions.add(access.predicate);
+        }
+        if (criteria.status() != null && access != Access.STATUS) {
+            conditions.add("t.status = :status");
+        }
+        if (criteria.type() != null) {
+            conditions.add("t.type = :type");
+        }
+        if (criteria.minAmount() != null) {
+            conditions.add("t.amount >= :minAmount");
+        }
+        if (criteria.maxAmount() != null) {
+            conditions.add("t.amount <= :maxAmount");
+        }
+        if (criteria.from() != null) {
+            conditions.add("t.created_at >= :from");
+        }
+        if (criteria.to() != null) {
+            conditions.add("t.created_at < :to");
+        }
+        return conditions.isEmpty() ? "1 = 1" : String.join(" and ", conditions);
+    }
+
+    private static MapSqlParameterSource parameters(TransactionSearchCriteria criteria) {
+        return new MapSqlParameterSource()
+                .addValue("accountId", criteria.accountId())
+                .addValue("status", criteria.status() == null ? null : criteria.status().name())
+                .addValue("type", criteria.type() == null ? null : criteria.type().name())
+                .addValue("minAmount", criteria.minAmount())
+                .addValue("maxAmount", criteria.maxAmount())
+                .addValue("from", criteria.from())
+                .addValue("to", criteria.to());
+    }
+
+    private static TransactionRepository.HistoryRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        final var sourceAccountId = rs.getLong("source_account_id");
+        final var sourceIsNull = rs.wasNull();
+        final var targetAccountId = rs.getLong("target_account_id");
+        final var targetIsNull = rs.wasNull();
+        return new Row(rs.getLong("id"),
+                sourceIsNull ? null : sourceAccountId,
+                targetIsNull ? null : targetAccountId,
+                Transaction.Type.valueOf(rs.getString("type")),
+                Transaction.Status.valueOf(rs.getString("status")),
+                rs.getLong("amount"),
+                new Date(rs.getTimestamp("created_at").getTime()));
+    }
+
+    @Value
+    private static class Row implements TransactionRepository.HistoryRow {
+        Long id;
+        Long sourceAccountId;
+        Long targetAccountId;
+        Transaction.Type type;
+        Transaction.Status status;
+        long amount;
+        Date createdAt;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.rbcs.domain.service;
+
+/**
+ * 账户导入结果
+ * @param created 新建的账户数
+ * @param duplicated 账户号已存在或在导入内容中重复而跳过的数量
+ */
+public record AccountImportResult(long created, long duplicated) {
+}
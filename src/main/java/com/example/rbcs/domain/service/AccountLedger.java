@@ -0,0 +1,138 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.AccountShard;
+import com.example.rbcs.domain.exception.AccountNotFoundException;
+import com.example.rbcs.domain.exception.AccountStatusInvalid;
+import com.example.rbcs.domain.exception.InsufficientBalanceException;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.AccountShardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 账户余额的原子更新，不加载账户实体，直接以带条件的UPDATE语句修改余额
+ * 1. 普通账户更新账户行，条件中带上余额、状态和未分片，更新行数为0时再区分具体原因
+ * 2. 分片账户的存款随机落到一个分片；取款先尝试随机分片，余额不足时按分片顺序锁定所有分片跨分片扣款
+ * 3. 执行过程中账户可能被切换分片模式，此时条件不满足，重新判断账户模式后重试
+ * 必须在数据库事务中调用，失败时抛出DomainException，由调用方回滚事务
+ * 原子余额模式下的所有交易、其他模式下涉及分片账户的交易，以及归属不同节点的转账，都经由这里修改余额
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountLedger {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AccountRepository accountRepository;
+    private final AccountShardRepository accountShardRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void withdraw(long accountId, long amount) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final int shards = shardsOf(accountId);
+            if (shards == 0) {
+                if (accountRepository.withdrawAtomically(accountId, amount) > 0) {
+                    log.info("[aid:{}]withdraw amount atomically: {}", accountId, amount);
+                    return;
+                }
+                if (shardsOf(accountId) == 0) {
+                    assertAccountActivated(accountId);
+                    throw new InsufficientBalanceException("Insufficient balance");
+                }
+            } else {
+                assertAccountActivated(accountId);
+                if (withdrawFromShards(accountId, shards, amount)) {
+                    return;
+                }
+            }
+            log.info("[aid:{}]account sharding switched during withdrawal, retry", accountId);
+        }
+        throw new IllegalStateException("account sharding keeps switching: " + accountId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deposit(long accountId, long amount) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final int shards = shardsOf(accountId);
+            if (shards == 0) {
+                if (accountRepository.depositAtomically(accountId, amount) > 0) {
+                    log.info("[aid:{}]deposit amount atomically: {}", accountId, amount);
+                    return;
+                }
+                if (shardsOf(accountId) == 0) {
+                    assertAccountActivated(accountId);
+                    throw new AccountStatusInvalid("account can not be deposited: " + accountId);
+                }
+            } else {
+                assertAccountActivated(accountId);
+                final var shardIndex = ThreadLocalRandom.current().nextInt(shards);
+                if (accountShardRepository.depositAtomically(accountId, shardIndex, amount) > 0) {
+                    log.info("[aid:{}]deposit amount to shard {}: {}", accountId, shardIndex, amount);
+                    return;
+                }
+            }
+            log.info("[aid:{}]account sharding switched during deposit, retry", accountId);
+        }
+        throw new IllegalStateException("account sharding keeps switching: " + accountId);
+    }
+
+    /**
+     * 账户的总余额，分片账户为所有分片余额之和
+     */
+    public long balanceOf(Account account) {
+        if (!account.isSharded()) {
+            return account.getBalance();
+        }
+        return accountShardRepository.sumBalance(account.getId());
+    }
+
+    /**
+     * 从分片中扣款
+     * @return false表示分片已经不存在（账户被取消分片）
+     */
+    private boolean withdrawFromShards(long accountId, int shards, long amount) {
+        final var shardIndex = ThreadLocalRandom.current().nextInt(shards);
+        if (accountShardRepository.withdrawAtomically(accountId, shardIndex, amount) > 0) {
+            log.info("[aid:{}]withdraw amount from shard {}: {}", accountId, shardIndex, amount);
+            return true;
+        }
+        // 单个分片余额不足，锁定所有分片后跨分片扣款
+        final var all = accountShardRepository.findAllForUpdate(accountId);
+        if (all.isEmpty()) {
+            return false;
+        }
+        final var total = all.stream().mapToLong(AccountShard::getBalance).sum();
+        if (total < amount) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+        var remaining = amount;
+        for (var shard : all) {
+            final var taken = Math.min(shard.getBalance(), remaining);
+            shard.setBalance(shard.getBalance() - taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        accountShardRepository.saveAll(all);
+        log.info("[aid:{}]withdraw amount across {} shards: {}", accountId, all.size(), amount);
+        return true;
+    }
+
+    private int shardsOf(long accountId) {
+        return accountRepository.findShardsById(accountId).orElseThrow(AccountNotFoundException::new);
+    }
+
+    private void assertAccountActivated(long accountId) {
+        final var status = accountRepository.findStatusById(accountId).orElseThrow(AccountNotFoundException::new);
+        if (status != Account.Status.ACTIVATED) {
+            throw new AccountStatusInvalid("not in activate status: " + status);
+        }
+    }
+}
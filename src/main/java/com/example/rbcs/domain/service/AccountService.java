@@ -2,10 +2,29 @@ package com.example.rbcs.domain.service;
 
 import com.example.rbcs.domain.entity.Account;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 public interface AccountService {
     Account createAccount(String accountNo);
+
+    /**
+     * 批量导入账户，按块读取账户号，每块一次查询已存在的账户号，新账户批量插入
+     * 只持有当前块，内存占用与导入总量无关
+     * @param accountNumbers 账户号，逐个读取
+     * @param activate 是否同时激活新账户
+     * @return 导入结果
+     */
+    AccountImportResult importAccounts(Iterator<String> accountNumbers, boolean activate);
+
+    /**
+     * 在一个数据库事务中创建一块账户，已存在的账户号跳过
+     * @param accountNumbers 去重后的账户号
+     * @param activate 是否同时激活
+     * @return 新建的账户数
+     */
+    int createAccounts(Collection<String> accountNumbers, boolean activate);
     
     void activateAccount(Long id);
     
@@ -18,4 +37,22 @@ public interface AccountService {
     List<Account> getValidAccounts(List<Long> accountIds);
 
     Account getValidAccount(Long accountId);
+
+    /**
+     * 开启余额分片，用于热点账户，可以在线切换
+     * @param id 账户ID
+     * @param shards 分片数
+     */
+    void shardAccount(Long id, int shards);
+
+    /**
+     * 取消余额分片，分片余额合并回账户
+     * @param id 账户ID
+     */
+    void unshardAccount(Long id);
+
+    /**
+     * 账户总余额，分片账户为所有分片余额之和
+     */
+    long getBalance(Account account);
 }
\ No newline at end of file
@@ -2,33 +2,46 @@ package com.example.rbcs.domain.service;
 
 import com.example.rbcs.domain.exception.AccountNotFoundException;
 import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.AccountShard;
 import com.example.rbcs.domain.exception.AccountStatusInvalid;
 import com.example.rbcs.domain.exception.DomainException;
 import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.AccountShardRepository;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
 import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AccountServiceImpl implements AccountService {
+    private static final int IMPORT_ATTEMPTS = 3;
 
     private final AccountRepository accountRepository;
-    private final RedissonClient redissonClient;
+    private final AccountShardRepository accountShardRepository;
+    private final AccountLedger accountLedger;
+    private final AccountLockProvider accountLockProvider;
     @Resource
     @Lazy
     AccountServiceImpl self;
+    @Value("${rbcs.account.import.chunk-size:1000}")
+    private int importChunkSize;
 
     @Override
     public void validateAccount(Long accountId) {
@@ -60,6 +73,60 @@ public class AccountServiceImpl implements AccountService {
         return accountRepository.save(Account.builder().accountNumber(accountNo).build());
     }
 
+    @Override
+    public AccountImportResult importAccounts(Iterator<String> accountNumbers, boolean activate) {
+        long created = 0;
+        long total = 0;
+        final Set<String> chunk = new LinkedHashSet<>();
+        while (accountNumbers.hasNext()) {
+            chunk.add(accountNumbers.next());
+            total++;
+            if (chunk.size() >= importChunkSize || !accountNumbers.hasNext()) {
+                created += createChunk(chunk, activate);
+                chunk.clear();
+            }
+        }
+        log.info("imported {} accounts, {} created", total, created);
+        return new AccountImportResult(created, total - created);
+    }
+
+    /**
+     * 并发导入同一个账户号时唯一约束冲突，重新查询已存在的账户号后重试
+     */
+    private int createChunk(Set<String> chunk, boolean activate) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return self.createAccounts(chunk, activate);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= IMPORT_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("account number conflict while importing, retry chunk of {}", chunk.size());
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public int createAccounts(Collection<String> accountNumbers, boolean activate) {
+        final Set<String> existing = new HashSet<>();
+        accountRepository.findByAccountNumberIn(List.copyOf(accountNumbers))
+                .forEach(account -> existing.add(account.getAccountNumber()));
+        final List<Account> accounts = new ArrayList<>(accountNumbers.size() - existing.size());
+        for (String accountNumber : accountNumbers) {
+            if (existing.contains(accountNumber)) {
+                continue;
+            }
+            final var account = Account.builder().accountNumber(accountNumber).build();
+            if (activate) {
+                account.activate();
+            }
+            accounts.add(account);
+        }
+        accountRepository.saveAll(accounts);
+        return accounts.size();
+    }
+
     @Override
     public void activateAccount(Long id) {
         self.requireAccountLock(id, () -> {
@@ -90,6 +157,49 @@ public class AccountServiceImpl implements AccountService {
         });
     }
 
+    /**
+     * 开启余额分片
+     * 锁定账户行后把余额平均分配到各个分片，余数放在第一个分片，账户余额清零
+     * 正在以实体方式执行的交易会因为版本号冲突而失败重试，重试时改走分片账户的原子更新
+     */
+    @Override
+    @Transactional
+    public void shardAccount(Long id, int shards) {
+        final var account = accountRepository.findForUpdateById(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
+        final var amount = account.shard(shards);
+        final List<AccountShard> accountShards = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            accountShards.add(AccountShard.builder()
+                    .accountId(id)
+                    .shardIndex(i)
+                    .balance(amount / shards + (i == 0 ? amount % shards : 0))
+                    .build());
+        }
+        accountShardRepository.saveAll(accountShards);
+        accountRepository.save(account);
+    }
+
+    /**
+     * 取消余额分片
+     * 依次锁定账户行和所有分片，合并余额后删除分片，进行中的分片存取款会在分片删除后改走账户行
+     */
+    @Override
+    @Transactional
+    public void unshardAccount(Long id) {
+        final var account = accountRepository.findForUpdateById(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
+        final var accountShards = accountShardRepository.findAllForUpdate(id);
+        account.unshard(accountShards.stream().mapToLong(AccountShard::getBalance).sum());
+        accountShardRepository.deleteAllInBatch(accountShards);
+        accountRepository.save(account);
+    }
+
+    @Override
+    public long getBalance(Account account) {
+        return accountLedger.balanceOf(account);
+    }
+
     private Account getAccount(Long accountId) {
         return accountRepository.findById(accountId).orElseThrow(AccountNotFoundException::new);
     }
@@ -97,25 +207,15 @@ public class AccountServiceImpl implements AccountService {
     /**
      * 获取账户锁，并执行操作
      * 非预期内的失败重试
-     * 这个账户锁和交易的锁并不互斥，在设计上我们禁止在AccountService内执行转账操作，所有和交易相关的逻辑由Transaction负责，因此不互斥并不会造成结果有致命的差异
-     * 最坏的情况是，正在交易的过程中冻结了账户，但因为我们在交易中采用的是RR的隔离级别，因此只会有一笔正在进行的交易无法被取消
+     * 与交易执行共用同一个账户锁（AccountLockProvider），账户状态变更与进行中的交易互斥
+     * 在设计上我们禁止在AccountService内执行转账操作，所有和交易相关的逻辑由Transaction负责
      * @param id 账户ID
      * @param runnable 要执行的操作
      */
     @Retryable(noRetryFor = DomainException.class)
     public void requireAccountLock(long id, Runnable runnable) {
-        final var lock = redissonClient.getLock("account:" + id);
-        try {
-            if (lock.tryLock(10, 15, TimeUnit.SECONDS)) {
-                try {
-                    runnable.run();
-                } finally {
-                    lock.unlock();
-                }
-            }
-        } catch (InterruptedException e) {
-            log.error("[{}]Error while acquiring lock for account: ", id, e);
-            throw new RuntimeException(e);
+        if (!accountLockProvider.executeWithLock(List.of(id), runnable)) {
+            log.warn("[{}]unable to acquire lock for account", id);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.rbcs.domain.service;
+
+/**
+ * 等待账户锁（或分区）期间，交易涉及的账户开启了余额分片
+ * 分片账户的余额只能以原子更新的方式修改，调用方释放锁后改走原子执行
+ */
+class AccountShardedConcurrently extends RuntimeException {
+    AccountShardedConcurrently(long transactionId) {
+        super("accounts of transaction " + transactionId + " were sharded during execution");
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.rbcs.domain.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.transaction.deposit-aggregation")
+@Data
+public class DepositAggregationProperties {
+    /**
+     * 是否聚合同一账户的存款，合并成一次账户更新
+     */
+    private boolean enabled = false;
+    /**
+     * 聚合的时间窗口
+     */
+    private long windowMillis = 10;
+    /**
+     * 单批最多聚合的交易数，凑满后立即执行
+     */
+    private int maxBatchSize = 200;
+    /**
+     * 执行聚合批次的线程数
+     */
+    private int flushers = 4;
+}
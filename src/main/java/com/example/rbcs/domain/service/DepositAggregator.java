@@ -0,0 +1,60 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.infrastructure.batch.WindowedBatcher;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 存款聚合（group commit）
+ * 热点账户（如商户账户）短时间内会收到大量存款，逐笔执行时每一笔都要抢同一把账户锁、更新同一行
+ * 这里按账户收集一个时间窗口内的存款，整批加一次锁、在一个数据库事务中执行，账户只更新一次
+ * 每笔交易仍然单独标记状态、单独发布完成事件；整批失败时退回逐笔执行
+ * 开启后，可在本节点执行且不涉及分片账户的pending存款都经由聚合器执行
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.transaction.deposit-aggregation.enabled", havingValue = "true")
+@Slf4j
+public class DepositAggregator {
+    private final WindowedBatcher<Long, Long> batcher;
+
+    public DepositAggregator(DepositAggregationProperties properties, @Lazy TransactionServiceImpl transactionService) {
+        this.batcher = new WindowedBatcher<>("rbcs-deposit",
+                properties.getWindowMillis(),
+                properties.getMaxBatchSize(),
+                properties.getFlushers(),
+                transactionService::executeDeposits);
+    }
+
+    /**
+     * 把存款加入账户的聚合批次，阻塞直到所在批次执行完成
+     * 批次拿不到账户锁时抛出 AccountLockContendedException，由调用方重新投递
+     * @param accountId 存款账户
+     * @param transactionId 交易ID
+     */
+    public void aggregate(long accountId, long transactionId) {
+        try {
+            batcher.submit(accountId, transactionId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AccountLockContendedException) {
+                // 批次异常只携带了其中一笔交易的ID，重新投递需要各自的交易ID
+                throw new AccountLockContendedException(transactionId, List.of(accountId));
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.shutdown();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.rbcs.domain.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.transaction.execution")
+@Data
+public class TransactionExecutionProperties {
+    /**
+     * 交易执行模式，默认使用分布式锁
+     */
+    private Mode mode = Mode.LOCK;
+    /**
+     * 余额更新方式，默认加载实体后在内存中修改
+     */
+    private BalanceMode balanceMode = BalanceMode.ENTITY;
+
+    public enum Mode {
+        LOCK,        // 基于redisson分布式锁执行
+        PARTITIONED  // 按账户分区单线程执行，不再加分布式锁
+    }
+
+    public enum BalanceMode {
+        ENTITY,  // 加载账户实体修改后保存，依赖锁或分区保证串行
+        ATOMIC   // 带条件的UPDATE语句直接更新余额，不需要加锁
+    }
+}
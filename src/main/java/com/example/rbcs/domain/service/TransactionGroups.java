@@ -0,0 +1,109 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 按账户对一批交易分组
+ * 直接或间接共用账户的交易落在同一组，不同组之间没有共同的账户，可以各自加锁、各自提交，互不阻塞，
+ * 一组执行失败也不会拖累其他组
+ * 指定单组账户数上限时，超过上限的组按交易ID顺序拆成多组，拆开的组之间可能共用账户，调用方需要依次执行
+ */
+public final class TransactionGroups {
+    private TransactionGroups() {
+    }
+
+    /**
+     * @param transactionIds 组内的交易ID，按ID排序
+     * @param accountIds 组内交易涉及的账户ID，按ID排序
+     */
+    public record Group(List<Long> transactionIds, Set<Long> accountIds) {
+    }
+
+    public static List<Group> of(Collection<Transaction> transactions, int maxAccounts) {
+        if (maxAccounts < 2) {
+            throw new IllegalArgumentException("max accounts per group must be at least 2");
+        }
+        final Map<Long, Transaction> byId = new HashMap<>();
+        transactions.forEach(transaction -> byId.put(transaction.getId(), transaction));
+        final List<Group> bounded = new ArrayList<>();
+        for (Group group : of(transactions)) {
+            if (group.accountIds().size() <= maxAccounts) {
+                bounded.add(group);
+                continue;
+            }
+            List<Long> chunkIds = new ArrayList<>();
+            Set<Long> chunkAccounts = new TreeSet<>();
+            for (Long transactionId : group.transactionIds()) {
+                final var accountIds = accountIdsOf(byId.get(transactionId));
+                final var current = chunkAccounts;
+                final var added = accountIds.stream().filter(id -> !current.contains(id)).count();
+                if (chunkAccounts.size() + added > maxAccounts) {
+                    bounded.add(new Group(List.copyOf(chunkIds), chunkAccounts));
+                    chunkIds = new ArrayList<>();
+                    chunkAccounts = new TreeSet<>();
+                }
+                chunkIds.add(transactionId);
+                chunkAccounts.addAll(accountIds);
+            }
+            bounded.add(new Group(List.copyOf(chunkIds), chunkAccounts));
+        }
+        return bounded;
+    }
+
+    public static List<Group> of(Collection<Transaction> transactions) {
+        final Map<Long, Group> byAccount = new HashMap<>();
+        final List<Group> groups = new ArrayList<>();
+        transactions.stream()
+                .sorted(Comparator.comparingLong(Transaction::getId))
+                .forEach(transaction -> {
+                    final var accountIds = accountIdsOf(transaction);
+                    Group group = null;
+                    for (Long accountId : accountIds) {
+                        final var existing = byAccount.get(accountId);
+                        if (existing == null || existing == group) {
+                            continue;
+                        }
+                        if (group == null) {
+                            group = existing;
+                            continue;
+                        }
+                        // 一笔交易连接了两个已有的组，把小的组并入大的组
+                        final var into = group.transactionIds().size() >= existing.transactionIds().size() ? group : existing;
+                        final var from = into == group ? existing : group;
+                        into.transactionIds().addAll(from.transactionIds());
+                        into.accountIds().addAll(from.accountIds());
+                        from.accountIds().forEach(id -> byAccount.put(id, into));
+                        groups.removeIf(candidate -> candidate == from);
+                        group = into;
+                    }
+                    if (group == null) {
+                        group = new Group(new ArrayList<>(), new TreeSet<>());
+                        groups.add(group);
+                    }
+                    group.transactionIds().add(transaction.getId());
+                    group.accountIds().addAll(accountIds);
+                    for (Long accountId : accountIds) {
+                        byAccount.put(accountId, group);
+                    }
+                });
+        return groups.stream()
+                .map(group -> new Group(group.transactionIds().stream().sorted().toList(), group.accountIds()))
+                .toList();
+    }
+
+    private static List<Long> accountIdsOf(Transaction transaction) {
+        if (transaction.getTargetAccount() == null) {
+            return List.of(transaction.getSourceAccount().getId());
+        }
+        return List.of(transaction.getSourceAccount().getId(), transaction.getTargetAccount().getId());
+    }
+}
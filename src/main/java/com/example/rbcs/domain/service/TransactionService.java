@@ -3,6 +3,9 @@ package com.example.rbcs.domain.service;
 import com.example.rbcs.domain.entity.Account;
 import com.example.rbcs.domain.entity.Transaction;
 
+import java.util.List;
+import java.util.Set;
+
 public interface TransactionService {
     /**
      * 创建交易
@@ -13,9 +16,23 @@ public interface TransactionService {
      */
     Transaction createTransaction(Account source, Account target, Transaction.Type type, long amount);
 
+    /**
+     * 批量创建交易，在一个数据库事务中批量插入，提交后批量发送执行消息
+     * @param transactions 已经通过校验、尚未持久化的交易
+     * @return 回填了ID的交易
+     */
+    List<Transaction> createTransactions(List<Transaction> transactions);
+
     /**
      * 执行转账
      * @param transactionId 交易ID
      */
     void executeTransaction(long transactionId);
+
+    /**
+     * 批量执行交易
+     * @param transactionIds 交易ID
+     * @return 已经处理完成的交易ID，未包含的交易需要重新投递
+     */
+    Set<Long> executeTransactions(List<Long> transactionIds);
 }
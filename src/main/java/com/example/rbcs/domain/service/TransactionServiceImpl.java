@@ -3,6 +3,7 @@ package com.example.rbcs.domain.service;
 import com.example.rbcs.domain.entity.Account;
 import com.example.rbcs.domain.entity.Transaction;
 import com.example.rbcs.domain.event.TransactionCompletedEvent;
+import com.example.rbcs.domain.event.TransactionBatchCreatedEvent;
 import com.example.rbcs.domain.event.TransactionCreatedEvent;
 import com.example.rbcs.domain.event.TransactionFailedEvent;
 import com.example.rbcs.domain.exception.AmountInvalidException;
@@ -10,31 +11,58 @@ import com.example.rbcs.domain.exception.DomainException;
 import com.example.rbcs.domain.exception.TransactionAccountInvalid;
 import com.example.rbcs.domain.exception.TransactionNotFoundException;
 import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.cluster.AccountOwnership;
+import com.example.rbcs.infrastructure.cluster.TransactionForwarder;
+import com.example.rbcs.infrastructure.dedup.ExecutionDeduplicator;
 import com.example.rbcs.infrastructure.defer.Defers;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
+import com.example.rbcs.infrastructure.lock.LockProperties;
+import com.example.rbcs.infrastructure.outbox.Outbox;
+import com.example.rbcs.infrastructure.partition.AccountPartitionExecutor;
 import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.RedissonLock;
-import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
+    private final AccountLedger accountLedger;
     private final ApplicationEventPublisher eventPublisher;
     private final Defers defers;
-    private final RedissonClient redissonClient;
+    private final AccountLockProvider accountLockProvider;
+    private final TransactionExecutionProperties executionProperties;
+    private final LockProperties lockProperties;
+    private final ObjectProvider<AccountPartitionExecutor> partitionExecutor;
+    private final ObjectProvider<AccountOwnership> accountOwnership;
+    private final ObjectProvider<TransactionForwarder> transactionForwarder;
+    private final ObjectProvider<Outbox> outbox;
+    private final ObjectProvider<DepositAggregator> depositAggregator;
+    private final ObjectProvider<TransferNettingAggregator> transferNettingAggregator;
+    private final TransferNettingProperties nettingProperties;
+    private final ObjectProvider<ExecutionDeduplicator> deduplicator;
     @Resource
     @Lazy
     private TransactionServiceImpl self;
@@ -66,53 +94,391 @@ public class TransactionServiceImpl implements TransactionService {
                 .amount(amount)
                 .build();
         transactionRepository.save(transaction);
+        // 开启发件箱时，执行消息随交易一起提交，由中继任务投递
+        outbox.ifAvailable(box -> box.enqueue(transaction.getId()));
 
-        defers.deferOnTransactionComplete(() -> {
+        defers.deferOnTransactionCommit(() -> {
             log.info("[{}]Transaction Created: {}", transaction.getId(), transaction);
             eventPublisher.publishEvent(new TransactionCreatedEvent(transaction));
         });
         return transaction;
     }
 
+    @Override
+    @Transactional
+    public List<Transaction> createTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return transactions;
+        }
+        transactionRepository.insertAll(transactions);
+        outbox.ifAvailable(box -> transactions.forEach(transaction -> box.enqueue(transaction.getId())));
+        log.info("Created {} transactions in batch", transactions.size());
+
+        defers.deferOnTransactionCommit(() -> eventPublisher.publishEvent(new TransactionBatchCreatedEvent(transactions)));
+        return transactions;
+    }
+
     /**
-     * 执行交易
-     * 1. 先对被交易对象加锁
-     * 2. 取得锁后，开启数据库事务，隔离级别REPEATABLE_READ，避免幻读
-     * 3. 如果处理失败在预期的异常（DomainException），标记交易失败，否则重试3次
+     * 执行交易，按以下顺序选择执行方式，先命中的生效，各方式的细节见对应的组件：
+     * 1. 执行去重（ExecutionDeduplicator）
+     * 2. 存款聚合（DepositAggregator）、转账轧差（TransferNettingAggregator）
+     * 3. 原子更新（AccountLedger）：原子余额模式，或涉及分片账户
+     * 4. 分区执行（AccountPartitionExecutor），开启集群归属时由 AccountOwnership 决定本地执行、转发或原子更新
+     * 5. 分布式锁（AccountLockProvider）：加锁后在REPEATABLE_READ事务中执行
+     * 预期的异常（DomainException）标记交易失败，其他异常重试3次；
+     * 锁竞争策略为requeue时拿不到锁抛出 AccountLockContendedException，由调用方延迟重新投递
      * @param transactionId 交易ID
      */
-    @Retryable(maxAttempts = 3)
+    @Retryable(maxAttempts = 3, noRetryFor = AccountLockContendedException.class)
     public void executeTransaction(long transactionId) {
+        final var dedup = deduplicator.getIfAvailable();
+        if (dedup == null) {
+            dispatchTransaction(transactionId);
+            return;
+        }
+        if (!dedup.tryBegin(transactionId)) {
+            return;
+        }
+        try {
+            dispatchTransaction(transactionId);
+        } finally {
+            dedup.end(transactionId);
+        }
+    }
+
+    private void dispatchTransaction(long transactionId) {
+        final var deposits = depositAggregator.getIfAvailable();
+        final var transfers = transferNettingAggregator.getIfAvailable();
+        if (deposits != null || transfers != null) {
+            final var transaction = transactionRepository.findById(transactionId).orElse(null);
+            if (transaction != null
+                    && transaction.getStatus() == Transaction.Status.PENDING
+                    && isLocallyExecutable(transaction)
+                    && !involvesShardedAccount(transaction)) {
+                if (deposits != null && transaction.getType() == Transaction.Type.DEPOSIT) {
+                    deposits.aggregate(transaction.getSourceAccount().getId(), transactionId);
+                    return;
+                }
+                if (transfers != null && transaction.getType() == Transaction.Type.TRANSFER) {
+                    transfers.aggregate(transactionId);
+                    return;
+                }
+            }
+        }
+        executeIndividually(transactionId, lockProperties.getContention() == LockProperties.Contention.REQUEUE);
+    }
+
+    private void executeIndividually(long transactionId) {
+        executeIndividually(transactionId, false);
+    }
+
+    /**
+     * 逐笔执行交易，不经过存款聚合
+     * @param requeueOnContention 拿不到锁时是否放弃执行并抛出 AccountLockContendedException
+     */
+    private void executeIndividually(long transactionId, boolean requeueOnContention) {
+        if (executionProperties.getBalanceMode() == TransactionExecutionProperties.BalanceMode.ATOMIC) {
+            executeAtomically(transactionId);
+            return;
+        }
         final var transactionOptional = transactionRepository.findById(transactionId);
         if (transactionOptional.isEmpty()) {
             log.warn("transaction not found, ignore execution");
             return;
         }
         final var transaction = transactionOptional.get();
+        if (involvesShardedAccount(transaction)) {
+            // 分片账户的余额只能以原子更新的方式修改
+            executeAtomically(transactionId);
+            return;
+        }
         final var source = transaction.getSourceAccount();
         final var target = transaction.getTargetAccount();
-        final var sourceLock =redissonClient.getLock("t:a:" + source.getId());
-        var lock = sourceLock;
-        if (target != null) {
-            final var targetLock = redissonClient.getLock("t:a:" + target.getId());
-            lock = redissonClient.getMultiLock(sourceLock, targetLock);
+        final var accountIds = Stream.of(source, target).filter(Objects::nonNull).map(Account::getId).toList();
+        if (executionProperties.getMode() == TransactionExecutionProperties.Mode.PARTITIONED) {
+            final var ownership = accountOwnership.getIfAvailable();
+            if (ownership == null || ownership.isLocal(accountIds)) {
+                try {
+                    self.executeInPartition(transactionId, accountIds);
+                } catch (AccountShardedConcurrently e) {
+                    log.info("[{}]{}, execute atomically", transactionId, e.getMessage());
+                    executeAtomically(transactionId);
+                }
+                return;
+            }
+            if (ownership.isStable()) {
+                final var owner = ownership.commonOwnerOf(accountIds);
+                if (owner == null) {
+                    // 转账双方归属不同节点，任何一个节点的分区都不能同时串行两个账户，
+                    // 以带条件的UPDATE原子执行，不需要串行；归属节点上修改账户实体的执行由账户的乐观锁版本号发现并发修改后重试
+                    log.info("[{}]accounts are owned by different nodes, execute atomically", transactionId);
+                    executeAtomically(transactionId);
+                    return;
+                }
+                if (!TransactionForwarder.isForwarded()) {
+                    transactionForwarder.getObject().forward(owner, transactionId);
+                    return;
+                }
+            }
+            log.info("[{}]account ownership is not settled, fallback to distributed lock", transactionId);
         }
+        final var waitMillis = requeueOnContention ? lockProperties.getContentionTryMillis() : lockProperties.getWaitMillis();
+        final boolean locked;
         try {
-            if (lock.tryLock(100, 300, TimeUnit.SECONDS)) {
+            locked = self.executeUnderLock(transactionId, accountIds, waitMillis);
+        } catch (AccountShardedConcurrently e) {
+            log.info("[{}]{}, execute atomically", transactionId, e.getMessage());
+            executeAtomically(transactionId);
+            return;
+        }
+        if (!locked) {
+            if (requeueOnContention) {
+                throw new AccountLockContendedException(transactionId, accountIds);
+            }
+            log.info("[{}]unable to acquire lock", transactionId);
+        }
+    }
+
+    /**
+     * 批量执行交易
+     * 1. 一次性加载所有交易，按账户分组，共用账户的交易落在同一组，不同组之间没有共同账户
+     * 2. 每组对涉及的账户加锁（分区模式下占住对应的分区），在一个数据库事务中按交易ID顺序执行，
+     *    同一账户上的多笔交易依次生效且只产生一次账户更新，交易状态的更新走JDBC批量
+     * 3. 一组事务出现非预期异常时，这一组退回逐笔执行，避免一笔异常拖垮整批
+     * 开启集群归属且账户不归属当前节点的交易，走单笔执行的转发流程
+     * 锁竞争策略为requeue时只短暂尝试加锁，拿不到锁的交易等待重新投递
+     * 开启执行去重时，重复的交易不执行，直接视为已处理
+     * @param transactionIds 交易ID
+     * @return 已经处理完成（成功、失败或无需执行）的交易ID，其余交易需要重新投递
+     */
+    @Override
+    public Set<Long> executeTransactions(List<Long> transactionIds) {
+        final var dedup = deduplicator.getIfAvailable();
+        if (dedup == null) {
+            return executeBatch(transactionIds);
+        }
+        final List<Long> accepted = new ArrayList<>(transactionIds.size());
+        final Set<Long> suppressed = new HashSet<>();
+        for (Long transactionId : transactionIds) {
+            if (dedup.tryBegin(transactionId)) {
+                accepted.add(transactionId);
+            } else {
+                suppressed.add(transactionId);
+            }
+        }
+        try {
+            final var handled = accepted.isEmpty() ? new HashSet<Long>() : executeBatch(accepted);
+            handled.addAll(suppressed);
+            return handled;
+        } finally {
+            accepted.forEach(dedup::end);
+        }
+    }
+
+    private Set<Long> executeBatch(List<Long> transactionIds) {
+        final Set<Long> handled = new HashSet<>(transactionIds);
+        if (executionProperties.getBalanceMode() == TransactionExecutionProperties.BalanceMode.ATOMIC) {
+            // 原子更新不需要加锁，逐笔执行即可
+            executeOneByOne(transactionIds, handled);
+            return handled;
+        }
+        final List<Transaction> batch = new ArrayList<>();
+        for (Transaction transaction : transactionRepository.findAllById(transactionIds)) {
+            if (transaction.getStatus() != Transaction.Status.PENDING) {
+                continue;
+            }
+            if (!isLocallyExecutable(transaction) || involvesShardedAccount(transaction)) {
+                executeOneByOne(List.of(transaction.getId()), handled);
+                continue;
+            }
+            batch.add(transaction);
+        }
+        for (TransactionGroups.Group group : TransactionGroups.of(batch)) {
+            executeGroup(group, handled);
+        }
+        return handled;
+    }
+
+    /**
+     * 对一组共用账户的交易加锁后在一个数据库事务中执行，失败时只有这一组退回逐笔执行
+     * 整批事务回滚时，其中登记的完成、失败事件随之丢弃，逐笔执行时重新产生，不会重复发布
+     */
+    private void executeGroup(TransactionGroups.Group group, Set<Long> handled) {
+        final var batchIds = group.transactionIds();
+        final var accountIds = group.accountIds();
+        final List<Long> sharded = new ArrayList<>();
+        try {
+            final boolean executed;
+            if (executionProperties.getMode() == TransactionExecutionProperties.Mode.PARTITIONED) {
+                sharded.addAll(partitionExecutor.getObject().execute(accountIds, () -> self.doExecuteTransactions(batchIds)));
+                executed = true;
+            } else {
+                executed = accountLockProvider.executeWithLock(accountIds, batchLockWaitMillis(), () -> sharded.addAll(self.doExecuteTransactions(batchIds)));
+            }
+            if (!executed) {
+                log.info("unable to acquire lock for {} accounts, transactions will be redelivered", accountIds.size());
+                handled.removeAll(batchIds);
+            }
+        } catch (Exception e) {
+            log.warn("batch execution of {} transactions failed, fallback to one by one", batchIds.size(), e);
+            executeOneByOne(batchIds, handled);
+            return;
+        }
+        // 等锁期间账户开启了分片的交易，释放锁后逐笔执行，届时走分片账户的原子更新
+        executeOneByOne(sharded, handled);
+    }
+
+    /**
+     * 执行同一账户上聚合的一批存款，账户只加一次锁（或占一次分区）、只更新一次
+     * 整批执行失败时退回逐笔执行，每笔交易各自成功或失败；拿不到锁时抛出 AccountLockContendedException，整批等待重新投递
+     * @param accountId 存款账户
+     * @param transactionIds 存款交易ID
+     */
+    public void executeDeposits(Long accountId, List<Long> transactionIds) {
+        log.info("[aid:{}]executing {} aggregated deposits", accountId, transactionIds.size());
+        boolean locked = true;
+        final List<Long> sharded = new ArrayList<>();
+        try {
+            if (executionProperties.getBalanceMode() == TransactionExecutionProperties.BalanceMode.ATOMIC) {
+                self.doExecuteDepositsAtomically(accountId, transactionIds);
+            } else if (executionProperties.getMode() == TransactionExecutionProperties.Mode.PARTITIONED) {
+                sharded.addAll(partitionExecutor.getObject().execute(List.of(accountId), () -> self.doExecuteTransactions(transactionIds)));
+            } else {
+                locked = accountLockProvider.executeWithLock(List.of(accountId), batchLockWaitMillis(), () -> sharded.addAll(self.doExecuteTransactions(transactionIds)));
+            }
+        } catch (Exception e) {
+            log.warn("[aid:{}]aggregated deposits failed, fallback to one by one", accountId, e);
+            for (Long transactionId : transactionIds) {
                 try {
-                    self.doExecuteTransaction(transactionId);
-                } finally {
-                    lock.unlock();
+                    executeIndividually(transactionId);
+                } catch (Exception ex) {
+                    log.error("[{}]Transaction execution error", transactionId, ex);
                 }
             }
-        } catch (InterruptedException e) {
-            log.info("[{}]unable to acquire lock", transactionId);
-            throw new RuntimeException(e);
+            return;
+        }
+        if (!locked) {
+            // 整批都没有执行，交给每笔存款的调用方重新投递
+            log.info("[aid:{}]unable to acquire lock, {} aggregated deposits will be redelivered", accountId, transactionIds.size());
+            throw new AccountLockContendedException(transactionIds.get(0), List.of(accountId));
+        }
+        for (Long transactionId : sharded) {
+            executeAtomically(transactionId);
+        }
+    }
+
+    /**
+     * 轧差执行一批转账
+     * 1. 按账户分组，共用账户的转账落在同一组，单组账户数不超过上限，超过上限的组拆开依次执行，避免一把锁覆盖大量账户
+     * 2. 每组对涉及的账户加锁（或占住对应的分区）后在一个数据库事务中轧差执行
+     * 3. 轧差时被剔除的转账以及执行失败的组，退回逐笔执行
+     * 4. 拿不到锁的组没有执行，处理完其他组后抛出 TransfersContended，由聚合器交给这些转账的调用方重新投递
+     * @param transactionIds 转账交易ID
+     */
+    public void executeNettedTransfers(List<Long> transactionIds) {
+        final var groups = TransactionGroups.of(transactionRepository.findAllById(transactionIds), nettingProperties.getMaxAccountsPerGroup());
+        final List<Long> deferred = new ArrayList<>();
+        final Set<Long> contended = new HashSet<>();
+        final Set<Long> contendedAccounts = new TreeSet<>();
+        for (TransactionGroups.Group group : groups) {
+            final var ids = group.transactionIds();
+            final var accountIds = group.accountIds();
+            log.info("netting {} transfers over {} accounts", ids.size(), accountIds.size());
+            try {
+                if (executionProperties.getBalanceMode() == TransactionExecutionProperties.BalanceMode.ATOMIC) {
+                    deferred.addAll(self.doExecuteNettedTransfers(ids));
+                } else if (executionProperties.getMode() == TransactionExecutionProperties.Mode.PARTITIONED) {
+                    deferred.addAll(partitionExecutor.getObject().execute(accountIds, () -> self.doExecuteNettedTransfers(ids)));
+                } else if (!accountLockProvider.executeWithLock(accountIds, batchLockWaitMillis(), () -> deferred.addAll(self.doExecuteNettedTransfers(ids)))) {
+                    contended.addAll(ids);
+                    contendedAccounts.addAll(accountIds);
+                }
+            } catch (Exception e) {
+                log.warn("netting of {} transfers failed, fallback to one by one", ids.size(), e);
+                deferred.addAll(ids);
+            }
+        }
+        for (Long transactionId : deferred) {
+            try {
+                executeIndividually(transactionId);
+            } catch (Exception e) {
+                log.error("[{}]Transaction execution error", transactionId, e);
+            }
+        }
+        if (!contended.isEmpty()) {
+            log.info("unable to acquire lock for {} accounts, {} netted transfers will be redelivered", contendedAccounts.size(), contended.size());
+            throw new TransfersContended(contended, contendedAccounts);
+        }
+    }
+
+    /**
+     * 批量执行拿锁的等待时间，拿不到锁的批次都会交给调用方重新投递，竞争策略为requeue时只短暂尝试
+     */
+    private long batchLockWaitMillis() {
+        return lockProperties.getContention() == LockProperties.Contention.REQUEUE
+                ? lockProperties.getContentionTryMillis() : lockProperties.getWaitMillis();
+    }
+
+    private void executeOneByOne(List<Long> transactionIds, Set<Long> handled) {
+        for (Long transactionId : transactionIds) {
+            try {
+                dispatchTransaction(transactionId);
+            } catch (AccountLockContendedException e) {
+                log.info("[{}]accounts are contended, transaction will be redelivered", transactionId);
+                handled.remove(transactionId);
+            } catch (Exception e) {
+                log.error("[{}]Transaction execution error", transactionId, e);
+                handled.remove(transactionId);
+            }
+        }
+    }
+
+    /**
+     * 交易能否在当前节点直接执行，开启集群归属时，只有涉及的账户都归属当前节点的交易才能直接执行
+     */
+    private boolean isLocallyExecutable(Transaction transaction) {
+        if (executionProperties.getMode() != TransactionExecutionProperties.Mode.PARTITIONED) {
+            return true;
+        }
+        final var ownership = accountOwnership.getIfAvailable();
+        if (ownership == null) {
+            return true;
         }
+        final var accountIds = Stream.of(transaction.getSourceAccount(), transaction.getTargetAccount())
+                .filter(Objects::nonNull).map(Account::getId).toList();
+        return ownership.isLocal(accountIds);
+    }
+
+    private boolean involvesShardedAccount(Transaction transaction) {
+        return transaction.getSourceAccount().isSharded()
+                || (transaction.getTargetAccount() != null && transaction.getTargetAccount().isSharded());
     }
 
-    @Transactional(isolation = Isolation.REPEATABLE_READ, propagation = Propagation.REQUIRES_NEW)
-    @Retryable(maxAttempts = 3)
+    /**
+     * 加锁后执行单笔交易，非预期异常（如版本号冲突）时整体重试：重新加锁、在新的数据库事务中重新加载执行
+     * 重试必须放在锁的外面，数据库行锁模式下任务加入了锁所在的事务，出现异常后该事务只能回滚，不能在其中重试
+     * @return 是否拿到锁并执行
+     */
+    @Retryable(maxAttempts = 3, noRetryFor = {AccountShardedConcurrently.class, AccountLockContendedException.class})
+    public boolean executeUnderLock(long transactionId, List<Long> accountIds, long waitMillis) {
+        return accountLockProvider.executeWithLock(accountIds, waitMillis, () -> self.doExecuteTransaction(transactionId));
+    }
+
+    /**
+     * 在账户所属的分区上执行单笔交易，非预期异常时整体重试，每次重试都在新的数据库事务中执行
+     */
+    @Retryable(maxAttempts = 3, noRetryFor = AccountShardedConcurrently.class)
+    public void executeInPartition(long transactionId, List<Long> accountIds) {
+        partitionExecutor.getObject().execute(accountIds, () -> self.doExecuteTransaction(transactionId));
+    }
+
+    /**
+     * 在账户锁内执行，加入锁所在的数据库事务（数据库行锁），否则开启新事务
+     * 本身不重试，失败时所在的事务已经只能回滚，由 executeUnderLock / executeInPartition 在事务外整体重试
+     * 拿到锁后重新加载的账户已经开启分片时，抛出 AccountShardedConcurrently，由调用方释放锁后改走原子执行；
+     * 加载账户之后才开启的分片由账户版本号冲突发现，重试时重新检查
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
     public void doExecuteTransaction(long transactionId) {
         final var transactionOptional = transactionRepository.findById(transactionId);
         if (transactionOptional.isEmpty()) {
@@ -120,19 +486,190 @@ public class TransactionServiceImpl implements TransactionService {
             return;
         }
         final var transaction = transactionOptional.get();
+        if (involvesShardedAccount(transaction)) {
+            throw new AccountShardedConcurrently(transactionId);
+        }
+        applyExecution(transaction);
+        transactionRepository.save(transaction);
+    }
+
+    /**
+     * 在一个数据库事务中按交易ID顺序执行一批交易
+     * @return 涉及的账户在等锁期间开启了分片、没有执行的交易ID，由调用方释放锁后改走原子执行
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public List<Long> doExecuteTransactions(List<Long> transactionIds) {
+        final List<Transaction> transactions = new ArrayList<>(transactionIds.size());
+        final List<Long> sharded = new ArrayList<>();
+        transactionRepository.findAllById(transactionIds).stream()
+                .sorted(Comparator.comparingLong(Transaction::getId))
+                .forEach(transaction -> {
+                    if (involvesShardedAccount(transaction)) {
+                        sharded.add(transaction.getId());
+                    } else {
+                        transactions.add(transaction);
+                    }
+                });
+        transactions.forEach(this::applyExecution);
+        transactionRepository.saveAll(transactions);
+        return sharded;
+    }
+
+    /**
+     * 以原子更新的方式执行交易
+     * 预期内的失败（DomainException）会回滚余额更新，再在新的事务中标记交易失败
+     */
+    private void executeAtomically(long transactionId) {
+        try {
+            self.doExecuteTransactionAtomically(transactionId);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.info("[{}]transaction is being executed concurrently, ignore", transactionId);
+        } catch (DomainException e) {
+            log.error("[{}]Transaction Failed", transactionId, e);
+            self.failTransaction(transactionId, e.getMessage());
+        }
+    }
+
+    /**
+     * 1. 先以版本号认领交易（PENDING -> COMPLETED），并发执行同一笔交易时只有一个能认领成功
+     * 2. 按账户ID顺序执行带条件的UPDATE，所有事务以相同的顺序锁行，避免死锁
+     * 3. 更新行数为0时，区分账户状态异常和余额不足，抛出对应的异常回滚整个事务
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED, propagation = Propagation.REQUIRES_NEW)
+    public void doExecuteTransactionAtomically(long transactionId) {
+        final var transactionOptional = transactionRepository.findById(transactionId);
+        if (transactionOptional.isEmpty()) {
+            log.warn("transaction not found, ignore execution");
+            return;
+        }
+        final var transaction = transactionOptional.get();
+        if (transaction.getStatus() != Transaction.Status.PENDING) {
+            log.info("[{}]transaction is already {}, ignore execution", transactionId, transaction.getStatus());
+            return;
+        }
+        log.info("[{}]Executing transaction atomically: [{}][{}]", transactionId, transaction.getType(), transaction.getAmount());
+        transaction.markCompleted();
+        transactionRepository.saveAndFlush(transaction);
+
+        final var amount = transaction.getAmount();
+        final var sourceId = transaction.getSourceAccount().getId();
+        switch (transaction.getType()) {
+            case WITHDRAWAL -> accountLedger.withdraw(sourceId, amount);
+            case DEPOSIT -> accountLedger.deposit(sourceId, amount);
+            case TRANSFER -> {
+                final var targetId = transaction.getTargetAccount().getId();
+                if (sourceId < targetId) {
+                    accountLedger.withdraw(sourceId, amount);
+                    accountLedger.deposit(targetId, amount);
+                } else {
+                    accountLedger.deposit(targetId, amount);
+                    accountLedger.withdraw(sourceId, amount);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown transaction type: " + transaction.getType());
+        }
+        defers.deferOnTransactionCommit(() -> {
+            log.info("[{}]Transaction Completed: {}", transaction.getId(), transaction);
+            eventPublisher.publishEvent(new TransactionCompletedEvent(transaction));
+        });
+    }
+
+    /**
+     * 原子更新模式下执行聚合的存款：逐笔认领交易后，以存款总额对账户做一次带条件的UPDATE
+     * 账户状态异常时整批回滚，由调用方退回逐笔执行
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED, propagation = Propagation.REQUIRES_NEW)
+    public void doExecuteDepositsAtomically(long accountId, List<Long> transactionIds) {
+        final var deposits = transactionRepository.findAllById(transactionIds).stream()
+                .filter(transaction -> transaction.getStatus() == Transaction.Status.PENDING)
+                .sorted(Comparator.comparingLong(Transaction::getId))
+                .toList();
+        if (deposits.isEmpty()) {
+            return;
+        }
+        deposits.forEach(Transaction::markCompleted);
+        transactionRepository.saveAllAndFlush(deposits);
+        accountLedger.deposit(accountId, deposits.stream().mapToLong(Transaction::getAmount).sum());
+        deposits.forEach(transaction -> defers.deferOnTransactionCommit(() -> {
+            log.info("[{}]Transaction Completed: {}", transaction.getId(), transaction);
+            eventPublisher.publishEvent(new TransactionCompletedEvent(transaction));
+        }));
+    }
+
+    /**
+     * 轧差执行一批转账
+     * 1. 涉及未激活账户的转账按原有流程标记失败
+     * 2. 每个账户按净额只更新一次，原子更新模式下走AccountLedger，否则修改账户实体
+     * 3. 纳入轧差的转账全部标记完成，交易状态的更新走JDBC批量
+     * @return 轧差时被剔除或涉及分片账户、需要逐笔执行的交易ID
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public List<Long> doExecuteNettedTransfers(List<Long> transactionIds) {
+        final var pending = transactionRepository.findAllById(transactionIds).stream()
+                .filter(transaction -> transaction.getStatus() == Transaction.Status.PENDING)
+                .filter(transaction -> transaction.getType() == Transaction.Type.TRANSFER)
+                .toList();
+        // 等锁期间账户开启了分片的转账不参与轧差，逐笔执行时走分片账户的原子更新
+        final var sharded = pending.stream().filter(this::involvesShardedAccount).toList();
+        final var transfers = pending.stream().filter(transaction -> !involvesShardedAccount(transaction)).toList();
+        final var netting = TransferNetting.of(transfers);
+        netting.rejected().forEach(this::applyExecution);
+        if (executionProperties.getBalanceMode() == TransactionExecutionProperties.BalanceMode.ATOMIC) {
+            netting.deltas().forEach((accountId, delta) -> {
+                if (delta > 0) {
+                    accountLedger.deposit(accountId, delta);
+                } else {
+                    accountLedger.withdraw(accountId, -delta);
+                }
+            });
+        } else {
+            final Map<Long, Account> accounts = new HashMap<>();
+            for (Transaction transfer : netting.included()) {
+                accounts.putIfAbsent(transfer.getSourceAccount().getId(), transfer.getSourceAccount());
+                accounts.putIfAbsent(transfer.getTargetAccount().getId(), transfer.getTargetAccount());
+            }
+            netting.deltas().forEach((accountId, delta) -> accounts.get(accountId).applyNetDelta(delta));
+        }
+        for (Transaction transfer : netting.included()) {
+            transfer.markCompleted();
+            defers.deferOnTransactionCommit(() -> {
+                log.info("[{}]Transaction Completed: {}", transfer.getId(), transfer);
+                eventPublisher.publishEvent(new TransactionCompletedEvent(transfer));
+            });
+        }
+        transactionRepository.saveAll(transfers);
+        log.info("netted {} transfers into {} account updates, rejected: {}, deferred: {}",
+                netting.included().size(), netting.deltas().size(), netting.rejected().size(), netting.deferred().size());
+        return Stream.concat(netting.deferred().stream(), sharded.stream()).map(Transaction::getId).toList();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void failTransaction(long transactionId, String reason) {
+        final var transactionOptional = transactionRepository.findById(transactionId);
+        if (transactionOptional.isEmpty() || transactionOptional.get().getStatus() != Transaction.Status.PENDING) {
+            return;
+        }
+        final var transaction = transactionOptional.get();
+        transaction.fail(reason);
+        transactionRepository.save(transaction);
+        defers.deferOnTransactionCommit(() -> {
+            eventPublisher.publishEvent(new TransactionFailedEvent(transaction));
+        });
+    }
+
+    private void applyExecution(Transaction transaction) {
         try {
             transaction.execute();
-            defers.deferOnTransactionComplete(() -> {
+            defers.deferOnTransactionCommit(() -> {
                 log.info("[{}]Transaction Completed: {}", transaction.getId(), transaction);
                 eventPublisher.publishEvent(new TransactionCompletedEvent(transaction));
             });
         } catch (DomainException e) {
             log.error("[{}]Transaction Failed", transaction.getId(), e);
             transaction.fail(e.getMessage());
-            defers.deferOnTransactionComplete(() -> {
+            defers.deferOnTransactionCommit(() -> {
                 eventPublisher.publishEvent(new TransactionFailedEvent(transaction));
             });
         }
-        transactionRepository.save(transaction);
     }
 }
@@ -0,0 +1,75 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 多边轧差
+ * 对一批转账按账户计算净额，只要每个账户的净结果合法，整批转账就可以一次性生效，每个账户只更新一次
+ * 1. 涉及未激活账户的转账直接拒绝
+ * 2. 计算每个账户的净额，某个账户余额加净额小于0时，从该账户转出的转账中剔除ID最大的一笔，重新计算，直到所有账户都合法
+ * 3. 被剔除的转账不在本批次中处理，由调用方逐笔执行，保持与逐笔执行一致的失败语义
+ * 余额取自交易上加载的账户实体，调用方需要保证计算和更新期间账户余额不会被其他交易修改
+ */
+public record TransferNetting(List<Transaction> included,
+                              List<Transaction> rejected,
+                              List<Transaction> deferred,
+                              Map<Long, Long> deltas) {
+
+    public static TransferNetting of(List<Transaction> transfers) {
+        final List<Transaction> included = new ArrayList<>();
+        final List<Transaction> rejected = new ArrayList<>();
+        final List<Transaction> deferred = new ArrayList<>();
+        final Map<Long, Account> accounts = new HashMap<>();
+        transfers.stream()
+                .sorted(Comparator.comparingLong(Transaction::getId))
+                .forEach(transfer -> {
+                    final var source = transfer.getSourceAccount();
+                    final var target = transfer.getTargetAccount();
+                    if (source.getStatus() != Account.Status.ACTIVATED || target.getStatus() != Account.Status.ACTIVATED) {
+                        rejected.add(transfer);
+                        return;
+                    }
+                    accounts.putIfAbsent(source.getId(), source);
+                    accounts.putIfAbsent(target.getId(), target);
+                    included.add(transfer);
+                });
+
+        while (true) {
+            final var deltas = deltasOf(included);
+            final var overdrawn = deltas.entrySet().stream()
+                    .filter(entry -> accounts.get(entry.getKey()).getBalance() + entry.getValue() < 0)
+                    .map(Map.Entry::getKey)
+                    .findFirst();
+            if (overdrawn.isEmpty()) {
+                return new TransferNetting(included, rejected, deferred, deltas);
+            }
+            for (int i = included.size() - 1; i >= 0; i--) {
+                if (included.get(i).getSourceAccount().getId().equals(overdrawn.get())) {
+                    deferred.add(included.remove(i));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 按账户ID排序的净额，净额为0的账户不需要更新
+     */
+    private static Map<Long, Long> deltasOf(List<Transaction> transfers) {
+        final Map<Long, Long> deltas = new TreeMap<>();
+        for (Transaction transfer : transfers) {
+            deltas.merge(transfer.getSourceAccount().getId(), -transfer.getAmount(), Long::sum);
+            deltas.merge(transfer.getTargetAccount().getId(), transfer.getAmount(), Long::sum);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.infrastructure.batch.WindowedBatcher;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * 转账轧差聚合
+ * 收集一个时间窗口内的转账，整批轧差执行，详见 {@link TransferNetting}
+ * 开启后，可在本节点执行且不涉及分片账户的pending转账都经由聚合器执行
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.transaction.netting.enabled", havingValue = "true")
+@Slf4j
+public class TransferNettingAggregator {
+    private static final String WINDOW = "transfers";
+
+    private final WindowedBatcher<String, Long> batcher;
+
+    public TransferNettingAggregator(TransferNettingProperties properties, @Lazy TransactionServiceImpl transactionService) {
+        this.batcher = new WindowedBatcher<>("rbcs-netting",
+                properties.getWindowMillis(),
+                properties.getMaxBatchSize(),
+                properties.getFlushers(),
+                (window, transactionIds) -> transactionService.executeNettedTransfers(transactionIds));
+    }
+
+    /**
+     * 把转账加入当前的轧差窗口，阻塞直到所在批次执行完成
+     * 所在的分组拿不到账户锁时抛出 AccountLockContendedException，由调用方重新投递；同一批次其他分组的转账正常返回
+     * @param transactionId 交易ID
+     */
+    public void aggregate(long transactionId) {
+        try {
+            batcher.submit(WINDOW, transactionId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TransfersContended contended) {
+                if (contended.getTransactionIds().contains(transactionId)) {
+                    throw new AccountLockContendedException(transactionId, contended.getAccountIds());
+                }
+                return;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.shutdown();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.rbcs.domain.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.transaction.netting")
+@Data
+public class TransferNettingProperties {
+    /**
+     * 是否开启转账轧差，开启后一个时间窗口内的转账按账户净额一次性执行
+     */
+    private boolean enabled = false;
+    /**
+     * 轧差的时间窗口
+     */
+    private long windowMillis = 20;
+    /**
+     * 单批最多轧差的转账数，凑满后立即执行
+     */
+    private int maxBatchSize = 500;
+    /**
+     * 单个轧差分组最多涉及的账户数，分组对这些账户统一加锁，超过上限的分组拆开依次执行
+     */
+    private int maxAccountsPerGroup = 64;
+    /**
+     * 执行轧差批次的线程数
+     */
+    private int flushers = 2;
+}
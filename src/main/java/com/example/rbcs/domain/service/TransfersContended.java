@@ -0,0 +1,22 @@
+package com.example.rbcs.domain.service;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 轧差批次中部分分组没有拿到账户锁，这些分组的转账没有执行，需要重新投递
+ * 同一批次的其他转账已经处理完成，由 TransferNettingAggregator 按交易ID区分
+ */
+@Getter
+class TransfersContended extends RuntimeException {
+    private final Set<Long> transactionIds;
+    private final Collection<Long> accountIds;
+
+    TransfersContended(Set<Long> transactionIds, Collection<Long> accountIds) {
+        super(transactionIds.size() + " transfers are contended on accounts " + accountIds);
+        this.transactionIds = transactionIds;
+        this.accountIds = accountIds;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.rbcs.infrastructure.activity;
+
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.event.TransactionCompletedEvent;
+import com.example.rbcs.domain.event.TransactionFailedEvent;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 账户最近交易
+ * 1. 每个账户在redis中有一个定长列表，最新的在表头，交易完成或失败时写入交易双方的列表
+ * 2. 列表只在从数据库加载过之后才追加（LPUSHX语义），保证存在的列表包含账户最近的全部交易
+ * 3. 列表不存在（从未加载或已过期）时返回null，由调用方查询数据库后通过 {@link #load} 回填
+ * 4. 交易提交后才写入，事务回滚的交易不会出现在列表中
+ * 5. 每个账户有一个版本号，每次写入（包括列表不存在时）都递增；调用方查询数据库前通过 {@link #loadToken} 取得版本号，
+ *    回填时版本号已变化说明查询期间有交易完成，数据库读到的可能是旧状态，放弃回填，由下一次读取重新加载
+ * 同一笔交易可能先以pending状态被加载、再以完成状态被追加，读取时按交易ID保留最新的一条
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.activity.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RecentActivity {
+    private static final String KEY_PREFIX = "rbcs:activity:";
+    private static final String VERSION_KEY_PREFIX = "rbcs:activity:v:";
+    /**
+     * KEYS: 成对的 列表key, 版本号key; ARGV: 交易, 容量, 过期时间
+     */
+    private static final String PUSH_SCRIPT = """
+            for i = 1, #KEYS, 2 do
+                redis.call('incr', KEYS[i + 1])
+                redis.call('pexpire', KEYS[i + 1], ARGV[3])
+                if redis.call('exists', KEYS[i]) == 1 then
+                    redis.call('lpush', KEYS[i], ARGV[1])
+                    redis.call('ltrim', KEYS[i], 0, tonumber(ARGV[2]) - 1)
+                    redis.call('pexpire', KEYS[i], ARGV[3])
+                end
+            end
+            return 0
+            """;
+    /**
+     * KEYS: 列表key, 版本号key; ARGV: 过期时间, 查询数据库前的版本号, 交易...
+     */
+    private static final String LOAD_SCRIPT = """
+            if redis.call('exists', KEYS[1]) == 1 then
+                return 0
+            end
+            if (redis.call('get', KEYS[2]) or '0') ~= ARGV[2] then
+                return 0
+            end
+            for i = 3, #ARGV do
+                redis.call('rpush', KEYS[1], ARGV[i])
+            end
+            redis.call('pexpire', KEYS[1], ARGV[1])
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+    private final RecentActivityProperties properties;
+
+    public RecentActivity(RedissonClient redissonClient, RecentActivityProperties properties) {
+        if (properties.getCapacity() <= 0) {
+            throw new IllegalArgumentException("recent activity capacity must be positive");
+        }
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+    }
+
+    public int getCapacity() {
+        return properties.getCapacity();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCompleted(TransactionCompletedEvent event) {
+        push(event.getAggregateRoot());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFailed(TransactionFailedEvent event) {
+        push(event.getAggregateRoot());
+    }
+
+    /**
+     * 账户最近的交易，最新的在前
+     * @return 列表不存在时返回null
+     */
+    public List<TransactionRepository.HistoryRow> recent(long accountId, int limit) {
+        final List<String> values = redissonClient.<String>getList(key(accountId), StringCodec.INSTANCE).readAll();
+        if (values.isEmpty()) {
+            return null;
+        }
+        final List<TransactionRepository.HistoryRow> rows = new ArrayList<>(Math.min(limit, values.size()));
+        final Set<Long> seen = new HashSet<>();
+        for (String value : values) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            if (ActivityEntry.EMPTY.equals(value)) {
+                continue;
+            }
+            final var entry = ActivityEntry.parse(value);
+            if (seen.add(entry.getId())) {
+                rows.add(entry);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 账户列表的当前版本号，在查询数据库之前调用，回填时传给 {@link #load}
+     */
+    public String loadToken(long accountId) {
+        final var version = redissonClient.<String>getBucket(versionKey(accountId), StringCodec.INSTANCE).get();
+        return version != null ? version : "0";
+    }
+
+    /**
+     * 用数据库中的最近交易回填账户的列表，列表已存在或查询期间版本号发生变化时不回填
+     * @param token 查询数据库之前通过 {@link #loadToken} 取得的版本号
+     * @param rows 最近的交易，最新的在前，最多capacity条
+     * @return 是否回填
+     */
+    public boolean load(long accountId, String token, List<? extends TransactionRepository.HistoryRow> rows) {
+        final List<Object> args = new ArrayList<>(rows.size() + 3);
+        args.add(String.valueOf(properties.getTtlMillis()));
+        args.add(token);
+        rows.stream().limit(properties.getCapacity()).map(ActivityEntry::format).forEach(args::add);
+        // 没有交易的账户也写入一个占位，避免每次都查询数据库
+        if (rows.isEmpty()) {
+            args.add(ActivityEntry.EMPTY);
+        }
+        final Long loaded = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, LOAD_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(key(accountId), versionKey(accountId)), args.toArray());
+        return loaded != null && loaded == 1;
+    }
+
+    /**
+     * 异步写入，不阻塞交易执行线程
+     */
+    private void push(Transaction transaction) {
+        final List<Object> keys = Stream.of(transaction.getSourceAccount(), transaction.getTargetAccount())
+                .filter(account -> account != null && account.getId() != null)
+                .flatMap(account -> Stream.<Object>of(key(account.getId()), versionKey(account.getId())))
+                .toList();
+        redissonClient.getScript(StringCodec.INSTANCE).evalAsync(RScript.Mode.READ_WRITE, PUSH_SCRIPT, RScript.ReturnType.INTEGER,
+                        keys, ActivityEntry.format(ActivityEntry.of(transaction)), String.valueOf(properties.getCapacity()),
+                        String.valueOf(properties.getTtlMillis()))
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.warn("[{}]failed to record recent activity", transaction.getId(), e);
+                    }
+                });
+    }
+
+    private static String key(long accountId) {
+        return KEY_PREFIX + accountId;
+    }
+
+    private static String versionKey(long accountId) {
+        return VERSION_KEY_PREFIX + accountId;
+    }
+
+    /**
+     * 列表中的一条交易，格式为 id:sourceAccountId:targetAccountId:type:status:amount:createdAt
+     */
+    record ActivityEntry(Long id, Long sourceAccountId, Long targetAccountId, Transaction.Type type,
+                         Transaction.Status status, long amount, Date createdAt) implements TransactionRepository.HistoryRow {
+        static final String EMPTY = "-";
+
+        static ActivityEntry of(Transaction transaction) {
+            return new ActivityEntry(transaction.getId(), transaction.getSourceAccount().getId(),
+                    transaction.getTargetAccount() != null ? transaction.getTargetAccount().getId() : null,
+                    transaction.getType(), transaction.getStatus(), transaction.getAmount(),
+                    transaction.getCreatedAt() != null ? transaction.getCreatedAt() : new Date());
+        }
+
+        static String format(TransactionRepository.HistoryRow row) {
+            return row.getId() + ":" + row.getSourceAccountId() + ":"
+                    + (row.getTargetAccountId() != null ? row.getTargetAccountId() : "") + ":"
+                    + row.getType() + ":" + row.getStatus() + ":" + row.getAmount() + ":" + row.getCreatedAt().getTime();
+        }
+
+        static ActivityEntry parse(String value) {
+            final var parts = value.split(":", -1);
+            return new ActivityEntry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    parts[2].isEmpty() ? null : Long.parseLong(parts[2]),
+                    Transaction.Type.valueOf(parts[3]), Transaction.Status.valueOf(parts[4]),
+                    Long.parseLong(parts[5]), new Date(Long.parseLong(parts[6])));
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getSourceAccountId() {
+            return sourceAccountId;
+        }
+
+        @Override
+        public Long getTargetAccountId() {
+            return targetAccountId;
+        }
+
+        @Override
+        public Transaction.Type getType() {
+            return type;
+        }
+
+        @Override
+        public Transaction.Status getStatus() {
+            return status;
+        }
+
+        @Override
+        public long getAmount() {
+            return amount;
+        }
+
+        @Override
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.rbcs.infrastructure.activity;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.activity")
+@Data
+public class RecentActivityProperties {
+    /**
+     * 是否在redis中维护账户的最近交易，关闭后最近交易直接查询数据库
+     */
+    private boolean enabled = true;
+    /**
+     * 每个账户保留的最近交易数，也是最近交易接口一次能返回的上限
+     */
+    private int capacity = 50;
+    /**
+     * 账户最近交易的过期时间，过期后下次查询从数据库重新加载
+     */
+    private long ttlMillis = 86_400_000;
+}
@@ -0,0 +1,53 @@
+package com.example.rbcs.infrastructure.archive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.archive")
+@Data
+public class ArchiveProperties {
+    /**
+     * 是否把过期的终态交易迁移到归档表
+     */
+    private boolean enabled = false;
+    /**
+     * 创建超过该天数的终态交易才归档
+     */
+    private int retentionDays = 90;
+    /**
+     * 两轮归档之间的间隔
+     */
+    private long intervalMillis = 3_600_000;
+    /**
+     * 每批迁移的交易数，每批一个数据库事务
+     */
+    private int batchSize = 500;
+    /**
+     * 两批之间的停顿，限制归档对线上写入的影响
+     */
+    private long batchPauseMillis = 200;
+    /**
+     * 每轮最多迁移的批数
+     */
+    private int maxBatchesPerRun = 200;
+    /**
+     * 每轮最长运行时间，超过后不再开始新的一批，剩余的交易留到下一轮
+     */
+    private long maxRunMillis = 60_000;
+    /**
+     * 是否维护交易表的按月分区，需要先执行 db/transaction_partitioning.sql，仅支持MySQL
+     */
+    private boolean partitioningEnabled = false;
+    /**
+     * 提前创建的未来月份分区数
+     */
+    private int partitionMonthsAhead = 3;
+    /**
+     * 按该时区划分月份
+     */
+    private String partitionZone = "Asia/Shanghai";
+    /**
+     * 两次分区维护之间的间隔
+     */
+    private long partitionIntervalMillis = 3_600_000;
+}
@@ -0,0 +1,38 @@
+package com.example.rbcs.infrastructure.archive;
+
+import com.example.rbcs.domain.entity.Transaction;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 已归档的交易，只读
+ * 与交易表的列保持一致，账户只保存ID，不关联账户实体
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "transaction_archive",
+        indexes = @Index(name = "idx_transaction_archive_created", columnList = "created_at, id"))
+public class ArchivedTransaction {
+
+    @Id
+    private long id;
+    private Long sourceAccountId;
+    private Long targetAccountId;
+    private long amount;
+
+    @Enumerated(EnumType.STRING)
+    private Transaction.Status status;
+
+    @Enumerated(EnumType.STRING)
+    private Transaction.Type type;
+
+    private String failureReason;
+    private Date createdAt;
+    private Date updatedAt;
+    private Integer version;
+    private Date archivedAt;
+}
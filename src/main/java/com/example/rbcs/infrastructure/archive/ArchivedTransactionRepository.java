@@ -0,0 +1,6 @@
+package com.example.rbcs.infrastructure.archive;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long> {
+}
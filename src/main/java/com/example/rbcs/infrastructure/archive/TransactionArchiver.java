@@ -0,0 +1,139 @@
+package com.example.rbcs.infrastructure.archive;
+
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.infrastructure.id.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易归档
+ * 1. 创建超过 retentionDays 天的终态交易（完成、失败、取消、回滚）按ID顺序分批迁移到归档表，每批一个数据库事务，先插入归档表再从交易表删除
+ * 2. 批与批之间停顿 batchPauseMillis，每轮最多迁移 maxBatchesPerRun 批、最长运行 maxRunMillis，避免长事务和持续占满数据库
+ * 3. 交易ID时间有序，截止时间换算为ID上界，查询走主键范围扫描
+ * 4. 同一时刻只有一个节点归档
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.archive.enabled", havingValue = "true")
+@Slf4j
+public class TransactionArchiver {
+    private static final String LOCK_KEY = "rbcs:archive:transaction";
+    private static final List<String> TERMINAL_STATUSES = List.of(
+            Transaction.Status.COMPLETED.name(),
+            Transaction.Status.FAILED.name(),
+            Transaction.Status.CANCELLED.name(),
+            Transaction.Status.ROLLBACK.name());
+    private static final String SELECT_SQL = "select id from transaction " +
+            "where id > :afterId and id < :maxId and created_at < :cutoff and status in (:statuses) " +
+            "order by id limit :limit";
+    private static final String COLUMNS = "id, source_account_id, target_account_id, amount, status, type, failure_reason, created_at, updated_at, version";
+    private static final String COPY_SQL = "insert into transaction_archive (" + COLUMNS + ", archived_at) " +
+            "select " + COLUMNS + ", :archivedAt from transaction where id in (:ids)";
+    private static final String DELETE_SQL = "delete from transaction where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final RedissonClient redissonClient;
+    private final SnowflakeIdGenerator idGenerator;
+    private final ArchiveProperties properties;
+    private final Counter archived;
+
+    public TransactionArchiver(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory, RedissonClient redissonClient,
+                               SnowflakeIdGenerator idGenerator, ArchiveProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getRetentionDays() <= 0) {
+            throw new IllegalArgumentException("archive retention days must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.redissonClient = redissonClient;
+        this.idGenerator = idGenerator;
+        this.properties = properties;
+        this.archived = meterRegistry.counter("rbcs.archive.transactions");
+    }
+
+    @Scheduled(fixedDelayString = "${rbcs.archive.interval-millis:3600000}")
+    public void archive() {
+        final var lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            final var cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(properties.getRetentionDays()));
+            final var total = archiveBefore(cutoff);
+            if (total > 0) {
+                log.info("archived {} transactions created before {}", total, cutoff.toInstant());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return 本轮迁移的交易数
+     */
+    public long archiveBefore(Date cutoff) throws InterruptedException {
+        final var params = new MapSqlParameterSource()
+                .addValue("maxId", idGenerator.minIdAt(cutoff.getTime()))
+                .addValue("cutoff", cutoff)
+                .addValue("statuses", TERMINAL_STATUSES)
+                .addValue("limit", properties.getBatchSize());
+        final var startedAt = System.nanoTime();
+        long afterId = 0;
+        long total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            if (batch > 0 && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) >= properties.getMaxRunMillis()) {
+                log.info("archive run reached {}ms after {} batches, continue in next run", properties.getMaxRunMillis(), batch);
+                break;
+            }
+            final var ids = jdbcTemplate.queryForList(SELECT_SQL, params.addValue("afterId", afterId), Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            move(ids);
+            total += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < properties.getBatchSize()) {
+                break;
+            }
+            Thread.sleep(properties.getBatchPauseMillis());
+        }
+        return total;
+    }
+
+    private void move(List<Long> ids) {
+        final var params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", new Date());
+        transactionTemplate.executeWithoutResult(status -> {
+            final var copied = jdbcTemplate.update(COPY_SQL, params);
+            final var deleted = jdbcTemplate.update(DELETE_SQL, params);
+            if (copied != deleted) {
+                throw new IllegalStateException("archived " + copied + " transactions but deleted " + deleted);
+            }
+        });
+        // 交易表的行已删除，二级缓存中的交易不再有效
+        final var cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(Transaction.class, id));
+        archived.increment(ids.size());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.rbcs.infrastructure.archive;
+
+import com.example.rbcs.infrastructure.id.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易表按月分区维护，仅支持MySQL，交易表需先用 db/transaction_partitioning.sql 改为分区表
+ * 1. MySQL要求分区键包含在主键中，交易ID时间有序，按ID范围分区即按创建时间分区，主键不变
+ * 2. 提前 partitionMonthsAhead 个月从空的 pmax 分区中拆出未来月份的分区，拆分不搬移数据
+ * 3. 整个月份早于归档截止时间且已经没有数据的分区直接删除，索引随之收缩
+ * 4. 同一时刻只有一个节点执行DDL
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.archive.partitioning-enabled", havingValue = "true")
+@Slf4j
+public class TransactionPartitionMaintainer {
+    private static final String LOCK_KEY = "rbcs:archive:partition";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String PARTITIONS_SQL = "select partition_name, partition_description from information_schema.partitions " +
+            "where table_schema = database() and table_name = 'transaction' and partition_name is not null " +
+            "order by partition_ordinal_position";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RedissonClient redissonClient;
+    private final SnowflakeIdGenerator idGenerator;
+    private final ArchiveProperties properties;
+    private final ZoneId zone;
+
+    public TransactionPartitionMaintainer(JdbcTemplate jdbcTemplate, RedissonClient redissonClient,
+                                          SnowflakeIdGenerator idGenerator, ArchiveProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redissonClient = redissonClient;
+        this.idGenerator = idGenerator;
+        this.properties = properties;
+        this.zone = ZoneId.of(properties.getPartitionZone());
+    }
+
+    record Partition(String name, Long upperBound) {
+    }
+
+    @Scheduled(fixedDelayString = "${rbcs.archive.partition-interval-millis:3600000}")
+    public void maintain() {
+        final var lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            final var partitions = partitions();
+            if (partitions.isEmpty() || !MAX_PARTITION.equals(partitions.get(partitions.size() - 1).name())) {
+                log.warn("transaction table is not partitioned by id with a {} partition, run db/transaction_partitioning.sql first", MAX_PARTITION);
+                return;
+            }
+            addPartitions(partitions);
+            if (properties.isEnabled()) {
+                dropArchivedPartitions(partitions);
+            }
+        } catch (Exception e) {
+            log.error("failed to maintain transaction partitions", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private List<Partition> partitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> {
+            final var description = rs.getString("partition_description");
+            return new Partition(rs.getString("partition_name"),
+                    description == null || "MAXVALUE".equalsIgnoreCase(description) ? null : Long.parseLong(description));
+        });
+    }
+
+    /**
+     * 从pmax中拆出当前月到未来 partitionMonthsAhead 个月里还没有的分区
+     */
+    private void addPartitions(List<Partition> partitions) {
+        final var lastBound = partitions.stream().map(Partition::upperBound)
+                .filter(bound -> bound != null).reduce(Long.MIN_VALUE, Math::max);
+        final var current = YearMonth.now(zone);
+        final List<String> definitions = new ArrayList<>();
+        for (int i = 0; i <= properties.getPartitionMonthsAhead(); i++) {
+            final var month = current.plusMonths(i);
+            final var bound = upperBoundOf(month);
+            if (bound <= lastBound) {
+                continue;
+            }
+            definitions.add("partition " + month.atDay(1).format(PARTITION_NAME) + " values less than (" + bound + ")");
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add("partition " + MAX_PARTITION + " values less than maxvalue");
+        final var ddl = "alter table transaction reorganize partition " + MAX_PARTITION + " into (" + String.join(", ", definitions) + ")";
+        log.info("adding transaction partitions: {}", ddl);
+        jdbcTemplate.execute(ddl);
+    }
+
+    /**
+     * 删除整个范围都早于归档截止时间且已经没有数据的分区，最后一个有界分区保留
+     */
+    private void dropArchivedPartitions(List<Partition> partitions) {
+        final var cutoff = idGenerator.minIdAt(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(properties.getRetentionDays()));
+        for (int i = 0; i < partitions.size() - 2; i++) {
+            final var partition = partitions.get(i);
+            if (partition.upperBound() == null || partition.upperBound() > cutoff) {
+                break;
+            }
+            final var rows = jdbcTemplate.queryForList("select 1 from transaction partition (" + partition.name() + ") limit 1");
+            if (!rows.isEmpty()) {
+                continue;
+            }
+            log.info("dropping empty transaction partition {}", partition.name());
+            jdbcTemplate.execute("alter table transaction drop partition " + partition.name());
+        }
+    }
+
+    private long upperBoundOf(YearMonth month) {
+        final LocalDate nextMonth = month.plusMonths(1).atDay(1);
+        return idGenerator.minIdAt(nextMonth.atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+}
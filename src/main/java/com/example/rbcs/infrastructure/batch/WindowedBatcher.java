@@ -0,0 +1,114 @@
+package com.example.rbcs.infrastructure.batch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 按key聚合的时间窗口批处理
+ * 同一个key的第一条数据到达时开启一个时间窗口，窗口结束或凑满最大批量时整批交给处理器
+ * 提交方拿到的future在整批处理完成后结束，处理器抛出的异常会传递给同一批的所有提交方
+ * @param <K> 聚合的key
+ * @param <V> 数据
+ */
+@Slf4j
+public class WindowedBatcher<K, V> {
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final BiConsumer<K, List<V>> handler;
+    private final Map<K, Batch<V>> pending = new HashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService flushExecutor;
+
+    public WindowedBatcher(String name, long windowMillis, int maxBatchSize, int flushers, BiConsumer<K, List<V>> handler) {
+        if (windowMillis <= 0 || maxBatchSize <= 0 || flushers <= 0) {
+            throw new IllegalArgumentException("window, batch size and flushers must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.handler = handler;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon(name + "-window"));
+        this.flushExecutor = Executors.newFixedThreadPool(flushers, daemon(name + "-flusher"));
+    }
+
+    public CompletableFuture<Void> submit(K key, V value) {
+        Batch<V> full = null;
+        final CompletableFuture<Void> future;
+        synchronized (pending) {
+            var batch = pending.get(key);
+            if (batch == null) {
+                final var created = new Batch<V>();
+                pending.put(key, created);
+                scheduler.schedule(() -> expire(key, created), windowMillis, TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.items.add(value);
+            future = batch.future;
+            if (batch.items.size() >= maxBatchSize) {
+                pending.remove(key);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            final var batch = full;
+            flushExecutor.execute(() -> flush(key, batch));
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        final List<Map.Entry<K, Batch<V>>> remaining;
+        synchronized (pending) {
+            remaining = new ArrayList<>(pending.entrySet());
+            pending.clear();
+        }
+        remaining.forEach(entry -> flush(entry.getKey(), entry.getValue()));
+        flushExecutor.shutdown();
+    }
+
+    private void expire(K key, Batch<V> batch) {
+        synchronized (pending) {
+            // 已经因为凑满批量提前处理
+            if (!pending.remove(key, batch)) {
+                return;
+            }
+        }
+        flushExecutor.execute(() -> flush(key, batch));
+    }
+
+    private void flush(K key, Batch<V> batch) {
+        try {
+            handler.accept(key, batch.items);
+            batch.future.complete(null);
+        } catch (Throwable e) {
+            log.error("[{}]failed to flush batch of {} items", key, batch.items.size(), e);
+            batch.future.completeExceptionally(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        final var counter = new AtomicInteger();
+        return runnable -> {
+            final var thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Batch<V> {
+        private final List<V> items = new ArrayList<>();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+    }
+}
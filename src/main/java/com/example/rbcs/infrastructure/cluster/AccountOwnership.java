@@ -0,0 +1,163 @@
+package com.example.rbcs.infrastructure.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群账户归属
+ * 1. 每个节点在专用的心跳线程上定期续约自己的租约，租约过期的节点视为下线
+ * 2. 在线节点构成一致性哈希环，账户ID落在哪个节点即归哪个节点执行
+ * 3. 成员变化后的一个租约周期内视为不稳定，此时所有节点都退回分布式锁执行，避免新旧归属重叠期间出现两个单写者
+ * 4. 本地记录自己的租约到期时间，剩余不足一个心跳间隔（续约失败或心跳被拖延）时同样视为不稳定，
+ *    不再凭可能已被其他节点接管的归属直接执行
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.cluster.enabled", havingValue = "true")
+@Slf4j
+public class AccountOwnership {
+    private static final String MEMBERS_KEY = "rbcs:cluster:members";
+
+    private final ClusterProperties properties;
+    private final RMapCache<String, String> members;
+    @Getter
+    private final String nodeId;
+    private volatile ConsistentHashRing ring;
+    private volatile long changedAt;
+    private volatile Set<String> departed = Set.of();
+    private volatile long leaseExpiresAt;
+    private final ScheduledExecutorService heartbeater;
+
+    public AccountOwnership(ClusterProperties properties, RedissonClient redissonClient) {
+        if (properties.getHeartbeatMillis() >= properties.getLeaseMillis()) {
+            throw new IllegalArgumentException("heartbeat interval must be less than lease");
+        }
+        this.properties = properties;
+        this.members = redissonClient.getMapCache(MEMBERS_KEY, StringCodec.INSTANCE);
+        this.nodeId = resolveNodeId(properties);
+        this.ring = new ConsistentHashRing(Set.of(), properties.getVirtualNodes());
+        this.changedAt = System.currentTimeMillis();
+        this.heartbeater = Executors.newSingleThreadScheduledExecutor(r -> {
+            final var thread = new Thread(r, "rbcs-cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        join();
+        heartbeater.scheduleWithFixedDelay(this::heartbeatQuietly, properties.getHeartbeatMillis(), properties.getHeartbeatMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void join() {
+        log.info("[node:{}]join cluster", nodeId);
+        heartbeat();
+    }
+
+    @PreDestroy
+    public void leave() {
+        log.info("[node:{}]leave cluster", nodeId);
+        heartbeater.shutdownNow();
+        leaseExpiresAt = 0;
+        members.fastRemove(nodeId);
+    }
+
+    public void heartbeat() {
+        final var startedAt = System.currentTimeMillis();
+        members.fastPut(nodeId, String.valueOf(startedAt), properties.getLeaseMillis(), TimeUnit.MILLISECONDS);
+        leaseExpiresAt = startedAt + properties.getLeaseMillis();
+        final var current = new TreeSet<>(members.readAllKeySet());
+        final var previous = ring.members();
+        if (!current.equals(previous)) {
+            final var gone = new TreeSet<>(previous);
+            gone.removeAll(current);
+            departed = gone;
+            ring = new ConsistentHashRing(current, properties.getVirtualNodes());
+            changedAt = System.currentTimeMillis();
+            log.info("[node:{}]cluster members changed, rebalancing: {} -> {}", nodeId, previous, current);
+        }
+    }
+
+    /**
+     * 成员在最近一个租约周期内没有变化，当前节点在环上，且自己的租约剩余超过一个心跳间隔
+     */
+    public boolean isStable() {
+        final var now = System.currentTimeMillis();
+        return now - changedAt >= properties.getLeaseMillis()
+                && now < leaseExpiresAt - properties.getHeartbeatMillis()
+                && ring.members().contains(nodeId);
+    }
+
+    /**
+     * 账户是否由当前节点独占执行，归属不稳定时返回false
+     */
+    public boolean isLocal(long accountId) {
+        return isStable() && nodeId.equals(ring.ownerOf(accountId));
+    }
+
+    /**
+     * 交易涉及的所有账户是否都由当前节点独占执行，归属不稳定时返回false
+     */
+    public boolean isLocal(Collection<Long> accountIds) {
+        if (!isStable()) {
+            return false;
+        }
+        final var current = ring;
+        return accountIds.stream().allMatch(accountId -> nodeId.equals(current.ownerOf(accountId)));
+    }
+
+    public String ownerOf(long accountId) {
+        return ring.ownerOf(accountId);
+    }
+
+    /**
+     * 所有账户共同的归属节点，账户分属不同节点时返回null
+     */
+    public String commonOwnerOf(Collection<Long> accountIds) {
+        final var current = ring;
+        final var owners = accountIds.stream().map(current::ownerOf).distinct().toList();
+        return owners.size() == 1 ? owners.get(0) : null;
+    }
+
+    /**
+     * 最近一次成员变化中下线的节点
+     */
+    public Set<String> departedMembers() {
+        return departed;
+    }
+
+    private void heartbeatQuietly() {
+        try {
+            heartbeat();
+        } catch (Exception e) {
+            log.error("[node:{}]heartbeat failed, lease expires in {}ms", nodeId, leaseExpiresAt - System.currentTimeMillis(), e);
+        }
+    }
+
+    private static String resolveNodeId(ClusterProperties properties) {
+        if (StringUtils.hasText(properties.getNodeId())) {
+            return properties.getNodeId();
+        }
+        final var hostname = System.getenv("HOSTNAME");
+        if (StringUtils.hasText(hostname)) {
+            return hostname;
+        }
+        return UUID.randomUUID().toString().replaceAll("-", "");
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.rbcs.infrastructure.cluster;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.cluster")
+@Data
+public class ClusterProperties {
+    /**
+     * 是否开启集群账户归属，开启后每个实例只执行归属于自己的账户
+     */
+    private boolean enabled = false;
+    /**
+     * 节点ID，为空时使用环境变量HOSTNAME（k8s下即pod名称）
+     */
+    private String nodeId;
+    /**
+     * 节点租约时长，超过该时长未续约的节点视为下线
+     */
+    private long leaseMillis = 15000;
+    /**
+     * 心跳间隔，必须小于租约时长
+     */
+    private long heartbeatMillis = 5000;
+    /**
+     * 一致性哈希环上每个节点的虚拟节点数
+     */
+    private int virtualNodes = 128;
+    /**
+     * 消费转发队列的线程数
+     */
+    private int inboxConsumers = 4;
+}
@@ -0,0 +1,169 @@
+package com.example.rbcs.infrastructure.cluster;
+
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.ContentionRequeuer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBlockingQueue;
+import org.redisson.api.RQueue;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易转发
+ * 每个节点在redis中有一个收件队列，收到不归属自己的交易时，把交易ID投递到归属节点的收件队列
+ * 被转发的交易只执行不再转发，避免归属视图短暂不一致时来回转发
+ * 取消息时原子地移入节点的处理中队列（BRPOPLPUSH），执行完成后才删除；执行异常时重新放回收件队列，超过次数后丢弃，由pending交易恢复兜底
+ * 节点启动时把自己处理中队列的残留消息放回收件队列；下线节点收件队列和处理中队列中残留的交易由在线节点接管
+ * 执行时账户锁竞争的交易放入本地延迟队列重新执行
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.cluster.enabled", havingValue = "true")
+@Slf4j
+public class TransactionForwarder {
+    private static final String INBOX_PREFIX = "rbcs:cluster:inbox:";
+    private static final String PROCESSING_PREFIX = "rbcs:cluster:processing:";
+    static final int MAX_ATTEMPTS = 5;
+    private static final ThreadLocal<Boolean> FORWARDED = ThreadLocal.withInitial(() -> false);
+
+    private final AccountOwnership ownership;
+    private final RedissonClient redissonClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterProperties properties;
+    private final ContentionRequeuer contentionRequeuer;
+    private final RBlockingQueue<String> inbox;
+    private final RBlockingQueue<String> processing;
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public TransactionForwarder(AccountOwnership ownership, RedissonClient redissonClient,
+                                ApplicationEventPublisher eventPublisher, ClusterProperties properties,
+                                ContentionRequeuer contentionRequeuer) {
+        this.ownership = ownership;
+        this.redissonClient = redissonClient;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.contentionRequeuer = contentionRequeuer;
+        this.inbox = redissonClient.getBlockingQueue(INBOX_PREFIX + ownership.getNodeId(), StringCodec.INSTANCE);
+        this.processing = redissonClient.getBlockingQueue(PROCESSING_PREFIX + ownership.getNodeId(), StringCodec.INSTANCE);
+    }
+
+    /**
+     * 当前线程正在执行的交易是否由其他节点转发而来
+     */
+    public static boolean isForwarded() {
+        return FORWARDED.get();
+    }
+
+    public void forward(String nodeId, long transactionId) {
+        var traceId = MDC.get("traceId");
+        if (!StringUtils.hasText(traceId)) {
+            traceId = UUID.randomUUID().toString().replaceAll("-", "");
+        }
+        // 从队尾取出，队头写入，先进先出
+        redissonClient.<String>getDeque(INBOX_PREFIX + nodeId, StringCodec.INSTANCE).addFirst(transactionId + ":" + traceId + ":0");
+        log.info("[{}]forward transaction to node {}", transactionId, nodeId);
+    }
+
+    @PostConstruct
+    public void start() {
+        final var redriven = drainTo(processing, inbox.getName());
+        if (redriven > 0) {
+            log.info("[node:{}]redrive {} unfinished forwarded transactions", ownership.getNodeId(), redriven);
+        }
+        for (int i = 0; i < properties.getInboxConsumers(); i++) {
+            final var thread = new Thread(this::consume, "rbcs-forward-inbox-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            consumers.add(thread);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        consumers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * 接管下线节点收件队列中的交易
+     */
+    @Scheduled(fixedDelayString = "${rbcs.cluster.heartbeat-millis:5000}")
+    public void takeOverDepartedInboxes() {
+        for (String member : ownership.departedMembers()) {
+            final var moved = drainTo(redissonClient.getQueue(PROCESSING_PREFIX + member, StringCodec.INSTANCE), inbox.getName())
+                    + drainTo(redissonClient.getQueue(INBOX_PREFIX + member, StringCodec.INSTANCE), inbox.getName());
+            if (moved > 0) {
+                log.info("[node:{}]took over {} forwarded transactions from departed node {}", ownership.getNodeId(), moved, member);
+            }
+        }
+    }
+
+    private static int drainTo(RQueue<String> from, String to) {
+        int moved = 0;
+        while (from.pollLastAndOfferFirstTo(to) != null) {
+            moved++;
+        }
+        return moved;
+    }
+
+    private void consume() {
+        while (running) {
+            final String message;
+            try {
+                message = inbox.pollLastAndOfferFirstTo(processing.getName(), 1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (message == null) {
+                continue;
+            }
+            handle(message);
+        }
+    }
+
+    /**
+     * 执行一条转发消息，格式为 交易ID:traceId:已尝试次数
+     */
+    void handle(String message) {
+        final var parts = message.split(":", 3);
+        final var transactionId = Long.parseLong(parts[0]);
+        final var traceId = parts.length > 1 ? parts[1] : UUID.randomUUID().toString().replaceAll("-", "");
+        final var attempt = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+        MDC.put("traceId", traceId);
+        MDC.put("transactionId", parts[0]);
+        FORWARDED.set(true);
+        try {
+            log.info("receive forwarded transaction execution request");
+            eventPublisher.publishEvent(new TransactionExecuteRequest(transactionId));
+        } catch (AccountLockContendedException e) {
+            contentionRequeuer.requeueLocally(e.getTransactionId(), 1);
+        } catch (Exception e) {
+            if (attempt + 1 < MAX_ATTEMPTS) {
+                log.warn("failed to execute forwarded transaction, redeliver, attempt {}", attempt + 1, e);
+                // 先放回收件队列再从处理中队列删除，中途崩溃时最多重复执行一次
+                redissonClient.<String>getDeque(inbox.getName(), StringCodec.INSTANCE).addFirst(transactionId + ":" + traceId + ":" + (attempt + 1));
+            } else {
+                log.error("failed to execute forwarded transaction {} times, drop it and leave it to pending recovery", MAX_ATTEMPTS, e);
+            }
+        } finally {
+            processing.remove(message);
+            FORWARDED.set(false);
+            MDC.clear();
+        }
+    }
+}
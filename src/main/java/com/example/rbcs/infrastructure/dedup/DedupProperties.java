@@ -0,0 +1,25 @@
+package com.example.rbcs.infrastructure.dedup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.dedup")
+@Data
+public class DedupProperties {
+    /**
+     * 是否在执行前丢弃重复的交易执行请求
+     */
+    private boolean enabled = false;
+    /**
+     * 每个节点本地缓存的最近完成交易数
+     */
+    private int localCapacity = 100_000;
+    /**
+     * 执行中标记的有效期，超过后视为执行节点已崩溃，允许重新执行
+     */
+    private long inFlightTtlMillis = 60_000;
+    /**
+     * 已完成标记的有效期，需覆盖消息可能重复投递的时间范围
+     */
+    private long completedTtlMillis = 3_600_000;
+}
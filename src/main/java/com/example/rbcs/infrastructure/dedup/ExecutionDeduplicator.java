@@ -0,0 +1,143 @@
+package com.example.rbcs.infrastructure.dedup;
+
+import com.example.rbcs.domain.event.TransactionCompletedEvent;
+import com.example.rbcs.domain.event.TransactionFailedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交易执行去重
+ * 同一笔交易可能被重复投递（创建事件、pending交易恢复、消息重新投递），重复的请求在加锁和查询数据库之前丢弃，先于其他所有执行方式生效
+ * 1. 本地：正在本节点执行的交易集合，以及有界的最近完成交易缓存
+ * 2. 共享：redis中带过期时间的交易状态，执行中（其他节点正在执行）或已完成
+ * 执行中标记在执行结束（包括失败和锁竞争）时清除，外层还有数据库事务时等事务结束（提交或回滚）后再清除；
+ * 已完成标记只在交易完成或失败事件所在的事务提交后写入，事务回滚时不写入，交易可以再次执行
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.dedup.enabled", havingValue = "true")
+@Slf4j
+public class ExecutionDeduplicator {
+    private static final String STATES_KEY = "rbcs:dedup:transactions";
+    private static final String IN_FLIGHT = "in-flight";
+    private static final String COMPLETED = "completed";
+
+    private final DedupProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final RMapCache<String, String> states;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> recentlyCompleted;
+
+    public ExecutionDeduplicator(DedupProperties properties, RedissonClient redissonClient, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.states = redissonClient.getMapCache(STATES_KEY, StringCodec.INSTANCE);
+        this.recentlyCompleted = new LinkedHashMap<>(1024, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > properties.getLocalCapacity();
+            }
+        };
+    }
+
+    /**
+     * 开始执行交易，交易正在执行或最近已经完成时返回false，调用方应直接丢弃请求
+     * 返回true时调用方必须在执行结束后调用 {@link #end(long)}
+     */
+    public boolean tryBegin(long transactionId) {
+        if (isRecentlyCompletedLocally(transactionId)) {
+            suppressed(COMPLETED, "local");
+            return false;
+        }
+        if (!inFlight.add(transactionId)) {
+            suppressed(IN_FLIGHT, "local");
+            return false;
+        }
+        final var previous = states.putIfAbsent(String.valueOf(transactionId), IN_FLIGHT,
+                properties.getInFlightTtlMillis(), TimeUnit.MILLISECONDS);
+        if (previous == null) {
+            return true;
+        }
+        inFlight.remove(transactionId);
+        if (COMPLETED.equals(previous)) {
+            rememberCompleted(transactionId);
+        }
+        suppressed(previous, "redis");
+        log.info("[{}]duplicate execution request suppressed, transaction is {}", transactionId, previous);
+        return false;
+    }
+
+    /**
+     * 执行结束，清除执行中标记，已完成的交易保留已完成标记
+     */
+    public void end(long transactionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clearInFlight(transactionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                clearInFlight(transactionId);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCompleted(TransactionCompletedEvent event) {
+        markCompleted(event.getAggregateRoot().getId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFailed(TransactionFailedEvent event) {
+        markCompleted(event.getAggregateRoot().getId());
+    }
+
+    private void clearInFlight(long transactionId) {
+        inFlight.remove(transactionId);
+        states.remove(String.valueOf(transactionId), IN_FLIGHT);
+    }
+
+    private void markCompleted(long transactionId) {
+        rememberCompleted(transactionId);
+        states.fastPut(String.valueOf(transactionId), COMPLETED, properties.getCompletedTtlMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void rememberCompleted(long transactionId) {
+        synchronized (recentlyCompleted) {
+            recentlyCompleted.put(transactionId, System.currentTimeMillis() + properties.getCompletedTtlMillis());
+        }
+    }
+
+    private boolean isRecentlyCompletedLocally(long transactionId) {
+        synchronized (recentlyCompleted) {
+            final var expiresAt = recentlyCompleted.get(transactionId);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt < System.currentTimeMillis()) {
+                recentlyCompleted.remove(transactionId);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void suppressed(String state, String level) {
+        meterRegistry.counter("rbcs.dedup.suppressed", "state", state, "level", level).increment();
+    }
+}
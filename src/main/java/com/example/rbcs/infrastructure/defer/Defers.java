@@ -1,5 +1,14 @@
 package com.example.rbcs.infrastructure.defer;
 
 public interface Defers {
+    /**
+     * 当前数据库事务结束后执行，事务提交或回滚都会执行
+     */
     void deferOnTransactionComplete(Runnable runnable);
+
+    /**
+     * 当前数据库事务提交后才执行，事务回滚时丢弃
+     * 只能在事务提交后对外可见的动作（交易完成、失败事件等）需要使用这个方法
+     */
+    void deferOnTransactionCommit(Runnable runnable);
 }
@@ -19,11 +19,21 @@ public class DefersImpl implements Defers {
         eventPublisher.publishEvent(new TransactionCompleteDeferEvent(runnable));
     }
 
+    @Override
+    public void deferOnTransactionCommit(Runnable runnable) {
+        eventPublisher.publishEvent(new TransactionCommitDeferEvent(runnable));
+    }
+
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
     public void onTransactionCompleteDeferEvent(TransactionCompleteDeferEvent event) {
         event.getRunnable().run();
     }
 
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionCommitDeferEvent(TransactionCommitDeferEvent event) {
+        event.getRunnable().run();
+    }
+
     public static class TransactionCompleteDeferEvent {
         @Getter
         private final Runnable runnable;
@@ -32,4 +42,13 @@ public class DefersImpl implements Defers {
             this.runnable = runnable;
         }
     }
+
+    public static class TransactionCommitDeferEvent {
+        @Getter
+        private final Runnable runnable;
+
+        public TransactionCommitDeferEvent(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.rbcs.infrastructure.export;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.export")
+@Data
+public class ExportProperties {
+    /**
+     * 游标每次从数据库取回的行数；MySQL上导出语句以流式结果集逐行读取，不使用该值
+     */
+    private int fetchSize = 1000;
+    /**
+     * 每导出多少行打印一次进度
+     */
+    private long progressRows = 100_000;
+    /**
+     * 命令行导出，设置了 output 时应用启动后执行一次导出并退出
+     */
+    private Cli cli = new Cli();
+
+    @Data
+    public static class Cli {
+        /**
+         * 导出文件路径
+         */
+        private String output;
+        /**
+         * 起始时间（包含），ISO-8601格式，如 2026-01-01T00:00:00+08:00
+         */
+        private String from;
+        /**
+         * 结束时间（不包含），ISO-8601格式
+         */
+        private String to;
+        private ExportFormat format = ExportFormat.NDJSON;
+        private boolean gzip = false;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.rbcs.infrastructure.export;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Date;
+
+/**
+ * 命令行导出，导出完成后退出进程
+ * java -jar rbcs.jar --spring.main.web-application-type=none --spring.cloud.aws.sqs.enabled=false --rbcs.recovery.enabled=false \
+ *   --rbcs.export.cli.output=/data/transactions-20260101.ndjson.gz --rbcs.export.cli.gzip=true \
+ *   --rbcs.export.cli.from=2026-01-01T00:00:00+08:00 --rbcs.export.cli.to=2026-01-02T00:00:00+08:00
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.export.cli.output")
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportRunner implements ApplicationRunner {
+    private final TransactionExporter transactionExporter;
+    private final ExportProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        final var cli = properties.getCli();
+        if (!StringUtils.hasText(cli.getFrom()) || !StringUtils.hasText(cli.getTo())) {
+            throw new IllegalArgumentException("rbcs.export.cli.from and rbcs.export.cli.to are required");
+        }
+        final var from = Date.from(OffsetDateTime.parse(cli.getFrom()).toInstant());
+        final var to = Date.from(OffsetDateTime.parse(cli.getTo()).toInstant());
+        final var output = Path.of(cli.getOutput());
+        log.info("exporting transactions created in [{}, {}) to {}", cli.getFrom(), cli.getTo(), output);
+        final var result = transactionExporter.export(from, to, cli.getFormat(), cli.isGzip(),
+                new BufferedOutputStream(Files.newOutputStream(output), 64 * 1024));
+        log.info("export finished: {} rows, {}ms, {} rows/s", result.rows(), result.elapsedMillis(), result.rowsPerSecond());
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
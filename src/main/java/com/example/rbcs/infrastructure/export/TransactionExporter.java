@@ -0,0 +1,225 @@
+package com.example.rbcs.infrastructure.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按创建时间范围导出交易
+ * 1. 通过只进只读的JDBC游标按 fetchSize 分批读取，每行读出后立即写入输出流，不经过持久化上下文，内存占用与导出行数无关；
+ *    MySQL驱动默认把整个结果集读入内存，导出语句的 fetchSize 设为 Integer.MIN_VALUE 开启逐行流式读取，
+ *    只影响这一条语句，不需要在全局连接参数中开启 useCursorFetch
+ * 2. 按 created_at, id 排序，走 idx_transaction_created 索引做范围扫描
+ * 3. 定期打印导出进度和速率
+ */
+@Component
+@Slf4j
+public class TransactionExporter {
+    private static final String EXPORT_SQL = "select id, source_account_id, target_account_id, type, status, amount, " +
+            "failure_reason, created_at, updated_at from transaction " +
+            "where created_at >= ? and created_at < ? order by created_at, id";
+    /**
+     * MySQL驱动约定的流式结果集fetchSize
+     */
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final String CSV_HEADER = "id,source_account_id,target_account_id,type,status,amount,failure_reason,created_at,updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+    private final ExportProperties properties;
+    private final Counter exportedRows;
+
+    public TransactionExporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                               ExportProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.properties = properties;
+        this.exportedRows = meterRegistry.counter("rbcs.export.rows");
+    }
+
+    public record ExportResult(long rows, long elapsedMillis) {
+        public long rowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+        }
+    }
+
+    /**
+     * 导出 [from, to) 内创建的交易，写完后关闭输出流
+     */
+    public ExportResult export(Date from, Date to, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        if (!from.before(to)) {
+            throw new IllegalArgumentException("Export start time must be before end time");
+        }
+        final var startedAt = System.nanoTime();
+        final var rowWriter = gzip ? open(format, new GZIPOutputStream(out, 64 * 1024)) : open(format, out);
+        final long[] rows = {0};
+        try (rowWriter) {
+            rowWriter.begin();
+            jdbcTemplate.query(connection -> {
+                final var statement = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(isMySql(connection) ? MYSQL_STREAMING_FETCH_SIZE : properties.getFetchSize());
+                statement.setTimestamp(1, new Timestamp(from.getTime()));
+                statement.setTimestamp(2, new Timestamp(to.getTime()));
+                return statement;
+            }, resultSet -> {
+                try {
+                    rowWriter.write(resultSet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++rows[0] % properties.getProgressRows() == 0) {
+                    log.info("exported {} transactions, {} rows/s", rows[0], rate(rows[0], startedAt));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            exportedRows.increment(rows[0]);
+        }
+        final var result = new ExportResult(rows[0], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        log.info("exported {} transactions created in [{}, {}) in {}ms, {} rows/s",
+                result.rows(), from.toInstant(), to.toInstant(), result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static long rate(long rows, long startedAt) {
+        final var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+
+    private RowWriter open(ExportFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            // 每行之后自己写换行，去掉根级值之间默认的空格分隔
+            case NDJSON -> new NdjsonRowWriter(jsonFactory.createGenerator(out).setRootValueSeparator(null));
+            case CSV -> new CsvRowWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024));
+        };
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        default void begin() throws IOException {
+        }
+
+        void write(ResultSet resultSet) throws SQLException, IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * 与接口返回保持一致：ID以字符串输出避免超出JavaScript的安全整数，时间以毫秒输出
+     */
+    private record NdjsonRowWriter(JsonGenerator generator) implements RowWriter {
+        @Override
+        public void write(ResultSet resultSet) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", String.valueOf(resultSet.getLong("id")));
+            writeAccountId("sourceAccountId", resultSet.getLong("source_account_id"), resultSet.wasNull());
+            writeAccountId("targetAccountId", resultSet.getLong("target_account_id"), resultSet.wasNull());
+            generator.writeStringField("type", resultSet.getString("type"));
+            generator.writeStringField("status", resultSet.getString("status"));
+            generator.writeNumberField("amount", resultSet.getLong("amount"));
+            final var failureReason = resultSet.getString("failure_reason");
+            if (failureReason != null) {
+                generator.writeStringField("failureReason", failureReason);
+            }
+            writeTime("createdAt", resultSet.getTimestamp("created_at"));
+            writeTime("updatedAt", resultSet.getTimestamp("updated_at"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        private void writeAccountId(String field, long accountId, boolean wasNull) throws IOException {
+            if (!wasNull) {
+                generator.writeStringField(field, String.valueOf(accountId));
+            }
+        }
+
+        private void writeTime(String field, Timestamp timestamp) throws IOException {
+            if (timestamp != null) {
+                generator.writeNumberField(field, timestamp.getTime());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private record CsvRowWriter(Writer writer) implements RowWriter {
+        @Override
+        public void begin() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws SQLException, IOException {
+            writer.write(String.valueOf(resultSet.getLong("id")));
+            writer.write(',');
+            writer.write(nullable(resultSet.getLong("source_account_id"), resultSet.wasNull()));
+            writer.write(',');
+            writer.write(nullable(resultSet.getLong("target_account_id"), resultSet.wasNull()));
+            writer.write(',');
+            writer.write(resultSet.getString("type"));
+            writer.write(',');
+            writer.write(resultSet.getString("status"));
+            writer.write(',');
+            writer.write(String.valueOf(resultSet.getLong("amount")));
+            writer.write(',');
+            writer.write(escape(resultSet.getString("failure_reason")));
+            writer.write(',');
+            writer.write(time(resultSet.getTimestamp("created_at")));
+            writer.write(',');
+            writer.write(time(resultSet.getTimestamp("updated_at")));
+            writer.write('\n');
+        }
+
+        private static String nullable(long value, boolean wasNull) {
+            return wasNull ? "" : String.valueOf(value);
+        }
+
+        private static String time(Timestamp timestamp) {
+            return timestamp == null ? "" : String.valueOf(timestamp.getTime());
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
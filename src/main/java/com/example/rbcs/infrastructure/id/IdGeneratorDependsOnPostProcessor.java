@@ -0,0 +1,14 @@
+package com.example.rbcs.infrastructure.id;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * EntityManagerFactory 依赖ID生成器，保证hibernate写库前生成器已经租到节点号
+ */
+@Component
+public class IdGeneratorDependsOnPostProcessor extends EntityManagerFactoryDependsOnPostProcessor {
+    public IdGeneratorDependsOnPostProcessor() {
+        super(SnowflakeIdGenerator.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.rbcs.infrastructure.id;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.id")
+@Data
+public class IdGeneratorProperties {
+    /**
+     * ID中时间戳的起点，上线后不能修改，否则可能生成重复的ID
+     */
+    private long epochMillis = 1_704_067_200_000L;
+    /**
+     * 节点号在redis中的租期，节点崩溃后经过该时长节点号才能被其他节点使用
+     */
+    private long workerLeaseMillis = 30_000;
+    /**
+     * 节点号续约间隔，需小于租期
+     */
+    private long workerRenewMillis = 10_000;
+    /**
+     * 允许等待的时钟回拨，超过时拒绝生成ID
+     */
+    private long maxClockBackwardMillis = 10;
+}
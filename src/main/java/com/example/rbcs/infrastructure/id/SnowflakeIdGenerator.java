@@ -0,0 +1,107 @@
+package com.example.rbcs.infrastructure.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 分布式时间有序的64位ID
+ * 1位符号 | 41位毫秒时间戳（相对epoch） | 10位节点号 | 12位序列号
+ * 1. 节点号由 WorkerIdLease 从redis租用，保证同一时刻不同节点的节点号不同
+ * 2. 每毫秒的序列号从 [0, 2048) 中的随机值开始，ID按毫秒递增的同时低位分布均匀，按ID取模分片时不会集中到同一个分片
+ * 3. 同一毫秒序列号用完时等待下一毫秒；时钟回拨不超过maxClockBackward时等待追上，否则拒绝生成
+ * ID在写库前分配，hibernate可以对insert做JDBC批量
+ */
+@Component
+@Slf4j
+public class SnowflakeIdGenerator {
+    static final int WORKER_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int SEQUENCE_START_BOUND = 1 << (SEQUENCE_BITS - 1);
+
+    private static volatile SnowflakeIdGenerator instance;
+
+    private final IntSupplier workerId;
+    private final long epochMillis;
+    private final long maxClockBackwardMillis;
+    private final LongSupplier clock;
+    private long lastMillis = -1;
+    private long sequence;
+
+    @Autowired
+    public SnowflakeIdGenerator(WorkerIdLease workerIdLease, IdGeneratorProperties properties) {
+        this(workerIdLease::getWorkerId, properties.getEpochMillis(), properties.getMaxClockBackwardMillis(), System::currentTimeMillis);
+        instance = this;
+    }
+
+    SnowflakeIdGenerator(IntSupplier workerId, long epochMillis, long maxClockBackwardMillis, LongSupplier clock) {
+        this.workerId = workerId;
+        this.epochMillis = epochMillis;
+        this.maxClockBackwardMillis = maxClockBackwardMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 供hibernate等不受spring管理的调用方获取生成器
+     */
+    public static SnowflakeIdGenerator get() {
+        final var generator = instance;
+        if (generator == null) {
+            throw new IllegalStateException("snowflake id generator is not initialized");
+        }
+        return generator;
+    }
+
+    public synchronized long nextId() {
+        var now = clock.getAsLong();
+        if (now < lastMillis) {
+            final var backward = lastMillis - now;
+            if (backward > maxClockBackwardMillis) {
+                throw new IllegalStateException("clock moved backwards by " + backward + "ms, refusing to generate id");
+            }
+            log.warn("clock moved backwards by {}ms, waiting", backward);
+            now = waitUntilAfter(lastMillis - 1);
+        }
+        if (now == lastMillis) {
+            sequence++;
+            if (sequence > SEQUENCE_MASK) {
+                now = waitUntilAfter(lastMillis);
+                sequence = ThreadLocalRandom.current().nextInt(SEQUENCE_START_BOUND);
+            }
+        } else {
+            sequence = ThreadLocalRandom.current().nextInt(SEQUENCE_START_BOUND);
+        }
+        lastMillis = now;
+        return ((now - epochMillis) << (WORKER_BITS + SEQUENCE_BITS))
+                | ((long) workerId.getAsInt() << SEQUENCE_BITS)
+                | sequence;
+    }
+
+    /**
+     * ID中的毫秒时间戳
+     */
+    public long timestampOf(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + epochMillis;
+    }
+
+    /**
+     * 该时刻及之后生成的ID都不小于返回值，用于把时间范围换算为ID范围
+     */
+    public long minIdAt(long timestampMillis) {
+        return Math.max(0, timestampMillis - epochMillis) << (WORKER_BITS + SEQUENCE_BITS);
+    }
+
+    private long waitUntilAfter(long millis) {
+        var now = clock.getAsLong();
+        while (now <= millis) {
+            Thread.onSpinWait();
+            now = clock.getAsLong();
+        }
+        return now;
+    }
+}
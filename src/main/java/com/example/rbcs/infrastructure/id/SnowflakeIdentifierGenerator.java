@@ -0,0 +1,14 @@
+package com.example.rbcs.infrastructure.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * hibernate的ID生成器，由hibernate实例化，委托给spring中的 SnowflakeIdGenerator
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return SnowflakeIdGenerator.get().nextId();
+    }
+}
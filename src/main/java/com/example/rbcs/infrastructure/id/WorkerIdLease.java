@@ -0,0 +1,166 @@
+package com.example.rbcs.infrastructure.id;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 从redis租用ID生成器的节点号
+ * 1. 节点号共 2^10 个，启动时从随机位置开始找一个空闲的节点号，以 SET NX PX 占用
+ * 2. 在专用的续约线程上定期续约；
+ *    续约时发现节点号已被其他节点占用（例如长时间GC后租约过期），重新租用一个新的节点号
+ * 3. 本地记录租约到期时间（从发起加锁或续约的时刻算起），租约过期后获取节点号时最多等待一个续约间隔，仍未续约成功则拒绝生成ID，
+ *    避免过期后节点号被其他节点租用时生成重复的ID
+ * 4. 停机时释放节点号
+ */
+@Component
+@Slf4j
+public class WorkerIdLease {
+    static final int MAX_WORKERS = 1 << SnowflakeIdGenerator.WORKER_BITS;
+    private static final String KEY_PREFIX = "rbcs:id:worker:";
+    private static final String RENEW_SCRIPT = """
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            return 0
+            """;
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """;
+
+    private final RedissonClient redissonClient;
+    private final IdGeneratorProperties properties;
+    private final String instanceId = UUID.randomUUID().toString().replaceAll("-", "");
+    private final LongSupplier clock;
+    private final Object monitor = new Object();
+    private final ScheduledExecutorService renewer;
+    private volatile int workerId;
+    private volatile long leaseExpiresAt;
+
+    @Autowired
+    public WorkerIdLease(RedissonClient redissonClient, IdGeneratorProperties properties) {
+        this(redissonClient, properties, System::currentTimeMillis);
+    }
+
+    WorkerIdLease(RedissonClient redissonClient, IdGeneratorProperties properties, LongSupplier clock) {
+        if (properties.getWorkerRenewMillis() >= properties.getWorkerLeaseMillis()) {
+            throw new IllegalArgumentException("worker id renew interval must be less than lease");
+        }
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.clock = clock;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            final var thread = new Thread(r, "rbcs-id-worker-renew");
+            thread.setDaemon(true);
+            return thread;
+        });
+        acquire();
+    }
+
+    @PostConstruct
+    public void start() {
+        renewer.scheduleWithFixedDelay(this::renewQuietly, properties.getWorkerRenewMillis(), properties.getWorkerRenewMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 当前租用的节点号，租约已在本地过期时最多等待一个续约间隔，仍未续约成功抛出 IllegalStateException
+     */
+    public int getWorkerId() {
+        if (clock.getAsLong() < leaseExpiresAt) {
+            return workerId;
+        }
+        final var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getWorkerRenewMillis());
+        synchronized (monitor) {
+            while (clock.getAsLong() >= leaseExpiresAt) {
+                final var remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new IllegalStateException("id worker " + workerId + " lease expired, refusing to generate id");
+                }
+                try {
+                    monitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for id worker lease", e);
+                }
+            }
+            return workerId;
+        }
+    }
+
+    /**
+     * 续约，节点号已被其他节点占用时重新租用
+     */
+    public void renew() {
+        final var startedAt = clock.getAsLong();
+        final Long renewed = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, RENEW_SCRIPT,
+                RScript.ReturnType.INTEGER, List.of(KEY_PREFIX + workerId), instanceId, String.valueOf(properties.getWorkerLeaseMillis()));
+        if (renewed == null || renewed == 0) {
+            final var lost = workerId;
+            // 重新租到之前不再使用旧节点号
+            leaseExpiresAt = 0;
+            acquire();
+            log.warn("id worker {} lease lost, switched to worker {}", lost, workerId);
+            return;
+        }
+        extendLease(startedAt);
+    }
+
+    @PreDestroy
+    public void release() {
+        renewer.shutdownNow();
+        leaseExpiresAt = 0;
+        redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT,
+                RScript.ReturnType.INTEGER, List.of(KEY_PREFIX + workerId), instanceId);
+        log.info("id worker {} released", workerId);
+    }
+
+    private void renewQuietly() {
+        try {
+            renew();
+        } catch (Exception e) {
+            log.error("failed to renew id worker {}, lease expires in {}ms", workerId, leaseExpiresAt - clock.getAsLong(), e);
+        }
+    }
+
+    private void acquire() {
+        final var start = ThreadLocalRandom.current().nextInt(MAX_WORKERS);
+        for (int i = 0; i < MAX_WORKERS; i++) {
+            final var candidate = (start + i) % MAX_WORKERS;
+            final var startedAt = clock.getAsLong();
+            if (redissonClient.<String>getBucket(KEY_PREFIX + candidate, StringCodec.INSTANCE)
+                    .setIfAbsent(instanceId, Duration.ofMillis(properties.getWorkerLeaseMillis()))) {
+                log.info("id worker {} leased", candidate);
+                synchronized (monitor) {
+                    workerId = candidate;
+                    extendLease(startedAt);
+                }
+                return;
+            }
+        }
+        throw new IllegalStateException("no free id worker slot, all " + MAX_WORKERS + " are leased");
+    }
+
+    private void extendLease(long startedAt) {
+        synchronized (monitor) {
+            leaseExpiresAt = startedAt + properties.getWorkerLeaseMillis();
+            monitor.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.rbcs.infrastructure.idempotency;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.util.Date;
+
+/**
+ * 客户端幂等键，与交易在同一个数据库事务中写入，唯一约束保证同一个键只创建一笔交易
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_key",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_idempotency_key_expires_at", columnList = "expires_at"))
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * 请求参数的摘要，同一个键携带不同的参数视为误用
+     */
+    @Column(nullable = false)
+    private String fingerprint;
+
+    private Long transactionId;
+
+    @Column(nullable = false)
+    private Date expiresAt;
+
+    @CreationTimestamp
+    private Date createdAt;
+}
@@ -0,0 +1,17 @@
+package com.example.rbcs.infrastructure.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.idempotency")
+@Data
+public class IdempotencyProperties {
+    /**
+     * 幂等键的有效期，过期后同一个键可以再次创建交易
+     */
+    private long ttlMillis = 86_400_000;
+    /**
+     * 清理过期幂等键的间隔
+     */
+    private long purgeIntervalMillis = 600_000;
+}
@@ -0,0 +1,144 @@
+package com.example.rbcs.infrastructure.idempotency;
+
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.exception.IdempotencyKeyReused;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 按客户端幂等键创建交易
+ * 1. 先查redis缓存，再查数据库，命中时返回原交易，不再创建
+ * 2. 未命中时在一个数据库事务中先写入幂等键再创建交易，并发的重复请求在唯一约束上失败，回滚后返回胜出请求创建的交易
+ * 3. 幂等键过期后可以再次使用，过期的记录定期清理
+ */
+@Component
+@Slf4j
+public class IdempotencyService {
+    private static final String CACHE_PREFIX = "rbcs:idempotency:";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int WINNER_LOOKUP_ATTEMPTS = 20;
+    private static final long WINNER_LOOKUP_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyKeyRepository repository;
+    private final RedissonClient redissonClient;
+    private final IdempotencyProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public IdempotencyService(IdempotencyKeyRepository repository, RedissonClient redissonClient,
+                              IdempotencyProperties properties, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 创建结果
+     * @param transactionId 交易ID
+     * @param replayed 是否为重复请求，返回的是之前创建的交易
+     */
+    public record Outcome(long transactionId, boolean replayed) {
+    }
+
+    /**
+     * 同一个幂等键只创建一次交易
+     * @param key 幂等键
+     * @param fingerprint 请求参数摘要
+     * @param creator 创建交易，在写入幂等键的同一个数据库事务中执行
+     */
+    public Outcome createOnce(String key, String fingerprint, Supplier<Transaction> creator) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        final var existing = lookup(key, fingerprint);
+        if (existing != null) {
+            return new Outcome(existing, true);
+        }
+        try {
+            final var transactionId = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                final var now = new Date();
+                repository.deleteExpired(key, now);
+                final var record = repository.saveAndFlush(IdempotencyKey.builder()
+                        .idempotencyKey(key)
+                        .fingerprint(fingerprint)
+                        .expiresAt(new Date(now.getTime() + properties.getTtlMillis()))
+                        .build());
+                final var transaction = creator.get();
+                record.setTransactionId(transaction.getId());
+                return transaction.getId();
+            }));
+            cache(key).set(transactionId + ":" + fingerprint, Duration.ofMillis(properties.getTtlMillis()));
+            return new Outcome(transactionId, false);
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            // 并发的重复请求已经写入了同一个幂等键，等待其提交后返回它创建的交易
+            for (int attempt = 0; attempt < WINNER_LOOKUP_ATTEMPTS; attempt++) {
+                final var winner = lookup(key, fingerprint);
+                if (winner != null) {
+                    log.info("concurrent request with idempotency key {} resolved to transaction {}", key, winner);
+                    return new Outcome(winner, true);
+                }
+                sleep(WINNER_LOOKUP_INTERVAL_MILLIS);
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rbcs.idempotency.purge-interval-millis:600000}",
+            initialDelayString = "${rbcs.idempotency.purge-interval-millis:600000}")
+    public void purgeExpired() {
+        final Integer purged = transactionTemplate.execute(status -> repository.deleteAllExpired(new Date()));
+        if (purged != null && purged > 0) {
+            log.info("purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * 查找幂等键对应的交易，键不存在或已过期时返回null，参数不一致时抛出 IdempotencyKeyReused
+     */
+    private Long lookup(String key, String fingerprint) {
+        final var cached = cache(key).get();
+        if (cached != null) {
+            final var separator = cached.indexOf(':');
+            return verify(key, fingerprint, cached.substring(separator + 1), Long.parseLong(cached.substring(0, separator)));
+        }
+        final var record = repository.findByIdempotencyKey(key).orElse(null);
+        if (record == null || record.getTransactionId() == null || record.getExpiresAt().before(new Date())) {
+            return null;
+        }
+        final var remaining = record.getExpiresAt().getTime() - System.currentTimeMillis();
+        cache(key).set(record.getTransactionId() + ":" + record.getFingerprint(), Duration.ofMillis(Math.max(1, remaining)));
+        return verify(key, fingerprint, record.getFingerprint(), record.getTransactionId());
+    }
+
+    private static Long verify(String key, String fingerprint, String expected, long transactionId) {
+        if (!expected.equals(fingerprint)) {
+            throw new IdempotencyKeyReused("Idempotency-Key " + key + " was used with different parameters");
+        }
+        return transactionId;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private RBucket<String> cache(String key) {
+        return redissonClient.getBucket(CACHE_PREFIX + key, StringCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.rbcs.infrastructure.lock;
+
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * requeue策略下短暂尝试后仍没有拿到账户锁，交易需要延迟重新投递
+ */
+@Getter
+public class AccountLockContendedException extends RuntimeException {
+    private final long transactionId;
+
+    public AccountLockContendedException(long transactionId, Collection<Long> accountIds) {
+        super("accounts " + accountIds + " are locked by other transactions");
+        this.transactionId = transactionId;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.rbcs.infrastructure.lock;
+
+import java.util.Collection;
+
+/**
+ * 账户锁
+ * 对一组账户加锁后执行任务，实现方需要按账户ID的固定顺序加锁，避免死锁
+ * 实现由 rbcs.lock.provider 选择
+ */
+public interface AccountLockProvider {
+    /**
+     * 对账户加锁后执行任务，任务抛出的异常原样抛出
+     * @param accountIds 涉及的账户
+     * @param task 要执行的任务
+     * @return 是否拿到锁并执行了任务
+     */
+    boolean executeWithLock(Collection<Long> accountIds, Runnable task);
+
+    /**
+     * 对账户加锁后执行任务，最多等待指定的时间
+     * 不存在等待概念的实现（数据库行锁、乐观模式）忽略等待时间
+     * @param accountIds 涉及的账户
+     * @param waitMillis 获取锁的最长等待时间
+     * @param task 要执行的任务
+     * @return 是否拿到锁并执行了任务
+     */
+    default boolean executeWithLock(Collection<Long> accountIds, long waitMillis, Runnable task) {
+        return executeWithLock(accountIds, task);
+    }
+}
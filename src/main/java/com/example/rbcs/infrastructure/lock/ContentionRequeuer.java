@@ -0,0 +1,112 @@
+package com.example.rbcs.infrastructure.lock;
+
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 锁竞争时的延迟重新投递
+ * 延迟按尝试次数指数增长（base * 2^(n-1)，不超过上限），并叠加最多一半的随机抖动，避免同一热点账户上的交易同时醒来再次竞争
+ * 来自SQS的交易通过修改消息可见性超时重新投递（见 SqsTransactionListener），其他来源的交易放入本地延迟队列
+ */
+@Component
+@Slf4j
+public class ContentionRequeuer {
+    private final LockProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, RequeueMeters> meters = new ConcurrentHashMap<>();
+
+    public ContentionRequeuer(LockProperties properties, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        final var threads = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            final var thread = new Thread(r, "rbcs-contention-requeue-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 第attempt次竞争失败后的重新投递延迟，并记录指标
+     * @param via 重新投递的途径，sqs或local
+     * @param attempt 已经尝试的次数，从1开始
+     */
+    public long nextDelayMillis(String via, int attempt) {
+        final var exponent = Math.min(Math.max(attempt, 1) - 1, 30);
+        final var base = Math.min(properties.getRequeueMaxDelayMillis(), properties.getRequeueBaseDelayMillis() << exponent);
+        final var delay = Math.min(properties.getRequeueMaxDelayMillis(), base + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+        final var viaMeters = meters.computeIfAbsent(via, this::registerMeters);
+        viaMeters.requeued().increment();
+        viaMeters.delay().record(delay);
+        viaMeters.attempt().record(attempt);
+        return delay;
+    }
+
+    private RequeueMeters registerMeters(String via) {
+        return new RequeueMeters(
+                meterRegistry.counter("rbcs.lock.requeue", "via", via),
+                DistributionSummary.builder("rbcs.lock.requeue.delay")
+                        .baseUnit("milliseconds")
+                        .tag("via", via)
+                        .publishPercentiles(0.5, 0.9, 0.99)
+                        .register(meterRegistry),
+                DistributionSummary.builder("rbcs.lock.requeue.attempt")
+                        .tag("via", via)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * 放入本地延迟队列，到期后重新发布执行请求，再次竞争失败时继续以更长的延迟重新投递
+     * @param transactionId 交易ID
+     * @param attempt 已经尝试的次数，从1开始
+     */
+    public void requeueLocally(long transactionId, int attempt) {
+        final var delay = nextDelayMillis("local", attempt);
+        final var traceId = MDC.get("traceId");
+        log.info("[{}]accounts are contended, requeue locally after {}ms, attempt {}", transactionId, delay, attempt);
+        scheduler.schedule(() -> {
+            try {
+                if (traceId != null) {
+                    MDC.put("traceId", traceId);
+                }
+                MDC.put("transactionId", String.valueOf(transactionId));
+                eventPublisher.publishEvent(new TransactionExecuteRequest(transactionId));
+            } catch (AccountLockContendedException e) {
+                requeueLocally(transactionId, attempt + 1);
+            } catch (Exception e) {
+                log.error("[{}]requeued transaction execution error", transactionId, e);
+            } finally {
+                MDC.clear();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        final var pending = scheduler.shutdownNow();
+        if (!pending.isEmpty()) {
+            log.info("{} requeued transactions dropped on shutdown, they stay pending", pending.size());
+        }
+    }
+
+    private record RequeueMeters(Counter requeued, DistributionSummary delay, DistributionSummary attempt) {
+    }
+}
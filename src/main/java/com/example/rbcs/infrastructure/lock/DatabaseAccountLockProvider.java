@@ -0,0 +1,38 @@
+package com.example.rbcs.infrastructure.lock;
+
+import com.example.rbcs.domain.repository.AccountRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+
+/**
+ * 基于数据库行锁的账户锁
+ * 开启数据库事务，按账户ID顺序 SELECT ... FOR UPDATE 锁定账户行，任务在同一个事务中执行，提交或回滚时释放
+ * 任务中的数据库操作必须加入当前事务（传播级别REQUIRED），否则会与自己持有的行锁互相等待
+ * 不依赖redis，但锁的持有时间等于整个数据库事务的时间
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.lock.provider", havingValue = "database")
+public class DatabaseAccountLockProvider implements AccountLockProvider {
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public DatabaseAccountLockProvider(AccountRepository accountRepository, PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, Runnable task) {
+        transactionTemplate.executeWithoutResult(status -> {
+            accountRepository.findAllForUpdate(accountIds.stream().distinct().sorted().toList());
+            task.run();
+        });
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.rbcs.infrastructure.lock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内分段锁，账户ID按哈希映射到固定数量的锁上，按分段编号顺序加锁
+ * 没有网络开销，但只在单个进程内互斥，只适用于单实例部署
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.lock.provider", havingValue = "local")
+public class LocalAccountLockProvider implements AccountLockProvider {
+    private final ReentrantLock[] stripes;
+    private final long waitMillis;
+
+    public LocalAccountLockProvider(LockProperties properties) {
+        if (properties.getStripes() <= 0) {
+            throw new IllegalArgumentException("lock stripes must be positive");
+        }
+        this.stripes = new ReentrantLock[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.waitMillis = properties.getWaitMillis();
+    }
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, Runnable task) {
+        return executeWithLock(accountIds, waitMillis, task);
+    }
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, long waitMillis, Runnable task) {
+        final int[] indexes = accountIds.stream()
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        final List<ReentrantLock> acquired = new ArrayList<>(indexes.length);
+        try {
+            final var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+            for (int index : indexes) {
+                final var lock = stripes[index];
+                if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                acquired.add(lock);
+            }
+            task.run();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    private int stripeOf(long accountId) {
+        var h = Long.hashCode(accountId);
+        h ^= (h >>> 16);
+        return Math.floorMod(h, stripes.length);
+    }
+}
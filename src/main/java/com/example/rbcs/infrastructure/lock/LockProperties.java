@@ -0,0 +1,58 @@
+package com.example.rbcs.infrastructure.lock;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.lock")
+@Data
+public class LockProperties {
+    /**
+     * 账户锁的实现
+     */
+    private Provider provider = Provider.REDISSON;
+    /**
+     * 获取锁的最长等待时间
+     */
+    private long waitMillis = 100_000;
+    /**
+     * 锁的租期，超时自动释放，避免进程异常退出后死锁
+     */
+    private long leaseMillis = 300_000;
+    /**
+     * 本地锁的分段数
+     */
+    private int stripes = 1024;
+    /**
+     * 乐观锁模式下版本冲突的最大尝试次数
+     */
+    private int optimisticAttempts = 5;
+    /**
+     * 锁竞争时的处理策略
+     */
+    private Contention contention = Contention.WAIT;
+    /**
+     * requeue策略下尝试获取锁的等待时间
+     */
+    private long contentionTryMillis = 5;
+    /**
+     * requeue策略下第一次重新投递的延迟，之后每次翻倍
+     */
+    private long requeueBaseDelayMillis = 200;
+    /**
+     * requeue策略下重新投递的最大延迟
+     */
+    private long requeueMaxDelayMillis = 30_000;
+
+    public enum Provider {
+        REDISSON,   // redisson分布式锁
+        LUA,        // 单次Lua脚本原子获取所有账户锁
+        DATABASE,   // 数据库行锁（SELECT ... FOR UPDATE）
+        LOCAL,      // 进程内分段锁，仅适用于单实例部署
+        OPTIMISTIC  // 不加锁，依赖@Version，冲突时重试
+    }
+
+    public enum Contention {
+        WAIT,       // 在当前线程中等待锁，最长wait-millis
+        REQUEUE     // 短暂尝试后放弃，交易延迟重新投递，立即释放当前线程
+    }
+}
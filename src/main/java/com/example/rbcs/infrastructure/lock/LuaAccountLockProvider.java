@@ -0,0 +1,232 @@
+package com.example.rbcs.infrastructure.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Lua脚本的多账户锁
+ * 1. 所有账户的锁key按账户ID排序，在一个脚本中检查并一次性全部加锁，任意一个被占用则全部不加，不存在部分加锁后回滚的问题
+ * 2. 每次加锁从全局计数器取一个单调递增的token，锁的值为 实例ID:token，释放时比较值后删除，同样一次往返
+ * 3. 拿不到锁时指数退避后重试，直到超过等待时间
+ * 4. 锁不可重入：同一线程再次请求已持有的账户时直接执行任务，请求中混有未持有的账户会抛出 {@link IllegalStateException}，
+ *    否则会一直等待自己释放直到超时
+ * token通过 {@link #currentFencingToken()} 和日志上下文暴露，仅用于排查，存储层不校验该token；
+ * 租期过期后另一个持有者并发写入由账户的乐观锁版本号兜底，释放时发现锁已经不属于自己会记录告警
+ * 脚本涉及多个key，只适用于单节点或主从部署的redis
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.lock.provider", havingValue = "lua")
+@Slf4j
+public class LuaAccountLockProvider implements AccountLockProvider {
+    private static final String KEY_PREFIX = "rbcs:lock:a:";
+    private static final String FENCE_KEY = "rbcs:lock:fence";
+    private static final long MAX_BACKOFF_MILLIS = 50;
+    private static final ThreadLocal<Long> CURRENT_TOKEN = new ThreadLocal<>();
+    private static final ThreadLocal<Set<Long>> HELD_ACCOUNTS = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * KEYS: 排序后的锁key，最后一个为fencing计数器; ARGV: 实例ID, 租期毫秒
+     * 返回fencing token，0表示有锁被占用
+     */
+    private static final String ACQUIRE_SCRIPT = """
+            local n = #KEYS - 1
+            for i = 1, n do
+                if redis.call('exists', KEYS[i]) == 1 then
+                    return 0
+                end
+            end
+            local token = redis.call('incr', KEYS[#KEYS])
+            local value = ARGV[1] .. ':' .. token
+            for i = 1, n do
+                redis.call('set', KEYS[i], value, 'PX', ARGV[2])
+            end
+            return token
+            """;
+
+    /**
+     * KEYS: 锁key; ARGV: 加锁时写入的值
+     * 返回实际释放的key数量
+     */
+    private static final String RELEASE_SCRIPT = """
+            local released = 0
+            for i = 1, #KEYS do
+                if redis.call('get', KEYS[i]) == ARGV[1] then
+                    redis.call('del', KEYS[i])
+                    released = released + 1
+                end
+            end
+            return released
+            """;
+
+    private final RScript script;
+    private final LockProperties properties;
+    private final String instanceId = UUID.randomUUID().toString().replaceAll("-", "");
+    private volatile String acquireSha;
+    private volatile String releaseSha;
+
+    private final Counter redisCalls;
+    private final DistributionSummary callsPerExecution;
+    private final Timer acquireTimer;
+    private final Timer holdTimer;
+    private final Counter contended;
+    private final Counter leaseLost;
+
+    public LuaAccountLockProvider(RedissonClient redissonClient, LockProperties properties, MeterRegistry meterRegistry) {
+        this.script = redissonClient.getScript(StringCodec.INSTANCE);
+        this.properties = properties;
+        this.redisCalls = meterRegistry.counter("rbcs.lock.lua.redis.calls");
+        this.callsPerExecution = DistributionSummary.builder("rbcs.lock.lua.calls.per.execution")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.acquireTimer = Timer.builder("rbcs.lock.lua.acquire.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.holdTimer = Timer.builder("rbcs.lock.lua.hold.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.contended = meterRegistry.counter("rbcs.lock.lua.contended");
+        this.leaseLost = meterRegistry.counter("rbcs.lock.lua.lease.lost");
+    }
+
+    /**
+     * 当前线程持有锁的token，没有持有锁时返回null，仅用于日志和排查
+     */
+    public static Long currentFencingToken() {
+        return CURRENT_TOKEN.get();
+    }
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, Runnable task) {
+        return executeWithLock(accountIds, properties.getWaitMillis(), task);
+    }
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, long waitMillis, Runnable task) {
+        final var held = HELD_ACCOUNTS.get();
+        if (!held.isEmpty()) {
+            if (held.containsAll(accountIds)) {
+                task.run();
+                return true;
+            }
+            throw new IllegalStateException("lua lock is not reentrant, accounts " + accountIds + " requested while holding " + held);
+        }
+        final List<Object> keys = new ArrayList<>();
+        accountIds.stream().distinct().sorted().forEach(id -> keys.add(KEY_PREFIX + id));
+        final var lockKeys = List.copyOf(keys);
+        keys.add(FENCE_KEY);
+
+        final var calls = new int[1];
+        final var start = System.nanoTime();
+        final var deadline = start + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        long token = 0;
+        long backoff = 1;
+        try {
+            while (true) {
+                calls[0]++;
+                token = acquire(keys);
+                if (token > 0) {
+                    break;
+                }
+                contended.increment();
+                final var remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.info("unable to acquire lua lock for accounts {} after {} attempts", accountIds, calls[0]);
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(backoff)));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (token <= 0) {
+                record(calls[0]);
+            }
+        }
+
+        final var value = instanceId + ":" + token;
+        final var heldAt = System.nanoTime();
+        CURRENT_TOKEN.set(token);
+        held.addAll(accountIds);
+        MDC.put("fence", String.valueOf(token));
+        try {
+            task.run();
+            return true;
+        } finally {
+            CURRENT_TOKEN.remove();
+            HELD_ACCOUNTS.remove();
+            MDC.remove("fence");
+            holdTimer.record(System.nanoTime() - heldAt, TimeUnit.NANOSECONDS);
+            calls[0]++;
+            final var released = release(lockKeys, value);
+            if (released < lockKeys.size()) {
+                leaseLost.increment();
+                log.warn("lua lock with token {} expired before release, released {}/{}", token, released, lockKeys.size());
+            }
+            record(calls[0]);
+        }
+    }
+
+    private long acquire(List<Object> keys) {
+        final Long token = eval(true, keys, instanceId, String.valueOf(properties.getLeaseMillis()));
+        return token == null ? 0 : token;
+    }
+
+    private long release(List<Object> keys, String value) {
+        final Long released = eval(false, keys, value);
+        return released == null ? 0 : released;
+    }
+
+    /**
+     * 优先使用evalSha，脚本缓存被清空（NOSCRIPT）时重新加载
+     */
+    private Long eval(boolean acquire, List<Object> keys, Object... args) {
+        redisCalls.increment();
+        try {
+            return script.evalSha(RScript.Mode.READ_WRITE, sha(acquire, false), RScript.ReturnType.INTEGER, keys, args);
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+            redisCalls.increment();
+            return script.evalSha(RScript.Mode.READ_WRITE, sha(acquire, true), RScript.ReturnType.INTEGER, keys, args);
+        }
+    }
+
+    private String sha(boolean acquire, boolean reload) {
+        if (acquire) {
+            if (acquireSha == null || reload) {
+                acquireSha = script.scriptLoad(ACQUIRE_SCRIPT);
+            }
+            return acquireSha;
+        }
+        if (releaseSha == null || reload) {
+            releaseSha = script.scriptLoad(RELEASE_SCRIPT);
+        }
+        return releaseSha;
+    }
+
+    private void record(int calls) {
+        callsPerExecution.record(calls);
+    }
+}
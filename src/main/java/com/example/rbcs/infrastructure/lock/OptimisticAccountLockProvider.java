@@ -0,0 +1,52 @@
+package com.example.rbcs.infrastructure.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 乐观模式，不加锁，依赖账户和交易上的@Version检测并发修改
+ * 版本冲突时整个任务重试，每次重试前随机退避，冲突激烈的热点账户上重试次数会明显增加
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.lock.provider", havingValue = "optimistic")
+@Slf4j
+public class OptimisticAccountLockProvider implements AccountLockProvider {
+    private static final long BASE_BACKOFF_MILLIS = 5;
+
+    private final int maxAttempts;
+
+    public OptimisticAccountLockProvider(LockProperties properties) {
+        this.maxAttempts = Math.max(1, properties.getOptimisticAttempts());
+    }
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, Runnable task) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                task.run();
+                return true;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("optimistic execution on accounts {} conflicted {} times, give up", accountIds, attempt);
+                    return false;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MILLIS << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.rbcs.infrastructure.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redisson的分布式锁，多个账户时使用MultiLock
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.lock.provider", havingValue = "redisson", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RedissonAccountLockProvider implements AccountLockProvider {
+    private final RedissonClient redissonClient;
+    private final LockProperties properties;
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, Runnable task) {
+        return executeWithLock(accountIds, properties.getWaitMillis(), task);
+    }
+
+    @Override
+    public boolean executeWithLock(Collection<Long> accountIds, long waitMillis, Runnable task) {
+        final var locks = accountIds.stream()
+                .distinct()
+                .sorted()
+                .map(id -> redissonClient.getLock("t:a:" + id))
+                .toArray(RLock[]::new);
+        final var lock = locks.length == 1 ? locks[0] : redissonClient.getMultiLock(locks);
+        try {
+            if (lock.tryLock(waitMillis, properties.getLeaseMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    task.run();
+                    return true;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.rbcs.infrastructure.outbox;
+
+public interface Outbox {
+    /**
+     * 在当前数据库事务中登记一条交易执行消息，必须在事务内调用
+     * @param transactionId 交易ID
+     */
+    void enqueue(long transactionId);
+}
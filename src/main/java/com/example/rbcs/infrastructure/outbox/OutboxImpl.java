@@ -0,0 +1,28 @@
+package com.example.rbcs.infrastructure.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 事务发件箱
+ * 消息和业务数据一起提交，进程在提交后、投递前退出也不会丢消息
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.outbox.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OutboxImpl implements Outbox {
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(long transactionId) {
+        outboxMessageRepository.save(OutboxMessage.builder()
+                .transactionId(transactionId)
+                .traceId(MDC.get("traceId"))
+                .build());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.rbcs.infrastructure.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.outbox")
+@Data
+public class OutboxProperties {
+    /**
+     * 开启后交易执行消息先写入发件箱表，由中继任务批量投递，不再在请求线程中发送
+     */
+    private boolean enabled = false;
+    /**
+     * 每次认领的最大消息数
+     */
+    private int batchSize = 500;
+    /**
+     * 每轮中继最多认领的批数
+     */
+    private int maxBatchesPerRun = 20;
+    /**
+     * 每轮中继的最长运行时间，超过后不再认领新的一批
+     */
+    private long maxRunMillis = 5000;
+    /**
+     * 中继任务的轮询间隔
+     */
+    private long relayIntervalMillis = 200;
+}
@@ -0,0 +1,68 @@
+package com.example.rbcs.infrastructure.outbox;
+
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发件箱中继
+ * 1. 按主键顺序认领一批消息，多个节点同时中继时通过 SKIP LOCKED 各自认领不同的行
+ * 2. 批量投递到消息队列后在同一个事务中删除，投递失败则事务回滚，消息留待下次重试
+ * 3. 认领满一批说明还有积压，继续认领下一批，直到取空，或本轮已中继 maxBatchesPerRun 批、运行超过 maxRunMillis，剩余积压留到下一轮
+ * 提交前进程退出会导致消息重复投递，交易执行本身是幂等的
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.outbox.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final TransactionPublisher transactionPublisher;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${rbcs.outbox.relay-interval-millis:200}",
+            initialDelayString = "${rbcs.outbox.relay-interval-millis:200}")
+    public void relay() {
+        final var startedAt = System.nanoTime();
+        long lastId = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            if (batch > 0 && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) >= properties.getMaxRunMillis()) {
+                log.info("outbox relay reached {}ms after {} batches, continue in next run", properties.getMaxRunMillis(), batch);
+                return;
+            }
+            final long cursor = lastId;
+            final var relayed = transactionTemplate.execute(status -> relayBatch(cursor));
+            if (relayed == null || relayed.count() < properties.getBatchSize()) {
+                return;
+            }
+            lastId = relayed.lastId();
+        }
+    }
+
+    private RelayedBatch relayBatch(long afterId) {
+        final var messages = outboxMessageRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, properties.getBatchSize()));
+        if (messages.isEmpty()) {
+            return new RelayedBatch(0, afterId);
+        }
+        transactionPublisher.publishBatch(messages.stream()
+                .map(message -> new TransactionPublisher.OutgoingMessage(message.getTransactionId(),
+                        StringUtils.hasText(message.getTraceId()) ? message.getTraceId() : UUID.randomUUID().toString().replaceAll("-", "")))
+                .toList());
+        outboxMessageRepository.deleteAllInBatch(messages);
+        log.info("relayed {} outbox messages", messages.size());
+        return new RelayedBatch(messages.size(), messages.get(messages.size() - 1).getId());
+    }
+
+    private record RelayedBatch(int count, long lastId) {
+    }
+}
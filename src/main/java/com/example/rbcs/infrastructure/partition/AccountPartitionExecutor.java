@@ -0,0 +1,236 @@
+package com.example.rbcs.infrastructure.partition;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 账户分区执行引擎，分区执行模式下替代分布式锁
+ * 按账户ID把任务路由到固定的分区，每个分区只有一个工作线程，同一账户上的任务天然串行，执行时不再需要分布式锁
+ * 涉及多个分区的任务（如跨分区转账）投递到编号最小的分区，再按分区编号升序依次占住其他分区，所有等待都指向编号更大的分区，因此不会出现循环等待
+ * 分区工作线程内再提交任务时，首个分区就是当前分区则直接在当前线程执行，首个分区编号更小则拒绝（会反向等待造成死锁）
+ * 停机时不再接受新任务，队列中尚未执行的任务以 RejectedExecutionException 结束，等待结果的调用方不会永久阻塞
+ * 注意：该引擎只保证单个进程内的串行，多实例部署时需要配合账户分区归属，确保同一账户只在一个实例上执行
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.transaction.execution.mode", havingValue = "partitioned")
+@Slf4j
+public class AccountPartitionExecutor {
+    private static final ThreadLocal<Integer> CURRENT_PARTITION = new ThreadLocal<>();
+
+    private final Partition[] partitions;
+    private volatile boolean stopped;
+
+    public AccountPartitionExecutor(PartitionProperties properties) {
+        if (properties.getCount() <= 0) {
+            throw new IllegalArgumentException("partition count must be positive");
+        }
+        partitions = new Partition[properties.getCount()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, properties.getQueueCapacity());
+            partitions[i].start();
+        }
+        log.info("account partition executor started with {} partitions", partitions.length);
+    }
+
+    public int partitionOf(long accountId) {
+        var h = Long.hashCode(accountId);
+        h ^= (h >>> 16);
+        return Math.floorMod(h, partitions.length);
+    }
+
+    public void execute(Collection<Long> accountIds, Runnable task) {
+        execute(accountIds, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 在账户所属的分区上串行执行任务，调用方阻塞直到任务执行完成
+     * @param accountIds 任务涉及的账户
+     * @param task 要执行的任务
+     * @return 任务结果
+     */
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> task) {
+        final int[] partitionIds = accountIds.stream()
+                .mapToInt(this::partitionOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        if (partitionIds.length == 0) {
+            throw new IllegalArgumentException("account ids must not be empty");
+        }
+        final var current = CURRENT_PARTITION.get();
+        if (current != null) {
+            // 已经在首个分区的工作线程内，直接执行，其余分区编号更大，按升序占住不会循环等待
+            if (partitionIds[0] == current) {
+                try {
+                    return runHoldingPartitions(partitionIds, task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            if (partitionIds[0] < current) {
+                throw new IllegalStateException("partition " + current + " cannot wait for lower partition " + partitionIds[0]);
+            }
+        }
+        if (stopped) {
+            throw new RejectedExecutionException("account partition executor is shut down");
+        }
+
+        final var future = new CompletableFuture<T>();
+        final var context = MDC.getCopyOfContextMap();
+        partitions[partitionIds[0]].submit(new Task(() -> {
+            withContext(context, () -> {
+                try {
+                    future.complete(runHoldingPartitions(partitionIds, task));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }, future::completeExceptionally));
+        return await(future);
+    }
+
+    /**
+     * 在首个分区的工作线程上执行，按升序占住其余分区后执行任务
+     */
+    private <T> T runHoldingPartitions(int[] partitionIds, Supplier<T> task) throws InterruptedException {
+        final var release = new CountDownLatch(1);
+        try {
+            for (int i = 1; i < partitionIds.length; i++) {
+                final var acquired = new CompletableFuture<Void>();
+                partitions[partitionIds[i]].submit(new Task(() -> {
+                    acquired.complete(null);
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, acquired::completeExceptionally));
+                await(acquired);
+            }
+            return task.get();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static void withContext(Map<String, String> context, Runnable runnable) {
+        if (context != null) {
+            MDC.setContextMap(context);
+        }
+        try {
+            runnable.run();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * 停止接受新任务，中断工作线程，队列中尚未执行的任务以 RejectedExecutionException 结束
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        for (Partition partition : partitions) {
+            partition.interrupt();
+        }
+        var aborted = 0;
+        for (Partition partition : partitions) {
+            aborted += partition.abortPending();
+        }
+        if (aborted > 0) {
+            log.warn("{} queued partition tasks aborted on shutdown", aborted);
+        }
+    }
+
+    /**
+     * 队列中的任务，停机时通过onAbort通知等待结果的一方
+     */
+    private record Task(Runnable body, Consumer<Throwable> onAbort) {
+        void abort() {
+            onAbort.accept(new RejectedExecutionException("account partition executor is shut down"));
+        }
+    }
+
+    private class Partition extends Thread {
+        private final int index;
+        private final BlockingQueue<Task> queue;
+
+        Partition(int index, int capacity) {
+            super("rbcs-partition-" + index);
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+            setDaemon(true);
+        }
+
+        void submit(Task task) {
+            try {
+                queue.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            // 与停机并发提交时，任务可能在清空队列之后才入队
+            if (stopped && queue.remove(task)) {
+                task.abort();
+            }
+        }
+
+        int abortPending() {
+            final List<Task> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            pending.forEach(Task::abort);
+            return pending.size();
+        }
+
+        @Override
+        public void run() {
+            CURRENT_PARTITION.set(index);
+            while (!stopped && !isInterrupted()) {
+                try {
+                    queue.take().body().run();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Throwable e) {
+                    log.error("[partition:{}]unexpected error", index, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.rbcs.infrastructure.partition;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.partition")
+@Data
+public class PartitionProperties {
+    /**
+     * 分区数量，每个分区对应一个工作线程
+     */
+    private int count = 16;
+    /**
+     * 单个分区的队列容量，队列满时提交方阻塞等待
+     */
+    private int queueCapacity = 10000;
+}
@@ -0,0 +1,203 @@
+package com.example.rbcs.infrastructure.recovery;
+
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * pending交易恢复
+ * 1. 持续运行，每轮找出创建超过minAge仍处于pending的交易，重新投递执行
+ * 2. 交易ID按segmentSize划分为固定的分段，只认领有超时交易的分段，各节点通过redis锁认领不同的分段，并行恢复
+ * 3. 分段内按 (created_at, id) 键集分页，游标保存在redis中，下一轮和其他节点从游标处继续，不重复扫描
+ * 4. 分段扫描完一遍后游标保留，只有新变为超时的交易会被读到；经过rescanInterval后从头再扫一遍，兜底投递丢失的消息
+ * 5. 每轮投递量受队列积压限制，积压达到上限时暂停
+ * 开启发件箱时同样执行：发件箱只保证消息投递到队列，消息投递后在消费、执行环节丢失的交易仍然需要恢复兜底
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.recovery.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class PendingTransactionRecovery {
+    private static final String SEGMENT_LOCK_PREFIX = "rbcs:recovery:segment:";
+    private static final String CURSOR_PREFIX = "rbcs:recovery:cursor:";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionPublisher transactionPublisher;
+    private final RedissonClient redissonClient;
+    private final RecoveryProperties properties;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong segments = new AtomicLong();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Counter republished;
+
+    public PendingTransactionRecovery(TransactionRepository transactionRepository, TransactionPublisher transactionPublisher,
+                                      RedissonClient redissonClient, RecoveryProperties properties,
+                                      MeterRegistry meterRegistry) {
+        if (properties.getSegmentSize() <= 0) {
+            throw new IllegalArgumentException("recovery segment size must be positive");
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionPublisher = transactionPublisher;
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        meterRegistry.gauge("rbcs.recovery.pending", pending);
+        meterRegistry.gauge("rbcs.recovery.segments", segments);
+        meterRegistry.gauge("rbcs.recovery.queue.depth", queueDepth);
+        this.republished = meterRegistry.counter("rbcs.recovery.republished");
+    }
+
+    /**
+     * 执行一轮恢复
+     * @return 本轮重新投递的交易数
+     */
+    @Scheduled(fixedDelayString = "${rbcs.recovery.interval-millis:5000}",
+            initialDelayString = "${rbcs.recovery.interval-millis:5000}")
+    public int recover() {
+        final var before = new Date(System.currentTimeMillis() - properties.getMinAgeMillis());
+        final var minId = transactionRepository.findMinIdByStatusAndCreatedAtLessThanEqual(Transaction.Status.PENDING, before);
+        if (minId == null) {
+            pending.set(0);
+            segments.set(0);
+            return 0;
+        }
+        pending.set(transactionRepository.countByStatusAndCreatedAtLessThanEqual(Transaction.Status.PENDING, before));
+
+        final var budget = budget();
+        if (budget <= 0) {
+            log.info("recovery paused, queue depth {} reached {}, {} transactions pending", queueDepth.get(), properties.getMaxQueueDepth(), pending.get());
+            return 0;
+        }
+        final List<Long> candidates = nonEmptySegments(minId, before);
+        segments.set(candidates.size());
+        // 各节点以不同的顺序认领分段，减少锁冲突
+        Collections.shuffle(candidates);
+
+        int recovered = 0;
+        for (Long segment : candidates) {
+            if (recovered >= budget) {
+                break;
+            }
+            final var lock = redissonClient.getLock(SEGMENT_LOCK_PREFIX + segment);
+            try {
+                // 分段正在被其他节点恢复
+                if (!lock.tryLock(0, properties.getSegmentLeaseMillis(), TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                recovered += recoverSegment(segment, before, budget - recovered);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        }
+        if (recovered > 0) {
+            log.info("recovered {} pending transactions, {} pending before this round, {} segments, queue depth {}",
+                    recovered, pending.get(), segments.get(), queueDepth.get());
+        }
+        return recovered;
+    }
+
+    /**
+     * 从minId开始逐个找出有超时pending交易的分段，ID时间有序且可能很稀疏，不按ID范围枚举所有分段
+     */
+    private List<Long> nonEmptySegments(long minId, Date before) {
+        final List<Long> candidates = new ArrayList<>();
+        Long next = minId;
+        while (next != null && candidates.size() < properties.getMaxSegmentsPerCycle()) {
+            final var segment = Math.floorDiv(next, properties.getSegmentSize());
+            candidates.add(segment);
+            next = transactionRepository.findMinIdByStatusAndCreatedAtLessThanEqualAndIdGreaterThanEqual(
+                    Transaction.Status.PENDING, before, (segment + 1) * properties.getSegmentSize());
+        }
+        return candidates;
+    }
+
+    private long budget() {
+        final var depth = transactionPublisher.backlog();
+        queueDepth.set(depth);
+        if (depth < 0) {
+            return properties.getMaxPerCycle();
+        }
+        return Math.min(properties.getMaxPerCycle(), properties.getMaxQueueDepth() - depth);
+    }
+
+    private int recoverSegment(long segment, Date before, long budget) {
+        final var fromId = segment * properties.getSegmentSize();
+        final var toId = fromId + properties.getSegmentSize();
+        final RBucket<String> cursorBucket = redissonClient.getBucket(CURSOR_PREFIX + segment, StringCodec.INSTANCE);
+        var cursor = Cursor.parse(cursorBucket.get());
+        final var restart = cursor == null || System.currentTimeMillis() - cursor.sweepStartedAt() >= properties.getRescanIntervalMillis();
+        if (restart) {
+            cursor = new Cursor(System.currentTimeMillis(), 0, fromId - 1);
+        }
+
+        int recovered = 0;
+        while (recovered < budget) {
+            final var size = (int) Math.min(properties.getBatchSize(), budget - recovered);
+            final var rows = transactionRepository.findKeysetPage(Transaction.Status.PENDING, before, fromId, toId,
+                    new Date(cursor.createdAt()), cursor.id(), PageRequest.of(0, size));
+            if (rows.isEmpty()) {
+                break;
+            }
+            transactionPublisher.publishBatch(rows.stream()
+                    .map(row -> new TransactionPublisher.OutgoingMessage(row.getId(), UUID.randomUUID().toString().replaceAll("-", "")))
+                    .toList());
+            final var last = rows.get(rows.size() - 1);
+            cursor = new Cursor(cursor.sweepStartedAt(), last.getCreatedAt().getTime(), last.getId());
+            cursorBucket.set(cursor.format());
+            recovered += rows.size();
+            republished.increment(rows.size());
+            if (rows.size() < size) {
+                break;
+            }
+        }
+        // 新一遍扫描即使没有读到数据也要保存游标，记录本遍扫描的开始时间
+        if (recovered == 0 && restart) {
+            cursorBucket.set(cursor.format());
+        }
+        return recovered;
+    }
+
+    /**
+     * 分段的扫描游标
+     * @param sweepStartedAt 本遍扫描的开始时间
+     * @param createdAt 最后投递的交易的创建时间
+     * @param id 最后投递的交易ID
+     */
+    record Cursor(long sweepStartedAt, long createdAt, long id) {
+        static Cursor parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            final var parts = value.split(":");
+            if (parts.length != 3) {
+                return null;
+            }
+            return new Cursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        }
+
+        String format() {
+            return sweepStartedAt + ":" + createdAt + ":" + id;
+        }
+    }
+}
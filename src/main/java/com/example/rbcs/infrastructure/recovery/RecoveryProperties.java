@@ -0,0 +1,50 @@
+package com.example.rbcs.infrastructure.recovery;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.recovery")
+@Data
+public class RecoveryProperties {
+    /**
+     * 是否开启pending交易恢复，开启发件箱时也需要开启，兜底投递后在消费环节丢失的消息
+     */
+    private boolean enabled = true;
+    /**
+     * 两轮恢复之间的间隔
+     */
+    private long intervalMillis = 5_000;
+    /**
+     * 创建超过该时长仍处于pending的交易才需要恢复，需大于消息重新投递的最大延迟
+     */
+    private long minAgeMillis = 600_000;
+    /**
+     * 按交易ID划分的分段大小，各节点以分段为单位认领恢复工作
+     * 交易ID的低22位为节点号和序列号，默认 2^38 约对应65秒内生成的交易
+     */
+    private long segmentSize = 1L << 38;
+    /**
+     * 每轮最多认领的分段数
+     */
+    private int maxSegmentsPerCycle = 100;
+    /**
+     * 分段认领的租期，超时未释放视为节点崩溃
+     */
+    private long segmentLeaseMillis = 60_000;
+    /**
+     * 每次查询的交易数
+     */
+    private int batchSize = 500;
+    /**
+     * 每轮最多重新投递的交易数
+     */
+    private int maxPerCycle = 5_000;
+    /**
+     * 队列积压达到该值时暂停投递，积压未知时每轮按maxPerCycle投递
+     */
+    private long maxQueueDepth = 10_000;
+    /**
+     * 一个分段扫描完一遍后，经过该时长从头再扫描一遍，重新投递仍未执行的交易
+     */
+    private long rescanIntervalMillis = 3_600_000;
+}
@@ -0,0 +1,36 @@
+package com.example.rbcs.infrastructure.ringbuffer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.ring-buffer")
+@Data
+public class RingBufferProperties {
+    /**
+     * 环形缓冲区大小，必须是2的幂，启动时一次性分配
+     */
+    private int bufferSize = 65536;
+    /**
+     * 执行线程数，交易按ID固定分配给其中一个线程
+     */
+    private int workers = 4;
+    /**
+     * 执行线程没有消息时的等待策略
+     */
+    private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+    /**
+     * 执行线程一次取到的多条消息是否合并成一个批量执行请求，在一个数据库事务中执行
+     */
+    private boolean batchExecute = false;
+    /**
+     * 合并批量执行时每批的最大交易数
+     */
+    private int maxBatchSize = 100;
+
+    public enum WaitStrategy {
+        BLOCKING,   // 锁和条件变量，CPU占用最低，延迟最高
+        SLEEPING,   // 先自旋再让出CPU最后短暂休眠，折中
+        YIELDING,   // 自旋后Thread.yield，低延迟，空闲时占用CPU
+        BUSY_SPIN   // 忙等，最低延迟，每个执行线程独占一个CPU核
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.rbcs.infrastructure.ringbuffer;
+
+import com.example.rbcs.domain.event.TransactionBatchExecuteRequest;
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.ContentionRequeuer;
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内环形缓冲区传输，适用于单节点部署和压测
+ * 1. 交易执行消息写入启动时预分配的无锁环形缓冲区（LMAX Disruptor），发送方不经过网络
+ * 2. 固定数量的执行线程消费缓冲区，交易按ID分配给其中一个线程，执行线程一次取到的多条消息可以合并批量执行
+ * 3. 缓冲区写满时发送方等待，形成背压
+ * 消息只在内存中，开启发件箱时发件箱行在写入缓冲区后即被删除，缓冲区中的消息不再有持久化副本：
+ * 停机时先拒绝新消息（发件箱中继事务回滚，行保留），再等待缓冲区执行完；执行失败和停机时没执行完的交易保持pending，
+ * 计入 rbcs.ring-buffer.failed / rbcs.ring-buffer.dropped，由pending交易恢复任务（PendingTransactionRecovery）重新投递，
+ * 因此使用该传输时不能关闭恢复任务（见 application-ringbuffer.yml）
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.transport", havingValue = "ring-buffer")
+@Slf4j
+public class RingBufferTransactionTransport implements TransactionPublisher {
+    private static final EventTranslatorThreeArg<TransactionExecution, Long, String, Long> TRANSLATOR =
+            (event, sequence, transactionId, traceId, publishedAt) -> {
+                event.transactionId = transactionId;
+                event.traceId = traceId;
+                event.publishedAt = publishedAt;
+            };
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ContentionRequeuer contentionRequeuer;
+    private final RingBufferProperties properties;
+    private final Disruptor<TransactionExecution> disruptor;
+    private final RingBuffer<TransactionExecution> ringBuffer;
+    private final Timer latencyTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private volatile boolean stopped;
+
+    public RingBufferTransactionTransport(ApplicationEventPublisher eventPublisher, ContentionRequeuer contentionRequeuer,
+                                          RingBufferProperties properties, MeterRegistry meterRegistry) {
+        if (Integer.bitCount(properties.getBufferSize()) != 1) {
+            throw new IllegalArgumentException("ring buffer size must be a power of 2");
+        }
+        if (properties.getWorkers() <= 0) {
+            throw new IllegalArgumentException("ring buffer workers must be positive");
+        }
+        this.eventPublisher = eventPublisher;
+        this.contentionRequeuer = contentionRequeuer;
+        this.properties = properties;
+        this.latencyTimer = Timer.builder("rbcs.ring-buffer.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("rbcs.ring-buffer.batch.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.failedCounter = meterRegistry.counter("rbcs.ring-buffer.failed");
+        this.droppedCounter = meterRegistry.counter("rbcs.ring-buffer.dropped");
+
+        final var threads = new AtomicInteger();
+        this.disruptor = new Disruptor<>(TransactionExecution::new, properties.getBufferSize(), r -> {
+            final var thread = new Thread(r, "rbcs-ring-worker-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, ProducerType.MULTI, waitStrategyOf(properties.getWaitStrategy()));
+        final List<Worker> workers = new ArrayList<>(properties.getWorkers());
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.add(new Worker(i, properties.getWorkers()));
+        }
+        disruptor.handleEventsWith(workers.toArray(Worker[]::new));
+        disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+        this.ringBuffer = disruptor.start();
+        meterRegistry.gauge("rbcs.ring-buffer.depth", ringBuffer, buffer -> buffer.getBufferSize() - buffer.remainingCapacity());
+        log.info("ring buffer transport started, size: {}, workers: {}, wait strategy: {}",
+                properties.getBufferSize(), properties.getWorkers(), properties.getWaitStrategy());
+    }
+
+    @Override
+    public void publish(Long transactionId) {
+        ensureRunning();
+        var traceId = MDC.get("traceId");
+        if (!StringUtils.hasText(traceId)) {
+            traceId = UUID.randomUUID().toString().replaceAll("-", "");
+        }
+        ringBuffer.publishEvent(TRANSLATOR, transactionId, traceId, System.nanoTime());
+    }
+
+    @Override
+    public void publishBatch(List<OutgoingMessage> messages) {
+        ensureRunning();
+        for (OutgoingMessage message : messages) {
+            ringBuffer.publishEvent(TRANSLATOR, message.transactionId(), message.traceId(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public long backlog() {
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    /**
+     * 停机时拒绝新消息，等待缓冲区中的消息执行完成
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        try {
+            disruptor.shutdown(30, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            final var remaining = backlog();
+            droppedCounter.increment(remaining);
+            log.warn("ring buffer not drained on shutdown, about {} transactions stay pending until recovered", remaining);
+            disruptor.halt();
+        }
+    }
+
+    /**
+     * 停机后写入的消息没有执行线程消费，直接拒绝，由调用方保留（发件箱）或等待恢复任务
+     */
+    private void ensureRunning() {
+        if (stopped) {
+            throw new IllegalStateException("ring buffer transport is shut down");
+        }
+    }
+
+    private static WaitStrategy waitStrategyOf(RingBufferProperties.WaitStrategy strategy) {
+        return switch (strategy) {
+            case BLOCKING -> new BlockingWaitStrategy();
+            case SLEEPING -> new SleepingWaitStrategy();
+            case YIELDING -> new YieldingWaitStrategy();
+            case BUSY_SPIN -> new BusySpinWaitStrategy();
+        };
+    }
+
+    /**
+     * 缓冲区中的槽位，启动时预分配，发送时原地填充
+     */
+    static class TransactionExecution {
+        long transactionId;
+        String traceId;
+        long publishedAt;
+    }
+
+    /**
+     * 执行线程，只处理交易ID落在自己分片上的消息
+     */
+    private class Worker implements EventHandler<TransactionExecution> {
+        private final int ordinal;
+        private final int count;
+        private final List<Long> batch = new ArrayList<>();
+
+        Worker(int ordinal, int count) {
+            this.ordinal = ordinal;
+            this.count = count;
+        }
+
+        @Override
+        public void onEvent(TransactionExecution event, long sequence, boolean endOfBatch) {
+            if (Math.floorMod(event.transactionId, count) == ordinal) {
+                latencyTimer.record(System.nanoTime() - event.publishedAt, TimeUnit.NANOSECONDS);
+                if (properties.isBatchExecute()) {
+                    batch.add(event.transactionId);
+                } else {
+                    execute(event.transactionId, event.traceId);
+                }
+            }
+            if (!batch.isEmpty() && (endOfBatch || batch.size() >= properties.getMaxBatchSize())) {
+                executeBatch();
+            }
+        }
+
+        private void execute(long transactionId, String traceId) {
+            MDC.put("traceId", traceId);
+            MDC.put("transactionId", String.valueOf(transactionId));
+            try {
+                eventPublisher.publishEvent(new TransactionExecuteRequest(transactionId));
+            } catch (AccountLockContendedException e) {
+                contentionRequeuer.requeueLocally(transactionId, 1);
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("[{}]Transaction execution error, it stays pending until recovered", transactionId, e);
+            } finally {
+                MDC.clear();
+            }
+        }
+
+        private void executeBatch() {
+            batchSizeSummary.record(batch.size());
+            final var request = new TransactionBatchExecuteRequest(List.copyOf(batch));
+            batch.clear();
+            MDC.put("traceId", UUID.randomUUID().toString().replaceAll("-", ""));
+            try {
+                eventPublisher.publishEvent(request);
+            } catch (Exception e) {
+                log.error("failed to execute {} transactions in batch", request.transactionIds().size(), e);
+            } finally {
+                MDC.clear();
+            }
+            // 没有处理完成的交易（如锁竞争）稍后重新投递
+            for (Long transactionId : request.transactionIds()) {
+                if (!request.handledIds().contains(transactionId)) {
+                    contentionRequeuer.requeueLocally(transactionId, 1);
+                }
+            }
+        }
+    }
+
+    private class LoggingExceptionHandler implements ExceptionHandler<TransactionExecution> {
+        @Override
+        public void handleEventException(Throwable ex, long sequence, TransactionExecution event) {
+            failedCounter.increment();
+            log.error("[{}]ring buffer worker error, it stays pending until recovered", event.transactionId, ex);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            log.error("ring buffer worker failed to start", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            log.error("ring buffer worker failed to shutdown", ex);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.rbcs.infrastructure.sqs;
+
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步批量发送交易执行消息
+ * 发送方只把交易ID放进有界缓冲区后立即返回，由后台线程凑满10条（SendMessageBatch上限）或等待时间窗口结束后批量发送
+ * 缓冲区满或已经停机时退回同步发送，停机时等发送线程发完手上的批次，再发送缓冲区中剩余的消息，保证消息不丢
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.sqs.publisher.mode", havingValue = "buffered")
+@Slf4j
+public class BufferedSqsPublisher {
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    private final TransactionPublisher transactionPublisher;
+    private final BlockingQueue<TransactionPublisher.OutgoingMessage> buffer;
+    private final long lingerMillis;
+    private final int flushers;
+    private final Timer flushTimer;
+    private final Counter fallbackCounter;
+    private final Counter failedCounter;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public BufferedSqsPublisher(TransactionPublisher transactionPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${rbcs.sqs.publisher.buffer-capacity:10000}") int capacity,
+                                @Value("${rbcs.sqs.publisher.linger-millis:20}") long lingerMillis,
+                                @Value("${rbcs.sqs.publisher.flushers:2}") int flushers) {
+        this.transactionPublisher = transactionPublisher;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.lingerMillis = lingerMillis;
+        this.flushers = flushers;
+        meterRegistry.gauge("rbcs.sqs.publisher.buffer.depth", buffer, BlockingQueue::size);
+        this.flushTimer = Timer.builder("rbcs.sqs.publisher.flush.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.fallbackCounter = meterRegistry.counter("rbcs.sqs.publisher.fallback");
+        this.failedCounter = meterRegistry.counter("rbcs.sqs.publisher.failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < flushers; i++) {
+            final var thread = new Thread(this::flushLoop, "rbcs-sqs-flusher-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    public void publish(Long transactionId) {
+        var traceId = MDC.get("traceId");
+        if (!StringUtils.hasText(traceId)) {
+            traceId = UUID.randomUUID().toString().replaceAll("-", "");
+        }
+        if (!running || !buffer.offer(new TransactionPublisher.OutgoingMessage(transactionId, traceId))) {
+            fallbackCounter.increment();
+            log.warn("[{}]publish buffer is full or stopped, send synchronously", transactionId);
+            transactionPublisher.publish(transactionId);
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            final List<TransactionPublisher.OutgoingMessage> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            try {
+                final var first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                final var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    final var next = buffer.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 已经从缓冲区取出的消息不能丢，发送后再退出
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    /**
+     * 批量发送失败时逐条发送，某一条发送失败不影响其余消息，发送失败的交易由待处理交易恢复兜底
+     */
+    void flush(List<TransactionPublisher.OutgoingMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> transactionPublisher.publishBatch(batch));
+        } catch (Exception e) {
+            log.error("failed to flush {} transaction messages, send one by one", batch.size(), e);
+            final var traceId = MDC.get("traceId");
+            try {
+                for (TransactionPublisher.OutgoingMessage message : batch) {
+                    MDC.put("traceId", message.traceId());
+                    try {
+                        transactionPublisher.publish(message.transactionId());
+                    } catch (Exception ex) {
+                        failedCounter.increment();
+                        log.error("[{}]failed to send transaction message, left to pending recovery", message.transactionId(), ex);
+                    }
+                }
+            } finally {
+                if (traceId == null) {
+                    MDC.remove("traceId");
+                } else {
+                    MDC.put("traceId", traceId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 停机时先等发送线程发完手上已经取出的批次，再把缓冲区中剩余的消息同步发送出去
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(lingerMillis + SHUTDOWN_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (thread.isAlive()) {
+                log.warn("{} is still flushing on shutdown", thread.getName());
+            }
+        }
+        final List<TransactionPublisher.OutgoingMessage> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("flushing {} buffered transaction messages on shutdown", remaining.size());
+            for (int from = 0; from < remaining.size(); from += MAX_BATCH_SIZE) {
+                flush(remaining.subList(from, Math.min(from + MAX_BATCH_SIZE, remaining.size())));
+            }
+        }
+    }
+}
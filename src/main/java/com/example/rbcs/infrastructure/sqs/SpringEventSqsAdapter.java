@@ -1,20 +1,19 @@
 package com.example.rbcs.infrastructure.sqs;
 
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import com.example.rbcs.domain.event.TransactionBatchCreatedEvent;
 import com.example.rbcs.domain.event.TransactionCreatedEvent;
-import com.example.rbcs.domain.event.TransactionExecuteRequest;
-import io.awspring.cloud.sqs.annotation.SqsListener;
+import com.example.rbcs.infrastructure.outbox.Outbox;
 import io.awspring.cloud.sqs.operations.SqsTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import software.amazon.awssdk.services.sqs.model.Message;
-import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
 
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
@@ -22,27 +21,51 @@ import java.util.UUID;
 /**
  * 事件适配器，把 spring 事件转换成 SQS 事件，SQS 事件再转换成spring  event
  * 这个类的作用是领域层和基础设施层之间解耦，项目过程中可以按需切换消息队列
+ * 消费方向见 SqsTransactionListener（逐条消费）和 SqsBatchTransactionListener（批量消费）
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SpringEventSqsAdapter {
-    private final SqsPublisher sqsPublisher;
-    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionPublisher transactionPublisher;
+    private final ObjectProvider<BufferedSqsPublisher> bufferedSqsPublisher;
+    private final ObjectProvider<Outbox> outbox;
 
     @ConditionalOnProperty(name = "spring.cloud.aws.sqs.enabled", havingValue = "true", matchIfMissing = true)
     @EventListener
     public void handle(TransactionCreatedEvent event) {
-        sqsPublisher.publish(event.getAggregateRoot().getId());
+        if (outbox.getIfAvailable() != null) {
+            // 已写入发件箱，由OutboxRelay投递
+            return;
+        }
+        final var bufferedPublisher = bufferedSqsPublisher.getIfAvailable();
+        if (bufferedPublisher != null) {
+            bufferedPublisher.publish(event.getAggregateRoot().getId());
+        } else {
+            transactionPublisher.publish(event.getAggregateRoot().getId());
+        }
     }
 
-    @SqsListener("${events.queues.transaction-execution-queue}")
-    public void handle(Message message) {
-        var transactionId = message.body();
-        final var traceId = message.messageAttributes().getOrDefault("x-traceid", MessageAttributeValue.builder().stringValue(UUID.randomUUID().toString().replaceAll("-", "")).build()).stringValue();
-        MDC.put("traceId", traceId);
-        MDC.put("transactionId", transactionId);
-        log.info("receive transaction execution request");
-        eventPublisher.publishEvent(new TransactionExecuteRequest(Long.parseLong(transactionId)));
+    /**
+     * 批量创建的交易按批发送执行消息
+     */
+    @EventListener
+    public void handle(TransactionBatchCreatedEvent event) {
+        if (outbox.getIfAvailable() != null) {
+            return;
+        }
+        final var bufferedPublisher = bufferedSqsPublisher.getIfAvailable();
+        if (bufferedPublisher != null) {
+            event.getAggregateRoot().forEach(transaction -> bufferedPublisher.publish(transaction.getId()));
+            return;
+        }
+        var traceId = MDC.get("traceId");
+        if (!StringUtils.hasText(traceId)) {
+            traceId = UUID.randomUUID().toString().replaceAll("-", "");
+        }
+        final var finalTraceId = traceId;
+        transactionPublisher.publishBatch(event.getAggregateRoot().stream()
+                .map(transaction -> new TransactionPublisher.OutgoingMessage(transaction.getId(), finalTraceId))
+                .toList());
     }
 }
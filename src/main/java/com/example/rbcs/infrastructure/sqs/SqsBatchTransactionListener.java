@@ -0,0 +1,58 @@
+package com.example.rbcs.infrastructure.sqs;
+
+import com.example.rbcs.domain.event.TransactionBatchExecuteRequest;
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 批量消费交易执行消息
+ * 一次拉取多条消息合并成一个批量执行请求，执行完成后逐条确认，未处理完成的消息不确认，等待可见性超时后重新投递
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.sqs.consumer.mode", havingValue = "batch")
+@RequiredArgsConstructor
+@Slf4j
+public class SqsBatchTransactionListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @SqsListener(value = "${events.queues.transaction-execution-queue}",
+            maxMessagesPerPoll = "${rbcs.sqs.consumer.max-messages-per-poll:10}",
+            acknowledgementMode = "MANUAL")
+    public void handle(List<Message<Object>> messages, BatchAcknowledgement<Object> acknowledgement) {
+        final var traceId = UUID.randomUUID().toString().replaceAll("-", "");
+        MDC.put("traceId", traceId);
+        final List<Long> transactionIds = new ArrayList<>(messages.size());
+        for (Message<Object> message : messages) {
+            final var transactionId = transactionIdOf(message);
+            log.info("receive transaction execution request, transactionId: {}, upstream traceId: {}", transactionId, message.getHeaders().get("x-traceid"));
+            transactionIds.add(transactionId);
+        }
+
+        final var request = new TransactionBatchExecuteRequest(transactionIds);
+        try {
+            eventPublisher.publishEvent(request);
+        } finally {
+            final var handled = messages.stream()
+                    .filter(message -> request.handledIds().contains(transactionIdOf(message)))
+                    .toList();
+            acknowledgement.acknowledge(handled);
+            log.info("batch executed, received: {}, acknowledged: {}", messages.size(), handled.size());
+            MDC.clear();
+        }
+    }
+
+    private static long transactionIdOf(Message<Object> message) {
+        return Long.parseLong(String.valueOf(message.getPayload()).replace("\"", "").trim());
+    }
+}
@@ -1,21 +1,33 @@
 package com.example.rbcs.infrastructure.sqs;
 
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
 import io.awspring.cloud.sqs.operations.SqsTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import software.amazon.awssdk.core.pagination.sync.PaginatedResponsesIterator;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
 
+import java.util.List;
 import java.util.UUID;
 
 @Component
+@ConditionalOnProperty(name = "rbcs.transport", havingValue = "sqs", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
-public class SqsPublisher {
+public class SqsPublisher implements TransactionPublisher {
+    private static final int MAX_BATCH_SIZE = 10;
     private final SqsTemplate sqsTemplate;
     private final EventQueuesProperties eventQueuesProperties;
+    private final ObjectProvider<SqsAsyncClient> sqsAsyncClient;
+    private volatile String queueUrl;
+    @Override
     public void publish(Long transactionId) {
         var traceId = MDC.get("traceId");
         if (!StringUtils.hasText(traceId)) {
@@ -28,4 +40,64 @@ public class SqsPublisher {
                         .payload(transactionId));
         log.info("Sending transactionId: {} to queue {}, msgId: {}", transactionId, eventQueuesProperties.getTransactionExecutionQueue(), res.messageId());
     }
+
+    /**
+     * 批量发送，每次调用SendMessageBatch最多发送10条，每条消息携带各自的traceId
+     * 批量中发送失败的消息退回逐条发送
+     * @param messages 待发送的消息
+     */
+    @Override
+    public void publishBatch(List<OutgoingMessage> messages) {
+        final var queue = eventQueuesProperties.getTransactionExecutionQueue();
+        for (int from = 0; from < messages.size(); from += MAX_BATCH_SIZE) {
+            final var chunk = messages.subList(from, Math.min(from + MAX_BATCH_SIZE, messages.size())).stream()
+                    .map(message -> MessageBuilder.withPayload(message.transactionId())
+                            .setHeader("x-traceid", message.traceId())
+                            .build())
+                    .toList();
+            final var res = sqsTemplate.sendMany(queue, chunk);
+            log.info("Sending {} transactions to queue {}, succeeded: {}, failed: {}", chunk.size(), queue, res.successful().size(), res.failed().size());
+            final var traceId = MDC.get("traceId");
+            try {
+                for (var failed : res.failed()) {
+                    log.warn("[{}]batch send failed: {}, retry one by one", failed.message().getPayload(), failed.errorMessage());
+                    MDC.put("traceId", String.valueOf(failed.message().getHeaders().get("x-traceid")));
+                    try {
+                        publish(failed.message().getPayload());
+                    } catch (Exception e) {
+                        log.error("[{}]retry of failed batch entry failed, left to pending recovery", failed.message().getPayload(), e);
+                    }
+                }
+            } finally {
+                if (traceId == null) {
+                    MDC.remove("traceId");
+                } else {
+                    MDC.put("traceId", traceId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 队列的ApproximateNumberOfMessages，SQS不可用时返回-1
+     */
+    @Override
+    public long backlog() {
+        final var client = sqsAsyncClient.getIfAvailable();
+        if (client == null) {
+            return -1;
+        }
+        try {
+            if (queueUrl == null) {
+                final var queue = eventQueuesProperties.getTransactionExecutionQueue();
+                queueUrl = queue.startsWith("http") ? queue : client.getQueueUrl(request -> request.queueName(queue)).join().queueUrl();
+            }
+            final var attributes = client.getQueueAttributes(request -> request.queueUrl(queueUrl)
+                    .attributeNames(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES)).join().attributes();
+            return Long.parseLong(attributes.getOrDefault(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES, "-1"));
+        } catch (Exception e) {
+            log.warn("failed to get backlog of queue {}", eventQueuesProperties.getTransactionExecutionQueue(), e);
+            return -1;
+        }
+    }
 }
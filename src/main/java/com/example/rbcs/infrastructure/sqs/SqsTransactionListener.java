@@ -0,0 +1,88 @@
+package com.example.rbcs.infrastructure.sqs;
+
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.ContentionRequeuer;
+import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 逐条消费交易执行消息，把 SQS 消息转换成 spring event
+ * 账户锁竞争时（锁竞争策略为requeue）按接收次数把消息的可见性超时设置为退避延迟，消息不确认，到期后由SQS重新投递，消费线程立即释放
+ * 修改可见性超时最多等待 {@link #VISIBILITY_CHANGE_TIMEOUT_SECONDS} 秒，失败时记录指标，消息按队列默认的可见性超时重新投递
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.sqs.consumer.mode", havingValue = "single", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SqsTransactionListener {
+    /**
+     * SQS可见性超时的上限，12小时
+     */
+    private static final int MAX_VISIBILITY_SECONDS = 43_200;
+    static final long VISIBILITY_CHANGE_TIMEOUT_SECONDS = 5;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ContentionRequeuer contentionRequeuer;
+    private final MeterRegistry meterRegistry;
+
+    @SqsListener("${events.queues.transaction-execution-queue}")
+    public void handle(Message message, Visibility visibility) {
+        var transactionId = message.body();
+        final var traceId = message.messageAttributes().getOrDefault("x-traceid", MessageAttributeValue.builder().stringValue(UUID.randomUUID().toString().replaceAll("-", "")).build()).stringValue();
+        MDC.put("traceId", traceId);
+        MDC.put("transactionId", transactionId);
+        log.info("receive transaction execution request");
+        try {
+            eventPublisher.publishEvent(new TransactionExecuteRequest(Long.parseLong(transactionId)));
+        } catch (AccountLockContendedException e) {
+            final var attempt = receiveCountOf(message);
+            final var delayMillis = contentionRequeuer.nextDelayMillis("sqs", attempt);
+            final var seconds = (int) Math.min(MAX_VISIBILITY_SECONDS, Math.max(1, (delayMillis + 999) / 1000));
+            log.info("accounts are contended, redeliver after {}s, attempt {}", seconds, attempt);
+            changeVisibility(visibility, seconds);
+            // 抛出异常，消息不被确认
+            throw e;
+        }
+    }
+
+    private void changeVisibility(Visibility visibility, int seconds) {
+        try {
+            visibility.changeTo(seconds).get(VISIBILITY_CHANGE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onVisibilityChangeFailed(seconds, e);
+        } catch (ExecutionException | TimeoutException e) {
+            onVisibilityChangeFailed(seconds, e);
+        }
+    }
+
+    private void onVisibilityChangeFailed(int seconds, Exception e) {
+        meterRegistry.counter("rbcs.sqs.visibility.change.failed").increment();
+        log.warn("failed to change message visibility to {}s, redeliver after the queue's default visibility timeout", seconds, e);
+    }
+
+    private static int receiveCountOf(Message message) {
+        final var count = message.attributes().get(MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT);
+        try {
+            return count == null ? 1 : Integer.parseInt(count);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
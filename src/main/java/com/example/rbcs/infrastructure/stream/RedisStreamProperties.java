@@ -0,0 +1,53 @@
+package com.example.rbcs.infrastructure.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rbcs.redis-stream")
+@Data
+public class RedisStreamProperties {
+    /**
+     * 交易执行消息的stream
+     */
+    private String key = "rbcs:stream:transaction-execution";
+    /**
+     * 消费组，所有节点共用一个消费组，每条消息只被一个节点消费
+     */
+    private String group = "rbcs";
+    /**
+     * 消费者名称，为空时使用环境变量HOSTNAME（k8s下即pod名称）
+     */
+    private String consumerName;
+    /**
+     * 消费线程数
+     */
+    private int consumers = 2;
+    /**
+     * 每次XREADGROUP最多读取的消息数
+     */
+    private int batchSize = 10;
+    /**
+     * XREADGROUP没有消息时的阻塞时间
+     */
+    private long blockMillis = 1000;
+    /**
+     * 批量读取的消息是否合并成一个批量执行请求，在一个数据库事务中执行
+     */
+    private boolean batchExecute = false;
+    /**
+     * 消息被读取后超过该时长仍未确认，视为消费者已崩溃或执行失败，由其他消费者认领重新执行
+     */
+    private long claimIdleMillis = 30_000;
+    /**
+     * 检查待认领消息的间隔
+     */
+    private long claimIntervalMillis = 5_000;
+    /**
+     * 消息的最大投递次数，超过后转入死信stream不再执行
+     */
+    private int maxDeliveries = 10;
+    /**
+     * 死信stream
+     */
+    private String deadLetterKey = "rbcs:stream:transaction-execution:dead";
+}
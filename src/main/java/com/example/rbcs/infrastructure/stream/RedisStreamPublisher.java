@@ -0,0 +1,74 @@
+package com.example.rbcs.infrastructure.stream;
+
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 基于redis stream发送交易执行消息
+ * 批量发送通过redisson的批量命令在一次往返中完成XADD
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.transport", havingValue = "redis-stream")
+@Slf4j
+public class RedisStreamPublisher implements TransactionPublisher {
+    static final String FIELD_TRANSACTION_ID = "transactionId";
+    static final String FIELD_TRACE_ID = "traceId";
+
+    private final RedissonClient redissonClient;
+    private final RedisStreamProperties properties;
+    private final RStream<String, String> stream;
+
+    public RedisStreamPublisher(RedissonClient redissonClient, RedisStreamProperties properties) {
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.stream = redissonClient.getStream(properties.getKey(), StringCodec.INSTANCE);
+    }
+
+    @Override
+    public void publish(Long transactionId) {
+        var traceId = MDC.get("traceId");
+        if (!StringUtils.hasText(traceId)) {
+            traceId = UUID.randomUUID().toString().replaceAll("-", "");
+        }
+        final var id = stream.add(StreamAddArgs.entries(entries(transactionId, traceId)));
+        log.info("Sending transactionId: {} to stream {}, msgId: {}", transactionId, properties.getKey(), id);
+    }
+
+    @Override
+    public void publishBatch(List<OutgoingMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        final var batch = redissonClient.createBatch();
+        final var batchStream = batch.<String, String>getStream(properties.getKey(), StringCodec.INSTANCE);
+        for (OutgoingMessage message : messages) {
+            batchStream.addAsync(StreamAddArgs.entries(entries(message.transactionId(), message.traceId())));
+        }
+        batch.execute();
+        log.info("Sending {} transactions to stream {}", messages.size(), properties.getKey());
+    }
+
+    /**
+     * stream中未确认的消息数，已确认的消息会被删除
+     */
+    @Override
+    public long backlog() {
+        return stream.size();
+    }
+
+    private static Map<String, String> entries(Long transactionId, String traceId) {
+        return Map.of(FIELD_TRANSACTION_ID, String.valueOf(transactionId), FIELD_TRACE_ID, traceId);
+    }
+}
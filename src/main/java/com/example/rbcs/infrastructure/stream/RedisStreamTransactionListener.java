@@ -0,0 +1,293 @@
+package com.example.rbcs.infrastructure.stream;
+
+import com.example.rbcs.domain.event.TransactionBatchExecuteRequest;
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.api.stream.StreamCreateGroupArgs;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于redis stream消费交易执行消息
+ * 1. 所有节点共用一个消费组，每个消费线程用XREADGROUP一次读取一批消息，执行完成后确认并删除
+ * 2. 执行失败或锁竞争的消息不确认，留在待处理列表（PEL）中，超过认领时间后由任意节点认领重新执行，相当于SQS的可见性超时
+ * 3. 消费者崩溃时，它读取但未确认的消息同样由其他节点认领
+ * 4. 投递次数超过上限的消息转入死信stream
+ * 5. 认领到的消息交给认领执行线程执行，上一批还没执行完时跳过本轮认领
+ */
+@Component
+@ConditionalOnProperty(name = "rbcs.transport", havingValue = "redis-stream")
+@Slf4j
+public class RedisStreamTransactionListener {
+    private final ApplicationEventPublisher eventPublisher;
+    private final RedisStreamProperties properties;
+    private final RStream<String, String> stream;
+    private final RStream<String, String> deadLetters;
+    private final String consumerName;
+    private final List<Thread> consumers = new ArrayList<>();
+    private final ExecutorService reclaimWorker;
+    private final AtomicBoolean reclaiming = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final Timer latencyTimer;
+    private final Counter consumedCounter;
+    private final Counter claimedCounter;
+    private final Counter contendedCounter;
+    private final Counter deadCounter;
+
+    public RedisStreamTransactionListener(ApplicationEventPublisher eventPublisher, RedissonClient redissonClient,
+                                          RedisStreamProperties properties, MeterRegistry meterRegistry) {
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.stream = redissonClient.getStream(properties.getKey(), StringCodec.INSTANCE);
+        this.deadLetters = redissonClient.getStream(properties.getDeadLetterKey(), StringCodec.INSTANCE);
+        this.consumerName = resolveConsumerName(properties);
+        this.reclaimWorker = Executors.newSingleThreadExecutor(r -> {
+            final var thread = new Thread(r, "rbcs-stream-reclaimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.latencyTimer = Timer.builder("rbcs.redis.stream.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.consumedCounter = meterRegistry.counter("rbcs.redis.stream.consumed");
+        this.claimedCounter = meterRegistry.counter("rbcs.redis.stream.claimed");
+        this.contendedCounter = meterRegistry.counter("rbcs.redis.stream.contended");
+        this.deadCounter = meterRegistry.counter("rbcs.redis.stream.dead");
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            stream.createGroup(StreamCreateGroupArgs.name(properties.getGroup()).id(StreamMessageId.ALL).makeStream());
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        for (int i = 0; i < properties.getConsumers(); i++) {
+            final var thread = new Thread(this::consume, "rbcs-stream-consumer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            consumers.add(thread);
+        }
+        log.info("[consumer:{}]start consuming stream {}, group {}", consumerName, properties.getKey(), properties.getGroup());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        consumers.forEach(Thread::interrupt);
+        reclaimWorker.shutdownNow();
+    }
+
+    private void consume() {
+        final var args = StreamReadGroupArgs.neverDelivered()
+                .count(properties.getBatchSize())
+                .timeout(Duration.ofMillis(properties.getBlockMillis()));
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                final var messages = stream.readGroup(properties.getGroup(), consumerName, args);
+                if (messages != null && !messages.isEmpty()) {
+                    handle(messages);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("failed to consume stream {}", properties.getKey(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * 认领空闲超时的待处理消息，投递次数超过上限的转入死信
+     */
+    @Scheduled(fixedDelayString = "${rbcs.redis-stream.claim-interval-millis:5000}")
+    public void reclaim() {
+        if (!running || !reclaiming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final var claimed = claimIdle();
+            if (claimed.isEmpty()) {
+                reclaiming.set(false);
+                return;
+            }
+            reclaimWorker.execute(() -> {
+                try {
+                    handle(claimed);
+                } catch (Exception e) {
+                    log.error("failed to execute {} claimed messages", claimed.size(), e);
+                } finally {
+                    reclaiming.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            reclaiming.set(false);
+            throw e;
+        }
+    }
+
+    private Map<StreamMessageId, Map<String, String>> claimIdle() {
+        final List<PendingEntry> pending = stream.listPending(properties.getGroup(), StreamMessageId.MIN, StreamMessageId.MAX,
+                properties.getClaimIdleMillis(), TimeUnit.MILLISECONDS, properties.getBatchSize() * Math.max(1, properties.getConsumers()));
+        if (pending.isEmpty()) {
+            return Map.of();
+        }
+        final List<StreamMessageId> claimable = new ArrayList<>();
+        for (PendingEntry entry : pending) {
+            if (entry.getLastTimeDelivered() >= properties.getMaxDeliveries()) {
+                deadLetter(entry);
+            } else {
+                claimable.add(entry.getId());
+            }
+        }
+        if (claimable.isEmpty()) {
+            return Map.of();
+        }
+        final var claimed = stream.claim(properties.getGroup(), consumerName, properties.getClaimIdleMillis(), TimeUnit.MILLISECONDS,
+                claimable.toArray(StreamMessageId[]::new));
+        if (!claimed.isEmpty()) {
+            claimedCounter.increment(claimed.size());
+            log.info("[consumer:{}]claimed {} idle messages", consumerName, claimed.size());
+        }
+        return claimed;
+    }
+
+    private void handle(Map<StreamMessageId, Map<String, String>> messages) {
+        final var now = System.currentTimeMillis();
+        final Map<Long, StreamMessageId> idsByTransaction = new HashMap<>();
+        for (var message : messages.entrySet()) {
+            latencyTimer.record(Math.max(0, now - message.getKey().getId0()), TimeUnit.MILLISECONDS);
+            final var transactionId = message.getValue().get(RedisStreamPublisher.FIELD_TRANSACTION_ID);
+            if (transactionId == null) {
+                // 消息已被删除
+                acknowledge(List.of(message.getKey()));
+                continue;
+            }
+            if (idsByTransaction.putIfAbsent(Long.parseLong(transactionId), message.getKey()) != null) {
+                // 同一交易的重复消息，只执行一次
+                acknowledge(List.of(message.getKey()));
+            }
+        }
+        consumedCounter.increment(messages.size());
+        if (properties.isBatchExecute()) {
+            executeBatch(idsByTransaction);
+        } else {
+            executeOneByOne(messages, idsByTransaction);
+        }
+    }
+
+    private void executeOneByOne(Map<StreamMessageId, Map<String, String>> messages, Map<Long, StreamMessageId> idsByTransaction) {
+        final List<StreamMessageId> handled = new ArrayList<>(idsByTransaction.size());
+        for (var entry : idsByTransaction.entrySet()) {
+            final var traceId = messages.get(entry.getValue()).get(RedisStreamPublisher.FIELD_TRACE_ID);
+            MDC.put("traceId", StringUtils.hasText(traceId) ? traceId : UUID.randomUUID().toString().replaceAll("-", ""));
+            MDC.put("transactionId", String.valueOf(entry.getKey()));
+            try {
+                log.info("receive transaction execution request");
+                eventPublisher.publishEvent(new TransactionExecuteRequest(entry.getKey()));
+                handled.add(entry.getValue());
+            } catch (AccountLockContendedException e) {
+                contendedCounter.increment();
+                log.info("accounts are contended, message will be claimed after {}ms", properties.getClaimIdleMillis());
+            } catch (Exception e) {
+                log.error("failed to execute transaction, message will be claimed after {}ms", properties.getClaimIdleMillis(), e);
+            } finally {
+                MDC.clear();
+            }
+        }
+        acknowledge(handled);
+    }
+
+    private void executeBatch(Map<Long, StreamMessageId> idsByTransaction) {
+        if (idsByTransaction.isEmpty()) {
+            return;
+        }
+        MDC.put("traceId", UUID.randomUUID().toString().replaceAll("-", ""));
+        final var request = new TransactionBatchExecuteRequest(new ArrayList<>(idsByTransaction.keySet()));
+        try {
+            eventPublisher.publishEvent(request);
+        } catch (Exception e) {
+            log.error("failed to execute {} transactions in batch", idsByTransaction.size(), e);
+        } finally {
+            acknowledge(request.handledIds().stream().map(idsByTransaction::get).toList());
+            log.info("batch executed, received: {}, acknowledged: {}", idsByTransaction.size(), request.handledIds().size());
+            MDC.clear();
+        }
+    }
+
+    /**
+     * 确认并删除消息，stream只作为队列使用，不保留已处理的消息
+     */
+    private void acknowledge(List<StreamMessageId> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        final var array = ids.toArray(StreamMessageId[]::new);
+        stream.ack(properties.getGroup(), array);
+        stream.remove(array);
+    }
+
+    private void deadLetter(PendingEntry entry) {
+        final var message = stream.range(entry.getId(), entry.getId()).get(entry.getId());
+        if (message != null) {
+            final Map<String, String> fields = new HashMap<>(message);
+            fields.put("deliveries", String.valueOf(entry.getLastTimeDelivered()));
+            deadLetters.add(StreamAddArgs.entries(fields));
+        }
+        acknowledge(List.of(entry.getId()));
+        deadCounter.increment();
+        log.error("message {} delivered {} times, moved to dead letter stream {}", entry.getId(), entry.getLastTimeDelivered(), properties.getDeadLetterKey());
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(properties.getBlockMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String resolveConsumerName(RedisStreamProperties properties) {
+        if (StringUtils.hasText(properties.getConsumerName())) {
+            return properties.getConsumerName();
+        }
+        final var hostname = System.getenv("HOSTNAME");
+        if (StringUtils.hasText(hostname)) {
+            return hostname;
+        }
+        return UUID.randomUUID().toString().replaceAll("-", "");
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.rbcs.infrastructure.transport;
+
+import java.util.List;
+
+/**
+ * 交易执行消息的发送方
+ * 实现由 rbcs.transport 选择：sqs（SqsPublisher）或 redis-stream（RedisStreamPublisher）
+ */
+public interface TransactionPublisher {
+    /**
+     * 发送一条交易执行消息，traceId取自当前日志上下文
+     * @param transactionId 交易ID
+     */
+    void publish(Long transactionId);
+
+    /**
+     * 批量发送交易执行消息，每条消息携带各自的traceId
+     * @param messages 待发送的消息
+     */
+    void publishBatch(List<OutgoingMessage> messages);
+
+    /**
+     * 队列中等待消费的消息数，用于发送方限流
+     * @return 积压的消息数，无法获取时返回-1
+     */
+    default long backlog() {
+        return -1;
+    }
+
+    /**
+     * 待发送的交易执行消息
+     */
+    record OutgoingMessage(Long transactionId, String traceId) {
+    }
+}
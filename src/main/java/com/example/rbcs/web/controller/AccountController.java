@@ -1,17 +1,30 @@
 package com.example.rbcs.web.controller;
 
+import com.example.rbcs.applications.TransactionQueryService;
+import com.example.rbcs.domain.entity.Account;
 import com.example.rbcs.domain.exception.AccountNotFoundException;
 import com.example.rbcs.domain.repository.AccountRepository;
 import com.example.rbcs.domain.service.AccountService;
 import com.example.rbcs.web.controller.form.AccountForm;
 import com.example.rbcs.web.controller.mapper.AccountMapper;
+import com.example.rbcs.web.controller.mapper.TransactionMapper;
+import com.example.rbcs.web.controller.response.AccountImportResponse;
 import com.example.rbcs.web.controller.response.AccountResponse;
+import com.example.rbcs.web.controller.response.TransactionHistoryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
 /**
  * 账户管理
  */
@@ -19,10 +32,15 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/accounts")
 public class AccountController {
+    static final String CSV = "text/csv";
+    static final String NDJSON = "application/x-ndjson";
 
     private final AccountService accountService;
     private final AccountMapper accountMapper;
     private final AccountRepository accountRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionQueryService transactionQueryService;
+    private final TransactionMapper transactionMapper;
 
     /**
      * 创建账户
@@ -35,6 +53,27 @@ public class AccountController {
         return accountMapper.toResponse(accountService.createAccount(accountForm.getAccountNo()));
     }
 
+    /**
+     * 批量导入账户
+     * 请求体为CSV（每行一个账户号，可带 accountNo 表头）或NDJSON（每行 {"accountNo": "..."}），边读边按块插入，内存占用与文件大小无关
+     * @param activate 是否同时激活
+     * @return AccountImportResponse
+     */
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON})
+    public AccountImportResponse importAccounts(@RequestParam(value = "activate", defaultValue = "false") boolean activate,
+                                                HttpServletRequest request) throws IOException {
+        final var ndjson = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(NDJSON));
+        final var reader = new AccountNumberReader(
+                new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)), ndjson, objectMapper);
+        final var result = accountService.importAccounts(reader, activate);
+        final var response = new AccountImportResponse();
+        response.setTotal(result.created() + result.duplicated());
+        response.setCreated(result.created());
+        response.setDuplicated(result.duplicated());
+        response.setInvalid(reader.getInvalid());
+        return response;
+    }
+
     /**
      * 获取账户详情
      * @param id 账户ID
@@ -42,7 +81,7 @@ public class AccountController {
      */
     @GetMapping("/{id}")
     public AccountResponse getAccount(@PathVariable Long id) {
-        return accountMapper.toResponse(accountRepository.findById(id).orElseThrow(AccountNotFoundException::new));
+        return toResponse(accountRepository.findById(id).orElseThrow(AccountNotFoundException::new));
     }
 
     /**
@@ -52,7 +91,39 @@ public class AccountController {
      */
     @GetMapping()
     public AccountResponse getAccount(@Valid @NotBlank(message = "accountNo must not blank") @RequestParam("accountNo") String accountNo) {
-        return accountMapper.toResponse(accountRepository.findByAccountNumber(accountNo).orElseThrow(AccountNotFoundException::new));
+        return toResponse(accountRepository.findByAccountNumber(accountNo).orElseThrow(AccountNotFoundException::new));
+    }
+
+    /**
+     * 账户的交易历史，按创建时间倒序，游标分页
+     * @param id 账户ID
+     * @param cursor 上一页返回的 nextCursor，第一页不传
+     * @param limit 每页条数，最大200
+     * @return TransactionHistoryResponse
+     */
+    @GetMapping("/{id}/transactions")
+    public TransactionHistoryResponse getTransactionHistory(@PathVariable Long id,
+                                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                                            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        final var page = transactionQueryService.getAccountHistory(id, cursor, limit);
+        final var response = new TransactionHistoryResponse();
+        response.setItems(page.rows().stream().map(transactionMapper::toHistoryItem).toList());
+        response.setNextCursor(page.nextCursor());
+        return response;
+    }
+
+    /**
+     * 账户最近的交易，从redis读取，不访问数据库
+     * @param id 账户ID
+     * @param limit 条数，最大为 rbcs.activity.capacity
+     * @return TransactionHistoryResponse
+     */
+    @GetMapping("/{id}/transactions/recent")
+    public TransactionHistoryResponse getRecentActivity(@PathVariable Long id,
+                                                        @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        final var response = new TransactionHistoryResponse();
+        response.setItems(transactionQueryService.getRecentActivity(id, limit).stream().map(transactionMapper::toHistoryItem).toList());
+        return response;
     }
 
     /**
@@ -82,4 +153,34 @@ public class AccountController {
     public void unfreezeAccount(@PathVariable Long id) {
         accountService.defreezeAccount(id);
     }
+
+    /**
+     * 开启余额分片，用于热点账户
+     * @param id 账户ID
+     * @param count 分片数
+     */
+    @PutMapping("/{id}/shards")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void shardAccount(@PathVariable Long id, @RequestParam("count") int count) {
+        accountService.shardAccount(id, count);
+    }
+
+    /**
+     * 取消余额分片
+     * @param id 账户ID
+     */
+    @DeleteMapping("/{id}/shards")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void unshardAccount(@PathVariable Long id) {
+        accountService.unshardAccount(id);
+    }
+
+    /**
+     * 分片账户的余额为所有分片余额之和
+     */
+    private AccountResponse toResponse(Account account) {
+        final var response = accountMapper.toResponse(account);
+        response.setBalance(accountService.getBalance(account));
+        return response;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.example.rbcs.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 从导入内容中逐行读取账户号，只缓冲当前一行
+ * CSV取每行第一列，首行为 accountNo 表头时跳过；NDJSON每行一个对象，取字符串类型的 accountNo 字段，null、数字、布尔值都不合法
+ * 空行跳过，无法解析或账户号不合法的行计为invalid
+ */
+@Slf4j
+class AccountNumberReader implements Iterator<String> {
+    private static final int MAX_ACCOUNT_NUMBER_LENGTH = 255;
+    private static final String HEADER = "accountNo";
+
+    private final BufferedReader reader;
+    private final boolean ndjson;
+    private final ObjectMapper objectMapper;
+    @Getter
+    private long lines;
+    @Getter
+    private long invalid;
+    private String next;
+
+    AccountNumberReader(BufferedReader reader, boolean ndjson, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.ndjson = ndjson;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final var value = next;
+        next = null;
+        return value;
+    }
+
+    private String readNext() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                final var accountNumber = parse(line);
+                if (accountNumber == null) {
+                    continue;
+                }
+                if (accountNumber.isEmpty() || accountNumber.length() > MAX_ACCOUNT_NUMBER_LENGTH) {
+                    invalid++;
+                    log.warn("invalid account number at line {}", lines);
+                    continue;
+                }
+                return accountNumber;
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 账户号，表头行返回null
+     */
+    private String parse(String line) {
+        if (ndjson) {
+            try {
+                final var node = objectMapper.readTree(line).get(HEADER);
+                return node == null || !node.isTextual() ? "" : node.textValue().trim();
+            } catch (IOException e) {
+                return "";
+            }
+        }
+        final var comma = line.indexOf(',');
+        var value = (comma >= 0 ? line.substring(0, comma) : line).trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        if (lines == 1 && HEADER.equalsIgnoreCase(value)) {
+            return null;
+        }
+        return value;
+    }
+}
@@ -1,18 +1,42 @@
 package com.example.rbcs.web.controller;
 
 import com.example.rbcs.applications.TransactionApplicationService;
+import com.example.rbcs.applications.TransactionBatchItem;
+import com.example.rbcs.applications.TransactionBatchResult;
+import com.example.rbcs.applications.TransactionQueryService;
+import com.example.rbcs.domain.entity.Transaction;
 import com.example.rbcs.domain.exception.TransactionNotFoundException;
 import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.repository.TransactionSearchCriteria;
+import com.example.rbcs.infrastructure.archive.ArchivedTransactionRepository;
+import com.example.rbcs.infrastructure.export.ExportFormat;
+import com.example.rbcs.infrastructure.export.TransactionExporter;
+import com.example.rbcs.infrastructure.idempotency.IdempotencyService;
+import com.example.rbcs.web.controller.form.TransactionBatchForm;
 import com.example.rbcs.web.controller.form.TransactionForm;
 import com.example.rbcs.web.controller.mapper.TransactionMapper;
+import com.example.rbcs.web.controller.response.TransactionBatchItemResponse;
 import com.example.rbcs.web.controller.response.TransactionResponse;
+import com.example.rbcs.web.controller.response.TransactionSearchResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.util.StringUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.Date;
 import java.util.Objects;
 
 @RestController
@@ -20,41 +44,189 @@ import java.util.Objects;
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionController {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String NDJSON = "application/x-ndjson";
 
     private final TransactionApplicationService transactionService;
     private final TransactionMapper transactionMapper;
     private final TransactionRepository transactionRepository;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final TransactionExporter transactionExporter;
+    private final TransactionQueryService transactionQueryService;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
 
     /**
      * 创建交易
+     * 携带 Idempotency-Key 时同一个键只创建一笔交易，重复请求返回原交易并带上 Idempotent-Replayed 响应头
+     * @param idempotencyKey 客户端幂等键，可选
      * @param transactionForm 交易参数
      * @return TransactionResponse
      */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public TransactionResponse createTransaction(@Valid @RequestBody TransactionForm transactionForm) {
+    public ResponseEntity<TransactionResponse> createTransaction(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                 @Valid @RequestBody TransactionForm transactionForm) {
         log.info("Creating transaction: {}", transactionForm);
-        return switch (transactionForm.getType()) {
-            case WITHDRAWAL -> transactionMapper.toResponse(
-                    transactionService.createWithdrawTransaction(transactionForm.getSourceAccountId(), transactionForm.getAmount()));
-            case DEPOSIT -> transactionMapper.toResponse(
-                    transactionService.createDepositTransaction(transactionForm.getSourceAccountId(), transactionForm.getAmount()));
-            case TRANSFER -> {
-                if (transactionForm.getDestinationAccountId() == null) {
-                    throw new IllegalArgumentException("Destination account id is required for transfer");
-                }
-                if (Objects.equals(transactionForm.getSourceAccountId(), transactionForm.getDestinationAccountId())) {
-                    throw new IllegalArgumentException("Source and destination account id cannot be the same");
-                }
-                yield transactionMapper.toResponse(
-                        transactionService.createTransferTransaction(transactionForm.getSourceAccountId(), transactionForm.getDestinationAccountId(), transactionForm.getAmount()));
+        validate(transactionForm);
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(transactionMapper.toResponse(create(transactionForm)));
+        }
+        final var outcome = idempotencyService.createOnce(idempotencyKey, fingerprint(transactionForm), () -> create(transactionForm));
+        final var transaction = transactionRepository.findById(outcome.transactionId()).orElseThrow(TransactionNotFoundException::new);
+        final var response = ResponseEntity.status(HttpStatus.CREATED);
+        if (outcome.replayed()) {
+            log.info("Replaying transaction {} for idempotency key {}", outcome.transactionId(), idempotencyKey);
+            response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return response.body(transactionMapper.toResponse(transaction));
+    }
+
+    /**
+     * 批量创建交易
+     * 以NDJSON逐行返回每笔交易的结果，每处理完一块就写出，大批量时客户端不必等待全部完成
+     * @param transactionBatchForm 交易列表
+     * @return 每行一个 TransactionBatchItemResponse
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> createTransactions(@Valid @RequestBody TransactionBatchForm transactionBatchForm) {
+        log.info("Creating {} transactions in batch", transactionBatchForm.getItems().size());
+        final var items = transactionBatchForm.getItems().stream()
+                .map(form -> new TransactionBatchItem(form.getType(), form.getSourceAccountId(), form.getDestinationAccountId(), form.getAmount()))
+                .toList();
+        // 全局配置了缩进输出，NDJSON每条结果必须在一行内
+        final var writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        final var context = MDC.getCopyOfContextMap();
+        final StreamingResponseBody body = out -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                transactionService.createTransactions(items, results -> {
+                    try {
+                        for (TransactionBatchResult result : results) {
+                            out.write(writer.writeValueAsBytes(toResponse(result)));
+                            out.write('\n');
+                        }
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                MDC.clear();
             }
         };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private TransactionBatchItemResponse toResponse(TransactionBatchResult result) {
+        final var response = new TransactionBatchItemResponse();
+        response.setIndex(result.index());
+        if (result.transaction() != null) {
+            response.setTransaction(transactionMapper.toResponse(result.transaction()));
+        }
+        response.setException(result.exception());
+        response.setMessage(result.message());
+        return response;
     }
 
+    private static void validate(TransactionForm transactionForm) {
+        if (transactionForm.getType() == Transaction.Type.TRANSFER) {
+            if (transactionForm.getDestinationAccountId() == null) {
+                throw new IllegalArgumentException("Destination account id is required for transfer");
+            }
+            if (Objects.equals(transactionForm.getSourceAccountId(), transactionForm.getDestinationAccountId())) {
+                throw new IllegalArgumentException("Source and destination account id cannot be the same");
+            }
+        }
+    }
+
+    private Transaction create(TransactionForm transactionForm) {
+        return switch (transactionForm.getType()) {
+            case WITHDRAWAL -> transactionService.createWithdrawTransaction(transactionForm.getSourceAccountId(), transactionForm.getAmount());
+            case DEPOSIT -> transactionService.createDepositTransaction(transactionForm.getSourceAccountId(), transactionForm.getAmount());
+            case TRANSFER -> transactionService.createTransferTransaction(transactionForm.getSourceAccountId(), transactionForm.getDestinationAccountId(), transactionForm.getAmount());
+        };
+    }
+
+    private static String fingerprint(TransactionForm transactionForm) {
+        return transactionForm.getType() + ":" + transactionForm.getSourceAccountId() + ":"
+                + transactionForm.getDestinationAccountId() + ":" + transactionForm.getAmount();
+    }
+
+    /**
+     * 导出时间范围内创建的交易
+     * 直接写入响应流，不受异步请求超时限制；千万级的导出建议使用命令行导出，见 TransactionExportRunner
+     * @param from 起始时间（包含），ISO-8601格式
+     * @param to 结束时间（不包含），ISO-8601格式
+     * @param format NDJSON 或 CSV
+     * @param gzip 是否以gzip压缩文件返回
+     */
+    @GetMapping("/export")
+    public void exportTransactions(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                   @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                   @RequestParam(defaultValue = "false") boolean gzip,
+                                   HttpServletResponse response) throws IOException {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Export start time must be before end time");
+        }
+        log.info("Exporting transactions created in [{}, {}) as {}", from, to, format);
+        var filename = "transactions-" + from.toInstant().toEpochMilli() + "-" + to.toInstant().toEpochMilli() + "." + format.getExtension();
+        if (gzip) {
+            filename += ".gz";
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(format.getContentType() + ";charset=UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        transactionExporter.export(Date.from(from.toInstant()), Date.from(to.toInstant()), format, gzip, response.getOutputStream());
+    }
+
+    /**
+     * 多条件搜索交易，按创建时间倒序
+     * 第一页返回交易总数，超过 rbcs.transaction.search.exact-count-limit 时为估算值
+     * @param accountId 账户ID，匹配作为主体或作为收款方的交易
+     * @param from 创建时间起点（包含），ISO-8601格式；没有账户和状态条件、按类型或金额过滤时必填
+     * @param to 创建时间终点（不包含），ISO-8601格式
+     * @param cursor 上一页返回的游标，第一页不传
+     * @param limit 每页条数，最大200
+     * @return TransactionSearchResponse
+     */
+    @GetMapping("/search")
+    public TransactionSearchResponse searchTransactions(@RequestParam(required = false) Transaction.Status status,
+                                                        @RequestParam(required = false) Transaction.Type type,
+                                                        @RequestParam(required = false) Long accountId,
+                                                        @RequestParam(required = false) Long minAmount,
+                                                        @RequestParam(required = false) Long maxAmount,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        final var criteria = new TransactionSearchCriteria(status, type, accountId, minAmount, maxAmount,
+                from == null ? null : Date.from(from.toInstant()), to == null ? null : Date.from(to.toInstant()));
+        final var page = transactionQueryService.search(criteria, cursor, limit);
+        final var response = new TransactionSearchResponse();
+        response.setItems(page.rows().stream().map(transactionMapper::toHistoryItem).toList());
+        response.setNextCursor(page.nextCursor());
+        if (page.count() != null) {
+            response.setTotal(page.count().value());
+            response.setTotalExact(page.count().exact());
+        }
+        return response;
+    }
+
+    /**
+     * 查询交易，交易表中不存在时查询归档表
+     * @param id 交易ID
+     * @return TransactionResponse
+     */
     @GetMapping("/{id}")
     public TransactionResponse getTransaction(@PathVariable Long id) {
-        final var t = transactionRepository.findById(id).orElseThrow(TransactionNotFoundException::new);
-        return transactionMapper.toResponse(t);
+        return transactionRepository.findById(id)
+                .map(transactionMapper::toResponse)
+                .or(() -> archivedTransactionRepository.findById(id).map(transactionMapper::toResponse))
+                .orElseThrow(TransactionNotFoundException::new);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.rbcs.web.controller.form;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TransactionBatchForm {
+    public static final int MAX_ITEMS = 50000;
+    /**
+     * 待创建的交易，每笔的字段格式在请求时校验，任意一笔不合法整个请求返回400；
+     * 账户不存在等业务规则逐笔校验，单笔不满足时只在结果中返回失败原因
+     */
+    @NotEmpty(message = "Items cannot be empty")
+    @Size(max = MAX_ITEMS, message = "Items cannot be more than " + MAX_ITEMS)
+    private List<@NotNull(message = "Item cannot be null") @Valid TransactionForm> items;
+}
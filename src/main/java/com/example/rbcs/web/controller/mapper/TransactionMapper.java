@@ -1,6 +1,9 @@
 package com.example.rbcs.web.controller.mapper;
 
 import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.archive.ArchivedTransaction;
+import com.example.rbcs.web.controller.response.TransactionHistoryItemResponse;
 import com.example.rbcs.web.controller.response.TransactionResponse;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -14,6 +17,14 @@ public interface TransactionMapper {
     @Mapping(source = "type", target = "type", qualifiedByName = "transactionTypeToString")
     TransactionResponse toResponse(Transaction transaction);
 
+    @Mapping(source = "status", target = "status", qualifiedByName = "transactionStatusToString")
+    @Mapping(source = "type", target = "type", qualifiedByName = "transactionTypeToString")
+    TransactionResponse toResponse(ArchivedTransaction transaction);
+
+    @Mapping(source = "status", target = "status", qualifiedByName = "transactionStatusToString")
+    @Mapping(source = "type", target = "type", qualifiedByName = "transactionTypeToString")
+    TransactionHistoryItemResponse toHistoryItem(TransactionRepository.HistoryRow row);
+
      @Named("transactionStatusToString")
      default String transactionStatusToString(Transaction.Status status) {
          return status != null ? status.name() : null;
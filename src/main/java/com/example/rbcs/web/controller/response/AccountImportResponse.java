@@ -0,0 +1,20 @@
+package com.example.rbcs.web.controller.response;
+
+import lombok.Data;
+
+@Data
+public class AccountImportResponse {
+    /**
+     * 读取到的合法账户号数
+     */
+    private long total;
+    private long created;
+    /**
+     * 账户号已存在或在导入内容中重复
+     */
+    private long duplicated;
+    /**
+     * 无法解析或账户号不合法的行数
+     */
+    private long invalid;
+}
@@ -10,6 +10,7 @@ public class AccountResponse {
     private String accountNumber;
     private String status;
     private Long balance;
+    private Integer shards;
     private Date createdAt;
     private Date updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.rbcs.web.controller.response;
+
+import lombok.Data;
+
+/**
+ * 批量提交中一笔交易的结果，成功时返回交易，失败时返回异常类型和原因
+ */
+@Data
+public class TransactionBatchItemResponse {
+    private int index;
+    private TransactionResponse transaction;
+    private String exception;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.example.rbcs.web.controller.response;
+
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class TransactionHistoryItemResponse {
+    private String id;
+    private String sourceAccountId;
+    private String targetAccountId;
+    private String type;
+    private String status;
+    private long amount;
+    private Date createdAt;
+}
@@ -0,0 +1,14 @@
+package com.example.rbcs.web.controller.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TransactionHistoryResponse {
+    private List<TransactionHistoryItemResponse> items;
+    /**
+     * 下一页的游标，没有更多数据时不返回
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.example.rbcs.web.controller.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TransactionSearchResponse {
+    private List<TransactionHistoryItemResponse> items;
+    /**
+     * 下一页的游标，没有更多数据时不返回
+     */
+    private String nextCursor;
+    /**
+     * 满足条件的交易总数，只在第一页返回
+     */
+    private Long total;
+    /**
+     * total是否精确，结果集较大时total为估算值
+     */
+    private Boolean totalExact;
+}
@@ -2,6 +2,7 @@ package com.example.rbcs.web.error;
 
 import com.example.rbcs.domain.exception.AccountNotFoundException;
 import com.example.rbcs.domain.exception.DomainException;
+import com.example.rbcs.domain.exception.IdempotencyKeyReused;
 import com.example.rbcs.domain.exception.TransactionNotFoundException;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -34,6 +35,8 @@ public class GlobalErrorHandler {
         var status = HttpStatus.BAD_REQUEST;
         if (ex instanceof AccountNotFoundException || ex instanceof TransactionNotFoundException) {
             status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof IdempotencyKeyReused) {
+            status = HttpStatus.UNPROCESSABLE_ENTITY;
         }
         return new ResponseEntity<>(
                 new CommonErrorResponse(ex.getClass().getSimpleName(), ex.getMessage()),
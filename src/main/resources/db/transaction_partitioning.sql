@@ -0,0 +1,29 @@
+-- 交易表改为按ID范围分区（MySQL 8）
+-- 交易ID为雪花ID，高位是相对 rbcs.id.epoch-millis 的毫秒时间戳，按ID范围分区即按创建时间分区，主键无需加入 created_at
+-- 执行期间会重建交易表，请在维护窗口执行；执行后开启 rbcs.archive.partitioning-enabled，由应用按月拆出后续分区
+-- 下面的 1704067200000 必须与 rbcs.id.epoch-millis 一致，时区与 rbcs.archive.partition-zone 一致
+
+SET time_zone = '+08:00';
+
+-- 分区表不支持外键，删除交易表上的外键（实体上已声明不创建外键约束）
+SELECT IFNULL(CONCAT('ALTER TABLE transaction ',
+                     GROUP_CONCAT(CONCAT('DROP FOREIGN KEY `', constraint_name, '`') SEPARATOR ', ')),
+              'DO 0')
+INTO @drop_foreign_keys
+FROM information_schema.table_constraints
+WHERE table_schema = DATABASE()
+  AND table_name = 'transaction'
+  AND constraint_type = 'FOREIGN KEY';
+PREPARE stmt FROM @drop_foreign_keys;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 当前月及以前的交易放在当前月的分区中，之后的月份由应用从 pmax 中拆出
+SET @next_month = STR_TO_DATE(DATE_FORMAT(NOW() + INTERVAL 1 MONTH, '%Y-%m-01'), '%Y-%m-%d');
+SET @partition_ddl = CONCAT('ALTER TABLE transaction PARTITION BY RANGE (id) (',
+                            'PARTITION p', DATE_FORMAT(NOW(), '%Y%m'),
+                            ' VALUES LESS THAN (', (UNIX_TIMESTAMP(@next_month) * 1000 - 1704067200000) << 22, '), ',
+                            'PARTITION pmax VALUES LESS THAN MAXVALUE)');
+PREPARE stmt FROM @partition_ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
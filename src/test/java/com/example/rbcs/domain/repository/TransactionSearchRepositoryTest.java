@@ -0,0 +1,109 @@
+package com.example.rbcs.domain.repository;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.defer.Defers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionSearchRepositoryTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @MockitoBean
+    private Defers defers;
+
+    private Account source;
+    private Account target;
+
+    @BeforeEach
+    void setUp() {
+        source = new Account();
+        source.activate();
+        source.setAccountNumber("1234567890");
+        accountRepository.save(source);
+
+        target = new Account();
+        target.activate();
+        target.setAccountNumber("0987654321");
+        accountRepository.save(target);
+
+        for (int i = 0; i < 5; i++) {
+            transactionService.createTransaction(source, null, Transaction.Type.DEPOSIT, 100L);
+        }
+        transactionService.createTransaction(source, target, Transaction.Type.TRANSFER, 50L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void plan_shouldPreferAccountThenStatusIndexes() {
+        assertThat(TransactionSearchRepositoryImpl.plan(new TransactionSearchCriteria(Transaction.Status.PENDING, null, 1L, null, null, null, null)))
+                .containsExactly(TransactionSearchRepositoryImpl.Access.SOURCE_ACCOUNT, TransactionSearchRepositoryImpl.Access.TARGET_ACCOUNT);
+        assertThat(TransactionSearchRepositoryImpl.plan(new TransactionSearchCriteria(Transaction.Status.PENDING, Transaction.Type.DEPOSIT, null, null, null, null, null)))
+                .containsExactly(TransactionSearchRepositoryImpl.Access.STATUS);
+        assertThat(TransactionSearchRepositoryImpl.plan(new TransactionSearchCriteria(null, Transaction.Type.DEPOSIT, null, 1L, null, null, null)))
+                .containsExactly(TransactionSearchRepositoryImpl.Access.CREATED);
+    }
+
+    @Test
+    void search_accountShouldMatchBothSides() {
+        // Arrange
+        final var criteria = new TransactionSearchCriteria(Transaction.Status.PENDING, null, target.getId(), null, null, null, null);
+
+        // Act
+        final List<TransactionRepository.HistoryRow> rows = transactionRepository.search(criteria, new Date(253_402_300_799_000L), Long.MAX_VALUE, 10);
+
+        // Assert
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getSourceAccountId()).isEqualTo(source.getId());
+        assertThat(rows.get(0).getTargetAccountId()).isEqualTo(target.getId());
+        assertThat(rows.get(0).getType()).isEqualTo(Transaction.Type.TRANSFER);
+    }
+
+    @Test
+    void countSearch_shouldBeExactBelowLimit() {
+        // Act
+        final var count = transactionRepository.countSearch(
+                new TransactionSearchCriteria(null, Transaction.Type.DEPOSIT, source.getId(), null, null, null, null), 10);
+
+        // Assert
+        assertThat(count.value()).isEqualTo(5);
+        assertThat(count.exact()).isTrue();
+    }
+
+    @Test
+    void countSearch_shouldStopAtLimit() {
+        // Act
+        final var count = transactionRepository.countSearch(
+                new TransactionSearchCriteria(Transaction.Status.PENDING, null, null, null, null, null, null), 3);
+
+        // Assert
+        assertThat(count.value()).isGreaterThanOrEqualTo(3);
+        assertThat(count.exact()).isFalse();
+    }
+}
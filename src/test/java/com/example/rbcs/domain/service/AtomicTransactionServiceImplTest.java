@@ -0,0 +1,114 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Transaction;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 原子更新余额模式下的交易执行测试
+ */
+@TestPropertySource(properties = "rbcs.transaction.execution.balance-mode=atomic")
+class AtomicTransactionServiceImplTest extends TransactionServiceTestSupport {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void executeTransaction_shouldTransferAtomically() {
+        // Arrange
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+
+        // Act
+        transactionService.executeTransaction(transaction.getId());
+
+        // Assert
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(balanceOf(sourceAccount)).isEqualTo(900L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(600L);
+    }
+
+    @Test
+    void executeTransaction_shouldKeepUnrelatedCachedTransaction() {
+        // Arrange: 无关的交易已在二级缓存中，与账户共用 RBCS region
+        var unrelated = transactionService.createTransaction(targetAccount, null, Transaction.Type.DEPOSIT, 50L);
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+        final var cache = entityManagerFactory.getCache();
+        cache.evictAll();
+        transactionRepository.findById(unrelated.getId());
+        assertThat(cache.contains(Transaction.class, unrelated.getId())).isTrue();
+
+        // Act
+        transactionService.executeTransaction(transaction.getId());
+
+        // Assert: 只移除被更新的账户，无关交易仍在缓存中，账户重新读取到最新余额
+        assertThat(cache.contains(Transaction.class, unrelated.getId())).isTrue();
+        assertThat(balanceOf(sourceAccount)).isEqualTo(900L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(600L);
+    }
+
+    @Test
+    void executeTransaction_shouldFailWhenBalanceInsufficient() {
+        // Arrange
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 1001L);
+
+        // Act
+        transactionService.executeTransaction(transaction.getId());
+
+        // Assert
+        var failed = transactionRepository.findById(transaction.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(Transaction.Status.FAILED);
+        assertThat(failed.getFailureReason()).isEqualTo("Insufficient balance");
+        assertThat(balanceOf(sourceAccount)).isEqualTo(1000L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(500L);
+    }
+
+    @Test
+    void executeTransaction_shouldRollbackWhenTargetFrozen() {
+        // Arrange
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+        var frozen = accountRepository.findById(targetAccount.getId()).orElseThrow();
+        frozen.freeze();
+        accountRepository.save(frozen);
+
+        // Act
+        transactionService.executeTransaction(transaction.getId());
+
+        // Assert
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.FAILED);
+        assertThat(balanceOf(sourceAccount)).isEqualTo(1000L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(500L);
+    }
+
+    @Test
+    void executeTransaction_concurrencySameTransactionShouldApplyOnce() throws InterruptedException {
+        // Arrange
+        final var transaction = transactionService.createTransaction(sourceAccount, null, Transaction.Type.DEPOSIT, 100L);
+        int threadCount = 50;
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    transactionService.executeTransaction(transaction.getId());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(balanceOf(sourceAccount)).isEqualTo(1100L);
+    }
+}
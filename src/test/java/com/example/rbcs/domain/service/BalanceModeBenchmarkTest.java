@@ -0,0 +1,121 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.defer.Defers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 实体更新与原子更新两种余额模式的吞吐对比
+ * 少量账户之间的大量并发转账，模拟热点账户竞争，运行方式: ./gradlew benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceModeBenchmarkTest {
+    private static final int ACCOUNT_COUNT = 4;
+    private static final int TRANSACTION_COUNT = 2000;
+    private static final int THREAD_COUNT = 32;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionServiceImpl transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionExecutionProperties executionProperties;
+
+    @MockitoBean
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    private Defers defers;
+
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            final var account = new Account();
+            account.activate();
+            account.setBalance(1_000_000L);
+            account.setAccountNumber("bench-" + i);
+            accounts.add(accountRepository.save(account));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executionProperties.setBalanceMode(TransactionExecutionProperties.BalanceMode.ENTITY);
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        accounts.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransactionExecutionProperties.BalanceMode.class)
+    void transfer(TransactionExecutionProperties.BalanceMode mode) throws InterruptedException {
+        // Arrange
+        executionProperties.setBalanceMode(mode);
+        final List<Long> transactionIds = new ArrayList<>();
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            final var source = accounts.get(i % ACCOUNT_COUNT);
+            final var target = accounts.get((i + 1) % ACCOUNT_COUNT);
+            transactionIds.add(transactionService.createTransaction(source, target, Transaction.Type.TRANSFER, 1L).getId());
+        }
+        CountDownLatch latch = new CountDownLatch(TRANSACTION_COUNT);
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        // Act
+        final var start = System.nanoTime();
+        for (Long transactionId : transactionIds) {
+            executorService.submit(() -> {
+                try {
+                    transactionService.executeTransaction(transactionId);
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        final var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        executorService.shutdown();
+
+        // Assert
+        final var completed = transactionRepository.findAllById(transactionIds).stream()
+                .filter(transaction -> transaction.getStatus() == Transaction.Status.COMPLETED)
+                .count();
+        System.out.printf("[benchmark][%s] %d transfers over %d accounts with %d threads: %d ms, %.1f tps, completed: %d%n",
+                mode, TRANSACTION_COUNT, ACCOUNT_COUNT, THREAD_COUNT, elapsedMillis,
+                TRANSACTION_COUNT * 1000.0 / Math.max(elapsedMillis, 1), completed);
+        final var total = accountRepository.findAllById(accounts.stream().map(Account::getId).toList()).stream()
+                .mapToLong(Account::getBalance)
+                .sum();
+        assertThat(total).isEqualTo(ACCOUNT_COUNT * 1_000_000L);
+    }
+}
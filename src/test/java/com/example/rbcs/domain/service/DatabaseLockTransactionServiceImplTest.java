@@ -0,0 +1,82 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 数据库行锁模式下的交易执行测试
+ */
+@TestPropertySource(properties = "rbcs.lock.provider=database")
+class DatabaseLockTransactionServiceImplTest extends TransactionServiceTestSupport {
+
+    @MockitoSpyBean
+    private AccountLockProvider accountLockProvider;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void executeTransaction_shouldExecuteUnderRowLock() {
+        // Arrange
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+
+        // Act
+        transactionService.executeTransaction(transaction.getId());
+
+        // Assert
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(balanceOf(sourceAccount)).isEqualTo(900L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(600L);
+    }
+
+    @Test
+    void executeTransaction_optimisticConflictShouldRetryOutsideRowLockTransaction() {
+        // Arrange: 第一次执行时，行锁事务加载交易之后交易被其他事务修改，提交时版本号冲突
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+        final var concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        final var conflicted = new boolean[]{false};
+        doAnswer(invocation -> {
+            final Runnable task = invocation.getArgument(2);
+            if (conflicted[0]) {
+                return invocation.callRealMethod();
+            }
+            conflicted[0] = true;
+            return accountLockProvider.executeWithLock(invocation.getArgument(0), () -> {
+                transactionRepository.findById(transaction.getId());
+                concurrent.executeWithoutResult(status -> entityManager.lock(
+                        entityManager.find(Transaction.class, transaction.getId()), LockModeType.OPTIMISTIC_FORCE_INCREMENT));
+                task.run();
+            });
+        }).when(accountLockProvider).executeWithLock(anyCollection(), anyLong(), any(Runnable.class));
+
+        // Act
+        transactionService.executeTransaction(transaction.getId());
+
+        // Assert: 在新的行锁事务中重试成功，余额只变动一次
+        verify(accountLockProvider, times(2)).executeWithLock(anyCollection(), anyLong(), any(Runnable.class));
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(balanceOf(sourceAccount)).isEqualTo(900L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(600L);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.defer.Defers;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * 存款聚合执行测试
+ */
+@SpringBootTest(properties = {
+        "rbcs.transaction.deposit-aggregation.enabled=true",
+        "rbcs.transaction.deposit-aggregation.window-millis=50"
+})
+@ActiveProfiles("test")
+class DepositAggregatorTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionServiceImpl transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @MockitoBean
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    private Defers defers;
+
+    @MockitoSpyBean
+    private AccountLockProvider accountLockProvider;
+
+    private Account merchantAccount;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @BeforeEach
+    void setUp() {
+        merchantAccount = new Account();
+        merchantAccount.activate();
+        merchantAccount.setBalance(0L);
+        merchantAccount.setAccountNumber("1234567890");
+        accountRepository.save(merchantAccount);
+    }
+
+    @Test
+    void executeTransaction_concurrentDepositsShouldAllComplete() throws InterruptedException {
+        // Arrange
+        int threadCount = 100;
+        final List<Long> transactionIds = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            transactionIds.add(transactionService.createTransaction(merchantAccount, null, Transaction.Type.DEPOSIT, 10L).getId());
+        }
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+        // Act
+        for (Long transactionId : transactionIds) {
+            executorService.submit(() -> {
+                try {
+                    transactionService.executeTransaction(transactionId);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(transactionRepository.findAllById(transactionIds))
+                .extracting(Transaction::getStatus)
+                .containsOnly(Transaction.Status.COMPLETED);
+        assertThat(accountRepository.findById(merchantAccount.getId()).orElseThrow().getBalance()).isEqualTo(1000L);
+    }
+
+    @Test
+    void executeTransaction_depositsToFrozenAccountShouldFailIndividually() {
+        // Arrange
+        final var deposit = transactionService.createTransaction(merchantAccount, null, Transaction.Type.DEPOSIT, 10L);
+        final var frozen = accountRepository.findById(merchantAccount.getId()).orElseThrow();
+        frozen.freeze();
+        accountRepository.save(frozen);
+
+        // Act
+        transactionService.executeTransaction(deposit.getId());
+
+        // Assert
+        assertThat(transactionRepository.findById(deposit.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.FAILED);
+        assertThat(accountRepository.findById(merchantAccount.getId()).orElseThrow().getBalance()).isZero();
+    }
+
+    @Test
+    void executeTransaction_lockNotAcquiredShouldBeRedelivered() {
+        // Arrange
+        final var deposit = transactionService.createTransaction(merchantAccount, null, Transaction.Type.DEPOSIT, 10L);
+        doReturn(false).when(accountLockProvider).executeWithLock(anyCollection(), any(Runnable.class));
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.executeTransaction(deposit.getId()))
+                .isInstanceOfSatisfying(AccountLockContendedException.class,
+                        e -> assertThat(e.getTransactionId()).isEqualTo(deposit.getId()));
+        assertThat(transactionRepository.findById(deposit.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.PENDING);
+        assertThat(accountRepository.findById(merchantAccount.getId()).orElseThrow().getBalance()).isZero();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分区执行模式下的交易执行测试
+ */
+@TestPropertySource(properties = "rbcs.transaction.execution.mode=partitioned")
+class PartitionedTransactionServiceImplTest extends TransactionServiceTestSupport {
+
+    @Test
+    void executeTransaction_shouldExecuteWithoutLock() {
+        // Arrange
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+
+        // Act
+        transactionService.executeTransaction(transaction.getId());
+
+        // Assert
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(balanceOf(sourceAccount)).isEqualTo(900L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(600L);
+    }
+}
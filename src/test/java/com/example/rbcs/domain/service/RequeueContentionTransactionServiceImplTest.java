@@ -0,0 +1,138 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 锁竞争策略为requeue时的交易执行测试
+ */
+@TestPropertySource(properties = {"rbcs.lock.provider=local", "rbcs.lock.contention=requeue"})
+class RequeueContentionTransactionServiceImplTest extends TransactionServiceTestSupport {
+
+    @Autowired
+    private AccountLockProvider accountLockProvider;
+
+    @Test
+    void executeTransaction_contendedShouldGiveUpImmediately() throws InterruptedException {
+        // Arrange
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+        final var holding = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var holder = new Thread(() -> accountLockProvider.executeWithLock(List.of(targetAccount.getId()), () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act & Assert
+        final var start = System.currentTimeMillis();
+        assertThatThrownBy(() -> transactionService.executeTransaction(transaction.getId()))
+                .isInstanceOf(AccountLockContendedException.class);
+        assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.PENDING);
+
+        // 锁释放后再次投递即可执行
+        release.countDown();
+        holder.join();
+        transactionService.executeTransaction(transaction.getId());
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.COMPLETED);
+    }
+
+    @Test
+    void executeTransactions_contendedShouldLeaveTransactionsForRedelivery() throws InterruptedException {
+        // Arrange
+        var transaction = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+        final var holding = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var holder = new Thread(() -> accountLockProvider.executeWithLock(List.of(sourceAccount.getId()), () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        final var handled = transactionService.executeTransactions(List.of(transaction.getId()));
+        release.countDown();
+        holder.join();
+
+        // Assert
+        assertThat(handled).doesNotContain(transaction.getId());
+        assertThat(statusOf(transaction)).isEqualTo(Transaction.Status.PENDING);
+    }
+
+    @Test
+    void executeDeposits_contendedShouldGiveUpImmediately() throws InterruptedException {
+        // Arrange
+        var deposit = transactionService.createTransaction(sourceAccount, null, Transaction.Type.DEPOSIT, 100L);
+        final var holding = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var holder = new Thread(() -> accountLockProvider.executeWithLock(List.of(sourceAccount.getId()), () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act & Assert: 不等满锁等待时间，整批交给聚合器重新投递
+        final var start = System.currentTimeMillis();
+        assertThatThrownBy(() -> transactionService.executeDeposits(sourceAccount.getId(), List.of(deposit.getId())))
+                .isInstanceOf(AccountLockContendedException.class);
+        assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+        release.countDown();
+        holder.join();
+        assertThat(statusOf(deposit)).isEqualTo(Transaction.Status.PENDING);
+    }
+
+    @Test
+    void executeNettedTransfers_contendedShouldGiveUpImmediately() throws InterruptedException {
+        // Arrange
+        var transfer = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 100L);
+        final var holding = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var holder = new Thread(() -> accountLockProvider.executeWithLock(List.of(targetAccount.getId()), () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act & Assert
+        final var start = System.currentTimeMillis();
+        assertThatThrownBy(() -> transactionService.executeNettedTransfers(List.of(transfer.getId())))
+                .isInstanceOfSatisfying(TransfersContended.class,
+                        e -> assertThat(e.getTransactionIds()).containsExactly(transfer.getId()));
+        assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+        release.countDown();
+        holder.join();
+        assertThat(statusOf(transfer)).isEqualTo(Transaction.Status.PENDING);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.AccountShardRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.defer.Defers;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * 分片账户的交易执行测试
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ShardedAccountTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionServiceImpl transactionService;
+
+    @Autowired
+    private AccountServiceImpl accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountShardRepository accountShardRepository;
+
+    @MockitoBean
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    private Defers defers;
+
+    @MockitoSpyBean
+    private AccountLockProvider accountLockProvider;
+
+    private Account hotAccount;
+    private Account otherAccount;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountShardRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @BeforeEach
+    void setUp() {
+        hotAccount = new Account();
+        hotAccount.activate();
+        hotAccount.setBalance(1000L);
+        hotAccount.setAccountNumber("1234567890");
+        accountRepository.save(hotAccount);
+
+        otherAccount = new Account();
+        otherAccount.activate();
+        otherAccount.setBalance(500L);
+        otherAccount.setAccountNumber("0987654321");
+        accountRepository.save(otherAccount);
+
+        accountService.shardAccount(hotAccount.getId(), 4);
+    }
+
+    @Test
+    void shardAccount_shouldKeepAggregateBalance() {
+        // Assert
+        final var account = accountRepository.findById(hotAccount.getId()).orElseThrow();
+        assertThat(account.getShards()).isEqualTo(4);
+        assertThat(account.getBalance()).isZero();
+        assertThat(accountShardRepository.findAll()).hasSize(4);
+        assertThat(accountService.getBalance(account)).isEqualTo(1000L);
+    }
+
+    @Test
+    void executeTransaction_withdrawalShouldBorrowAcrossShards() {
+        // Arrange
+        final var withdrawal = transactionService.createTransaction(hotAccount, null, Transaction.Type.WITHDRAWAL, 900L);
+
+        // Act
+        transactionService.executeTransaction(withdrawal.getId());
+
+        // Assert
+        assertThat(transactionRepository.findById(withdrawal.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(balanceOf(hotAccount)).isEqualTo(100L);
+    }
+
+    @Test
+    void executeTransaction_withdrawalShouldFailWhenAggregateInsufficient() {
+        // Arrange
+        final var withdrawal = transactionService.createTransaction(hotAccount, null, Transaction.Type.WITHDRAWAL, 1001L);
+
+        // Act
+        transactionService.executeTransaction(withdrawal.getId());
+
+        // Assert
+        assertThat(transactionRepository.findById(withdrawal.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.FAILED);
+        assertThat(balanceOf(hotAccount)).isEqualTo(1000L);
+    }
+
+    /**
+     * 分片账户与普通账户之间双向并发转账，最终余额守恒
+     */
+    @Test
+    void executeTransaction_concurrencyCrossTransfer() throws InterruptedException {
+        // Arrange
+        int threadCount = 100;
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            final var forward = i % 2 == 0;
+            executorService.submit(() -> {
+                try {
+                    final var transaction = forward
+                            ? transactionService.createTransaction(hotAccount, otherAccount, Transaction.Type.TRANSFER, 3L)
+                            : transactionService.createTransaction(otherAccount, hotAccount, Transaction.Type.TRANSFER, 3L);
+                    transactionService.executeTransaction(transaction.getId());
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(balanceOf(hotAccount)).isEqualTo(1000L);
+        assertThat(balanceOf(otherAccount)).isEqualTo(500L);
+    }
+
+    @Test
+    void executeTransaction_accountShardedWhileWaitingForLockShouldExecuteAtomically() {
+        // Arrange: 交易等锁期间账户开启了分片
+        final var withdrawal = transactionService.createTransaction(otherAccount, null, Transaction.Type.WITHDRAWAL, 100L);
+        doAnswer(invocation -> {
+            accountService.shardAccount(otherAccount.getId(), 2);
+            return invocation.callRealMethod();
+        }).when(accountLockProvider).executeWithLock(anyCollection(), anyLong(), any(Runnable.class));
+
+        // Act
+        transactionService.executeTransaction(withdrawal.getId());
+
+        // Assert
+        assertThat(transactionRepository.findById(withdrawal.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        final var account = accountRepository.findById(otherAccount.getId()).orElseThrow();
+        assertThat(account.isSharded()).isTrue();
+        assertThat(account.getBalance()).isZero();
+        assertThat(balanceOf(otherAccount)).isEqualTo(400L);
+    }
+
+    /**
+     * 账户在并发取款的过程中开启分片，所有取款都只生效一次，余额守恒
+     */
+    @Test
+    void executeTransaction_concurrencyWithdrawalWhileSharding() throws InterruptedException {
+        // Arrange
+        int threadCount = 20;
+        final List<Long> transactionIds = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            transactionIds.add(transactionService.createTransaction(otherAccount, null, Transaction.Type.WITHDRAWAL, 10L).getId());
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(threadCount + 1);
+        ExecutorService executorService = Executors.newFixedThreadPool(11);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            final var transactionId = transactionIds.get(i);
+            executorService.submit(() -> {
+                try {
+                    start.await();
+                    transactionService.executeTransaction(transactionId);
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        executorService.submit(() -> {
+            try {
+                start.await();
+                Thread.sleep(20);
+                accountService.shardAccount(otherAccount.getId(), 4);
+            } catch (Exception e) {
+                System.err.println("Error: " + e.getMessage());
+            } finally {
+                latch.countDown();
+            }
+        });
+        start.countDown();
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(accountRepository.findById(otherAccount.getId()).orElseThrow().isSharded()).isTrue();
+        assertThat(transactionRepository.findAllById(transactionIds))
+                .extracting(Transaction::getStatus)
+                .containsOnly(Transaction.Status.COMPLETED);
+        assertThat(balanceOf(otherAccount)).isEqualTo(300L);
+    }
+
+    @Test
+    void unshardAccount_shouldMergeShardBalances() {
+        // Arrange
+        final var deposit = transactionService.createTransaction(hotAccount, null, Transaction.Type.DEPOSIT, 100L);
+        transactionService.executeTransaction(deposit.getId());
+
+        // Act
+        accountService.unshardAccount(hotAccount.getId());
+
+        // Assert
+        final var account = accountRepository.findById(hotAccount.getId()).orElseThrow();
+        assertThat(account.isSharded()).isFalse();
+        assertThat(account.getBalance()).isEqualTo(1100L);
+        assertThat(accountShardRepository.findAll()).isEmpty();
+    }
+
+    private long balanceOf(Account account) {
+        return accountService.getBalance(accountRepository.findById(account.getId()).orElseThrow());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.event.TransactionCompletedEvent;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 批量执行测试，使用真实的Defers，验证事件只在事务提交后发布
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class TransactionBatchExecutionTest {
+
+    @Autowired
+    private TransactionServiceImpl transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockitoSpyBean
+    private AccountLockProvider accountLockProvider;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    private Account account(String accountNumber, long balance) {
+        final var account = new Account();
+        account.activate();
+        account.setBalance(balance);
+        account.setAccountNumber(accountNumber);
+        return accountRepository.save(account);
+    }
+
+    private Transaction transaction(Account source, Account target, Transaction.Type type, long amount) {
+        return transactionRepository.save(Transaction.builder()
+                .sourceAccount(source)
+                .targetAccount(target)
+                .type(type)
+                .amount(amount)
+                .build());
+    }
+
+    @Test
+    void executeTransactions_shouldLockEachAccountGroupSeparately() {
+        // Arrange
+        final var a = account("1000000001", 1000L);
+        final var b = account("1000000002", 1000L);
+        final var c = account("1000000003", 1000L);
+        final var transfer = transaction(a, b, Transaction.Type.TRANSFER, 100L);
+        final var deposit = transaction(c, null, Transaction.Type.DEPOSIT, 100L);
+        final var withdrawal = transaction(b, null, Transaction.Type.WITHDRAWAL, 100L);
+
+        // Act
+        final var handled = transactionService.executeTransactions(List.of(transfer.getId(), deposit.getId(), withdrawal.getId()));
+
+        // Assert
+        assertThat(handled).containsExactlyInAnyOrder(transfer.getId(), deposit.getId(), withdrawal.getId());
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<Collection<Long>> locked = ArgumentCaptor.forClass(Collection.class);
+        verify(accountLockProvider, atLeastOnce()).executeWithLock(locked.capture(), anyLong(), any(Runnable.class));
+        assertThat(locked.getAllValues().stream().map(List::copyOf).toList()).containsExactlyInAnyOrder(
+                List.of(a.getId(), b.getId()),
+                List.of(c.getId()));
+        assertThat(accountRepository.findById(b.getId()).orElseThrow().getBalance()).isEqualTo(1000L);
+        assertThat(accountRepository.findById(c.getId()).orElseThrow().getBalance()).isEqualTo(1100L);
+    }
+
+    @Test
+    void executeTransactions_rolledBackBatchShouldNotPublishTwice() {
+        // Arrange
+        final var a = account("1000000001", 1000L);
+        final var b = account("1000000002", 1000L);
+        final var first = transaction(a, b, Transaction.Type.TRANSFER, 100L);
+        final var second = transaction(b, a, Transaction.Type.TRANSFER, 50L);
+        final var failedOnce = new boolean[]{false};
+        // 第一次整批执行时，在批量事务内执行完所有交易后抛出非预期异常，整批回滚
+        doAnswer(invocation -> {
+            final Runnable task = invocation.getArgument(2);
+            if (failedOnce[0]) {
+                task.run();
+                return true;
+            }
+            failedOnce[0] = true;
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                task.run();
+                throw new IllegalStateException("batch failed after execution");
+            });
+            return true;
+        }).when(accountLockProvider).executeWithLock(anyCollection(), anyLong(), any(Runnable.class));
+
+        // Act
+        final var handled = transactionService.executeTransactions(List.of(first.getId(), second.getId()));
+
+        // Assert: 退回逐笔执行后每笔交易只发布一次完成事件
+        assertThat(handled).containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(events.stream(TransactionCompletedEvent.class)
+                .map(event -> event.getAggregateRoot().getId()))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(accountRepository.findById(a.getId()).orElseThrow().getBalance()).isEqualTo(950L);
+        assertThat(accountRepository.findById(b.getId()).orElseThrow().getBalance()).isEqualTo(1050L);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionGroupsTest {
+
+    private final Account a = account(1L);
+    private final Account b = account(2L);
+    private final Account c = account(3L);
+    private final Account d = account(4L);
+
+    @Test
+    void of_disjointAccountsShouldBeSeparateGroups() {
+        final var groups = TransactionGroups.of(List.of(
+                transaction(1L, a, b),
+                transaction(2L, c, null),
+                transaction(3L, d, null)));
+
+        assertThat(groups).containsExactly(
+                new TransactionGroups.Group(List.of(1L), Set.of(1L, 2L)),
+                new TransactionGroups.Group(List.of(2L), Set.of(3L)),
+                new TransactionGroups.Group(List.of(3L), Set.of(4L)));
+    }
+
+    @Test
+    void of_sharedAccountShouldJoinGroups() {
+        // 3号交易同时连接了a-b和c-d两组
+        final var groups = TransactionGroups.of(List.of(
+                transaction(4L, d, null),
+                transaction(1L, a, b),
+                transaction(2L, c, d),
+                transaction(3L, b, c)));
+
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).transactionIds()).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(groups.get(0).accountIds()).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void of_groupExceedingMaxAccountsShouldBeSplitInIdOrder() {
+        // a-b-c-d连成一组，共4个账户，上限为3时拆成两组
+        final var groups = TransactionGroups.of(List.of(
+                transaction(1L, a, b),
+                transaction(2L, b, c),
+                transaction(3L, c, d),
+                transaction(4L, a, null)), 3);
+
+        assertThat(groups).containsExactly(
+                new TransactionGroups.Group(List.of(1L, 2L), Set.of(1L, 2L, 3L)),
+                new TransactionGroups.Group(List.of(3L, 4L), Set.of(1L, 3L, 4L)));
+    }
+
+    @Test
+    void of_emptyShouldHaveNoGroup() {
+        assertThat(TransactionGroups.of(List.of())).isEmpty();
+    }
+
+    private static Account account(long id) {
+        final var account = new Account();
+        account.setId(id);
+        account.activate();
+        return account;
+    }
+
+    private static Transaction transaction(long id, Account source, Account target) {
+        return Transaction.builder()
+                .id(id)
+                .sourceAccount(source)
+                .targetAccount(target)
+                .type(target == null ? Transaction.Type.DEPOSIT : Transaction.Type.TRANSFER)
+                .amount(10L)
+                .build();
+    }
+}
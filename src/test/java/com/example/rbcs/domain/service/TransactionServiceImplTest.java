@@ -1,23 +1,13 @@
 package com.example.rbcs.domain.service;
 
-import com.example.rbcs.domain.entity.Account;
 import com.example.rbcs.domain.entity.Transaction;
 import com.example.rbcs.domain.exception.AmountInvalidException;
 import com.example.rbcs.domain.exception.TransactionAccountInvalid;
 import com.example.rbcs.domain.exception.TransactionNotFoundException;
-import com.example.rbcs.domain.repository.AccountRepository;
-import com.example.rbcs.domain.repository.TransactionRepository;
-import com.example.rbcs.infrastructure.defer.Defers;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.Lock;
-import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -26,51 +16,7 @@ import java.util.concurrent.Executors;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-@SpringBootTest
-@ActiveProfiles("test")
-class TransactionServiceImplTest {
-
-    @Autowired
-    private TransactionRepository transactionRepository;
-
-    @Autowired
-    private TransactionServiceImpl transactionService;
-
-    @Autowired
-    private AccountRepository accountRepository;
-
-    @MockitoBean
-    private ApplicationEventPublisher eventPublisher;
-
-    @MockitoBean
-    private Defers defers;
-
-    private Account sourceAccount;
-    private Account targetAccount;
-
-    @AfterEach
-    void tearDown() {
-        // 清理测试数据
-        transactionRepository.deleteAll();
-        accountRepository.deleteAll();
-    }
-
-    @BeforeEach
-    void setUp() {
-        // 初始化测试数据
-        System.out.println("setUp" + accountRepository.findAll());
-        sourceAccount = new Account();
-        sourceAccount.activate();
-        sourceAccount.setBalance(1000L);
-        sourceAccount.setAccountNumber("1234567890");
-        accountRepository.save(sourceAccount);
-
-        targetAccount = new Account();
-        targetAccount.activate();
-        targetAccount.setBalance(500L);
-        targetAccount.setAccountNumber("0987654321");
-        accountRepository.save(targetAccount);
-    }
+class TransactionServiceImplTest extends TransactionServiceTestSupport {
 
     @Test
     void createTransaction_shouldCreateTransactionSuccessfully() {
@@ -160,6 +106,41 @@ class TransactionServiceImplTest {
         transactionService.executeTransaction(999L);
     }
 
+    @Test
+    void executeTransactions_shouldExecuteBatchInOrder() {
+        // Arrange
+        var deposit = transactionService.createTransaction(sourceAccount, null, Transaction.Type.DEPOSIT, 100L);
+        var transfer = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 1100L);
+        var withdrawal = transactionService.createTransaction(targetAccount, null, Transaction.Type.WITHDRAWAL, 2000L);
+
+        // Act
+        var handled = transactionService.executeTransactions(List.of(deposit.getId(), transfer.getId(), withdrawal.getId(), 999L));
+
+        // Assert: handled是集合，只断言都已处理；执行顺序由前后依赖的结果断言——先存款转账1100才能成功，转账到账后取款2000仍然失败
+        assertThat(handled).containsExactlyInAnyOrder(deposit.getId(), transfer.getId(), withdrawal.getId(), 999L);
+        assertThat(transactionRepository.findById(deposit.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(transactionRepository.findById(transfer.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(transactionRepository.findById(withdrawal.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.FAILED);
+        assertThat(accountRepository.findById(sourceAccount.getId()).orElseThrow().getBalance()).isEqualTo(0L);
+        assertThat(accountRepository.findById(targetAccount.getId()).orElseThrow().getBalance()).isEqualTo(1600L);
+    }
+
+    @Test
+    void executeTransactions_shouldNotReorderBatch() {
+        // Arrange: 转账排在存款之前，按提交顺序执行时余额不足
+        var transfer = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 1100L);
+        var deposit = transactionService.createTransaction(sourceAccount, null, Transaction.Type.DEPOSIT, 100L);
+
+        // Act
+        transactionService.executeTransactions(List.of(transfer.getId(), deposit.getId()));
+
+        // Assert
+        assertThat(statusOf(transfer)).isEqualTo(Transaction.Status.FAILED);
+        assertThat(statusOf(deposit)).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(balanceOf(sourceAccount)).isEqualTo(1100L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(500L);
+    }
+
     @Test
     void executeTransaction_concurrencyDeposit() throws InterruptedException {
         // Arrange
@@ -0,0 +1,113 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.defer.Defers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 交易执行测试的公共夹具：两个已激活账户（余额1000与500），以及各执行模式都必须满足的余额守恒测试。
+ * 各执行模式的测试类通过@TestPropertySource切换配置，只保留本模式特有的断言。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+abstract class TransactionServiceTestSupport {
+
+    @Autowired
+    protected TransactionRepository transactionRepository;
+
+    @Autowired
+    protected TransactionServiceImpl transactionService;
+
+    @Autowired
+    protected AccountRepository accountRepository;
+
+    @MockitoBean
+    protected ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    protected Defers defers;
+
+    protected Account sourceAccount;
+    protected Account targetAccount;
+
+    @AfterEach
+    void tearDown() {
+        // 清理测试数据
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 初始化测试数据
+        sourceAccount = new Account();
+        sourceAccount.activate();
+        sourceAccount.setBalance(1000L);
+        sourceAccount.setAccountNumber("1234567890");
+        accountRepository.save(sourceAccount);
+
+        targetAccount = new Account();
+        targetAccount.activate();
+        targetAccount.setBalance(500L);
+        targetAccount.setAccountNumber("0987654321");
+        accountRepository.save(targetAccount);
+    }
+
+    protected long balanceOf(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+
+    protected Transaction.Status statusOf(Transaction transaction) {
+        return transactionRepository.findById(transaction.getId()).orElseThrow().getStatus();
+    }
+
+    /**
+     * 双向转账并发执行，最终余额守恒
+     */
+    @Test
+    void executeTransaction_concurrencyCrossTransfer() throws InterruptedException {
+        // Arrange
+        int threadCount = 100;
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            final var forward = i % 2 == 0;
+            executorService.submit(() -> {
+                try {
+                    final var transaction = forward
+                            ? transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 1L)
+                            : transactionService.createTransaction(targetAccount, sourceAccount, Transaction.Type.TRANSFER, 1L);
+                    transactionService.executeTransaction(transaction.getId());
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(balanceOf(sourceAccount)).isEqualTo(1000L);
+        assertThat(balanceOf(targetAccount)).isEqualTo(500L);
+    }
+}
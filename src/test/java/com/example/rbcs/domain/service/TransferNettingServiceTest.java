@@ -0,0 +1,164 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.defer.Defers;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.AccountLockProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * 转账轧差执行测试
+ */
+@SpringBootTest(properties = "rbcs.transaction.netting.enabled=true")
+@ActiveProfiles("test")
+class TransferNettingServiceTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionServiceImpl transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @MockitoBean
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    private Defers defers;
+
+    @MockitoSpyBean
+    private AccountLockProvider accountLockProvider;
+
+    private Account sourceAccount;
+    private Account targetAccount;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @BeforeEach
+    void setUp() {
+        sourceAccount = new Account();
+        sourceAccount.activate();
+        sourceAccount.setBalance(100L);
+        sourceAccount.setAccountNumber("1234567890");
+        accountRepository.save(sourceAccount);
+
+        targetAccount = new Account();
+        targetAccount.activate();
+        targetAccount.setBalance(0L);
+        targetAccount.setAccountNumber("0987654321");
+        accountRepository.save(targetAccount);
+    }
+
+    @Test
+    void executeNettedTransfers_shouldCompleteOffsettingTransfers() {
+        // Arrange: 逐笔执行时第二笔会因目标账户余额不足失败，轧差后净额合法
+        final var back = transactionService.createTransaction(targetAccount, sourceAccount, Transaction.Type.TRANSFER, 150L);
+        final var forth = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 200L);
+
+        // Act
+        transactionService.executeNettedTransfers(List.of(back.getId(), forth.getId()));
+
+        // Assert
+        assertThat(transactionRepository.findAllById(List.of(back.getId(), forth.getId())))
+                .extracting(Transaction::getStatus)
+                .containsOnly(Transaction.Status.COMPLETED);
+        assertThat(accountRepository.findById(sourceAccount.getId()).orElseThrow().getBalance()).isEqualTo(50L);
+        assertThat(accountRepository.findById(targetAccount.getId()).orElseThrow().getBalance()).isEqualTo(50L);
+    }
+
+    @Test
+    void executeNettedTransfers_overdrawnTransferShouldFailIndividually() {
+        // Arrange
+        final var ok = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 60L);
+        final var overdrawn = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 60L);
+
+        // Act
+        transactionService.executeNettedTransfers(List.of(ok.getId(), overdrawn.getId()));
+
+        // Assert
+        assertThat(transactionRepository.findById(ok.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(transactionRepository.findById(overdrawn.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.FAILED);
+        assertThat(accountRepository.findById(sourceAccount.getId()).orElseThrow().getBalance()).isEqualTo(40L);
+        assertThat(accountRepository.findById(targetAccount.getId()).orElseThrow().getBalance()).isEqualTo(60L);
+    }
+
+    @Test
+    void executeTransaction_shouldGoThroughNettingWindow() {
+        // Arrange
+        final var transfer = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 10L);
+
+        // Act
+        transactionService.executeTransaction(transfer.getId());
+
+        // Assert
+        assertThat(transactionRepository.findById(transfer.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(accountRepository.findById(targetAccount.getId()).orElseThrow().getBalance()).isEqualTo(10L);
+    }
+
+    @Test
+    void executeNettedTransfers_contendedGroupShouldBeRedeliveredAndOthersExecuted() {
+        // Arrange: 两组互不相关的转账，只有第一组拿不到锁
+        final var third = new Account();
+        third.activate();
+        third.setBalance(100L);
+        third.setAccountNumber("1111111111");
+        accountRepository.save(third);
+        final var fourth = new Account();
+        fourth.activate();
+        fourth.setBalance(0L);
+        fourth.setAccountNumber("2222222222");
+        accountRepository.save(fourth);
+        final var contended = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 10L);
+        final var free = transactionService.createTransaction(third, fourth, Transaction.Type.TRANSFER, 10L);
+        doReturn(false).when(accountLockProvider)
+                .executeWithLock(argThat(ids -> ids.contains(sourceAccount.getId())), anyLong(), any(Runnable.class));
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.executeNettedTransfers(List.of(contended.getId(), free.getId())))
+                .isInstanceOfSatisfying(TransfersContended.class,
+                        e -> assertThat(e.getTransactionIds()).containsExactly(contended.getId()));
+        assertThat(transactionRepository.findById(contended.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.PENDING);
+        assertThat(transactionRepository.findById(free.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(accountRepository.findById(fourth.getId()).orElseThrow().getBalance()).isEqualTo(10L);
+    }
+
+    @Test
+    void executeTransaction_contendedTransferShouldSurfaceContention() {
+        // Arrange
+        final var transfer = transactionService.createTransaction(sourceAccount, targetAccount, Transaction.Type.TRANSFER, 10L);
+        doReturn(false).when(accountLockProvider).executeWithLock(anyCollection(), any(Runnable.class));
+
+        // Act & Assert
+        assertThatThrownBy(() -> transactionService.executeTransaction(transfer.getId()))
+                .isInstanceOfSatisfying(AccountLockContendedException.class,
+                        e -> assertThat(e.getTransactionId()).isEqualTo(transfer.getId()));
+        assertThat(transactionRepository.findById(transfer.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.PENDING);
+    }
+}
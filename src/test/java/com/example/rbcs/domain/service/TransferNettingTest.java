@@ -0,0 +1,100 @@
+package com.example.rbcs.domain.service;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferNettingTest {
+
+    private Account a;
+    private Account b;
+    private Account c;
+
+    @BeforeEach
+    void setUp() {
+        a = account(1L, 0L);
+        b = account(2L, 0L);
+        c = account(3L, 100L);
+    }
+
+    @Test
+    void of_cycleShouldNetToZero() {
+        // 账户余额都为0，但环形转账的净额为0，整批可以执行
+        a.setBalance(0L);
+        c.setBalance(0L);
+        final var transfers = List.of(
+                transfer(1L, a, b, 50L),
+                transfer(2L, b, c, 50L),
+                transfer(3L, c, a, 50L));
+
+        final var netting = TransferNetting.of(transfers);
+
+        assertThat(netting.included()).hasSize(3);
+        assertThat(netting.deltas()).isEmpty();
+        assertThat(netting.rejected()).isEmpty();
+        assertThat(netting.deferred()).isEmpty();
+    }
+
+    @Test
+    void of_shouldComputeNetDeltaPerAccount() {
+        final var transfers = List.of(
+                transfer(1L, c, a, 80L),
+                transfer(2L, a, b, 30L),
+                transfer(3L, b, c, 10L));
+
+        final var netting = TransferNetting.of(transfers);
+
+        assertThat(netting.included()).hasSize(3);
+        assertThat(netting.deltas()).isEqualTo(Map.of(1L, 50L, 2L, 20L, 3L, -70L));
+    }
+
+    @Test
+    void of_shouldDeferLatestTransferOfOverdrawnAccount() {
+        final var transfers = List.of(
+                transfer(1L, c, a, 60L),
+                transfer(2L, c, b, 60L));
+
+        final var netting = TransferNetting.of(transfers);
+
+        assertThat(netting.included()).extracting(Transaction::getId).containsExactly(1L);
+        assertThat(netting.deferred()).extracting(Transaction::getId).containsExactly(2L);
+        assertThat(netting.deltas()).isEqualTo(Map.of(1L, 60L, 3L, -60L));
+    }
+
+    @Test
+    void of_shouldRejectTransfersOfInactiveAccounts() {
+        b.freeze();
+        final var transfers = List.of(
+                transfer(1L, c, b, 10L),
+                transfer(2L, c, a, 10L));
+
+        final var netting = TransferNetting.of(transfers);
+
+        assertThat(netting.rejected()).extracting(Transaction::getId).containsExactly(1L);
+        assertThat(netting.included()).extracting(Transaction::getId).containsExactly(2L);
+    }
+
+    private static Account account(long id, long balance) {
+        final var account = new Account();
+        account.setId(id);
+        account.activate();
+        account.setBalance(balance);
+        return account;
+    }
+
+    private static Transaction transfer(long id, Account source, Account target, long amount) {
+        return Transaction.builder()
+                .id(id)
+                .sourceAccount(source)
+                .targetAccount(target)
+                .type(Transaction.Type.TRANSFER)
+                .amount(amount)
+                .build();
+    }
+}
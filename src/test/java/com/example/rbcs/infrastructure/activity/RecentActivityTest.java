@@ -0,0 +1,201 @@
+package com.example.rbcs.infrastructure.activity;
+
+import com.example.rbcs.applications.TransactionQueryService;
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.event.TransactionCompletedEvent;
+import com.example.rbcs.domain.event.TransactionFailedEvent;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.defer.Defers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "rbcs.activity.capacity=3")
+@ActiveProfiles("test")
+class RecentActivityTest {
+
+    @Autowired
+    private RecentActivity recentActivity;
+
+    @Autowired
+    private TransactionQueryService transactionQueryService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private Defers defers;
+
+    private Account source;
+    private Account target;
+
+    @BeforeEach
+    void setUp() {
+        source = new Account();
+        source.activate();
+        source.setBalance(1000L);
+        source.setAccountNumber("1234567890");
+        accountRepository.save(source);
+
+        target = new Account();
+        target.activate();
+        target.setAccountNumber("0987654321");
+        accountRepository.save(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        redissonClient.getKeys().delete("rbcs:activity:" + source.getId(), "rbcs:activity:" + target.getId(),
+                "rbcs:activity:v:" + source.getId(), "rbcs:activity:v:" + target.getId());
+    }
+
+    @Test
+    void getRecentActivity_shouldLoadFromDatabaseOnceThenServeFromRedis() {
+        // Arrange
+        final var first = transactionService.createTransaction(source, null, Transaction.Type.DEPOSIT, 10L);
+        final var second = transactionService.createTransaction(source, target, Transaction.Type.TRANSFER, 20L);
+        assertThat(recentActivity.recent(source.getId(), 3)).isNull();
+
+        // Act
+        final var loaded = transactionQueryService.getRecentActivity(source.getId(), 3);
+        transactionRepository.deleteAll();
+        final var cached = transactionQueryService.getRecentActivity(source.getId(), 3);
+
+        // Assert
+        assertThat(loaded).extracting(TransactionRepository.HistoryRow::getId).containsExactly(second.getId(), first.getId());
+        assertThat(cached).extracting(TransactionRepository.HistoryRow::getId).containsExactly(second.getId(), first.getId());
+        assertThat(cached.get(0).getTargetAccountId()).isEqualTo(target.getId());
+    }
+
+    @Test
+    void onCompleted_shouldPushToBothAccountsAndKeepLatestState() throws InterruptedException {
+        // Arrange
+        final var transfer = transactionService.createTransaction(source, target, Transaction.Type.TRANSFER, 20L);
+        transactionQueryService.getRecentActivity(source.getId(), 3);
+        transactionQueryService.getRecentActivity(target.getId(), 3);
+
+        // Act
+        transfer.markCompleted();
+        eventPublisher.publishEvent(new TransactionCompletedEvent(transfer));
+
+        // Assert
+        List<TransactionRepository.HistoryRow> rows = null;
+        for (int i = 0; i < 50; i++) {
+            rows = recentActivity.recent(target.getId(), 3);
+            if (rows.get(0).getStatus() == Transaction.Status.COMPLETED) {
+                break;
+            }
+            Thread.sleep(20);
+        }
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getStatus()).isEqualTo(Transaction.Status.COMPLETED);
+        assertThat(recentActivity.recent(source.getId(), 3)).hasSize(1);
+    }
+
+    @Test
+    void onFailed_shouldNotCreateListForUnloadedAccount() throws InterruptedException {
+        // Arrange
+        final var withdrawal = transactionService.createTransaction(source, null, Transaction.Type.WITHDRAWAL, 20L);
+
+        // Act
+        withdrawal.fail("boom");
+        eventPublisher.publishEvent(new TransactionFailedEvent(withdrawal));
+        Thread.sleep(100);
+
+        // Assert
+        assertThat(recentActivity.recent(source.getId(), 3)).isNull();
+    }
+
+    @Test
+    void recent_shouldBeCappedAtCapacity() throws InterruptedException {
+        // Arrange
+        transactionQueryService.getRecentActivity(source.getId(), 3);
+        assertThat(recentActivity.recent(source.getId(), 3)).isEmpty();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            final var deposit = transactionService.createTransaction(source, null, Transaction.Type.DEPOSIT, 10L + i);
+            deposit.markCompleted();
+            eventPublisher.publishEvent(new TransactionCompletedEvent(deposit));
+        }
+        Thread.sleep(100);
+
+        // Assert
+        assertThat(redissonClient.getList("rbcs:activity:" + source.getId()).size()).isEqualTo(3);
+        assertThat(recentActivity.recent(source.getId(), 3)).extracting(TransactionRepository.HistoryRow::getAmount)
+                .containsExactly(14L, 13L, 12L);
+    }
+
+    /**
+     * 查询数据库期间交易完成（列表不存在，追加被跳过），读到的旧状态不能回填
+     */
+    @Test
+    void load_shouldBeSkippedWhenTransactionCompletedDuringQuery() throws InterruptedException {
+        // Arrange
+        final var deposit = transactionService.createTransaction(source, null, Transaction.Type.DEPOSIT, 10L);
+        final var token = recentActivity.loadToken(source.getId());
+        final var stale = transactionQueryService.getAccountHistory(source.getId(), null, 3).rows();
+
+        // Act
+        deposit.markCompleted();
+        eventPublisher.publishEvent(new TransactionCompletedEvent(deposit));
+        Thread.sleep(100);
+        final var loaded = recentActivity.load(source.getId(), token, stale);
+
+        // Assert
+        assertThat(loaded).isFalse();
+        assertThat(recentActivity.recent(source.getId(), 3)).isNull();
+        assertThat(recentActivity.load(source.getId(), recentActivity.loadToken(source.getId()), stale)).isTrue();
+    }
+
+    @Test
+    void onCompleted_rolledBackTransactionShouldNotBePushed() throws InterruptedException {
+        // Arrange
+        transactionQueryService.getRecentActivity(source.getId(), 3);
+        final var deposit = transactionService.createTransaction(source, null, Transaction.Type.DEPOSIT, 10L);
+        final var token = recentActivity.loadToken(source.getId());
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            deposit.markCompleted();
+            eventPublisher.publishEvent(new TransactionCompletedEvent(deposit));
+            status.setRollbackOnly();
+        });
+        Thread.sleep(100);
+
+        // Assert
+        assertThat(recentActivity.recent(source.getId(), 3)).isEmpty();
+        assertThat(recentActivity.loadToken(source.getId())).isEqualTo(token);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.rbcs.infrastructure.archive;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.defer.Defers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"rbcs.archive.enabled=true", "rbcs.archive.batch-size=2", "rbcs.archive.batch-pause-millis=0"})
+@ActiveProfiles("test")
+class TransactionArchiverTest {
+
+    @Autowired
+    private TransactionArchiver transactionArchiver;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ArchivedTransactionRepository archivedTransactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArchiveProperties properties;
+
+    @MockitoBean
+    private Defers defers;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = new Account();
+        account.activate();
+        account.setAccountNumber("1234567890");
+        accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        properties.setBatchPauseMillis(0);
+        properties.setMaxBatchesPerRun(200);
+        properties.setMaxRunMillis(60_000);
+        archivedTransactionRepository.deleteAllInBatch();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void archiveBefore_shouldMoveOnlyTerminalTransactionsInBatches() throws InterruptedException {
+        // Arrange
+        final List<Long> terminal = new ArrayList<>();
+        for (Transaction.Status status : List.of(Transaction.Status.COMPLETED, Transaction.Status.FAILED,
+                Transaction.Status.CANCELLED, Transaction.Status.ROLLBACK, Transaction.Status.COMPLETED)) {
+            final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+            jdbcTemplate.update("update transaction set status = ? where id = ?", status.name(), transaction.getId());
+            terminal.add(transaction.getId());
+        }
+        final var pending = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+
+        // Act
+        final var archived = transactionArchiver.archiveBefore(new Date(System.currentTimeMillis() + 60_000));
+
+        // Assert
+        assertThat(archived).isEqualTo(5);
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getId).containsExactly(pending.getId());
+        assertThat(archivedTransactionRepository.findAllById(terminal)).hasSize(5)
+                .allMatch(transaction -> transaction.getSourceAccountId().equals(account.getId()) && transaction.getArchivedAt() != null);
+    }
+
+    @Test
+    void archiveBefore_shouldKeepRecentTransactions() throws InterruptedException {
+        // Arrange
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        jdbcTemplate.update("update transaction set status = ? where id = ?", Transaction.Status.COMPLETED.name(), transaction.getId());
+
+        // Act
+        final var archived = transactionArchiver.archiveBefore(new Date(System.currentTimeMillis() - 60_000));
+
+        // Assert
+        assertThat(archived).isZero();
+        assertThat(transactionRepository.existsById(transaction.getId())).isTrue();
+    }
+
+    private List<Long> createCompleted(int count) {
+        final List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+            jdbcTemplate.update("update transaction set status = ? where id = ?", Transaction.Status.COMPLETED.name(), transaction.getId());
+            ids.add(transaction.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void archiveBefore_shouldPauseBetweenBatches() throws InterruptedException {
+        // Arrange
+        createCompleted(5);
+        properties.setBatchPauseMillis(150);
+        final var startedAt = System.currentTimeMillis();
+
+        // Act
+        final var archived = transactionArchiver.archiveBefore(new Date(System.currentTimeMillis() + 60_000));
+
+        // Assert: 3批之间停顿2次，最后一批不满不再停顿
+        assertThat(archived).isEqualTo(5);
+        assertThat(System.currentTimeMillis() - startedAt).isGreaterThanOrEqualTo(300);
+    }
+
+    @Test
+    void archiveBefore_shouldStopAtMaxBatchesPerRun() throws InterruptedException {
+        // Arrange
+        final var ids = createCompleted(5);
+        properties.setMaxBatchesPerRun(2);
+
+        // Act
+        final var archived = transactionArchiver.archiveBefore(new Date(System.currentTimeMillis() + 60_000));
+
+        // Assert: 按ID顺序迁移前两批，剩下的留到下一轮
+        assertThat(archived).isEqualTo(4);
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getId).containsExactly(ids.get(4));
+    }
+
+    @Test
+    void archiveBefore_shouldStopAtMaxRunTime() throws InterruptedException {
+        // Arrange
+        createCompleted(5);
+        properties.setBatchPauseMillis(200);
+        properties.setMaxRunMillis(100);
+
+        // Act
+        final var archived = transactionArchiver.archiveBefore(new Date(System.currentTimeMillis() + 60_000));
+
+        // Assert: 第一批后的停顿已超过最长运行时间，不再开始第二批
+        assertThat(archived).isEqualTo(2);
+        assertThat(transactionRepository.count()).isEqualTo(3);
+    }
+}
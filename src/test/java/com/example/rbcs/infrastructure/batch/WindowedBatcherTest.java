@@ -0,0 +1,82 @@
+package com.example.rbcs.infrastructure.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WindowedBatcherTest {
+
+    private WindowedBatcher<Long, Integer> batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void submit_shouldGroupItemsByKeyWithinWindow() {
+        // Arrange
+        final Map<Long, List<List<Integer>>> flushed = new ConcurrentHashMap<>();
+        batcher = new WindowedBatcher<>("test", 100, 100, 2, record(flushed));
+
+        // Act
+        final var futures = List.of(
+                batcher.submit(1L, 1),
+                batcher.submit(2L, 2),
+                batcher.submit(1L, 3));
+        futures.forEach(future -> future.orTimeout(5, TimeUnit.SECONDS).join());
+
+        // Assert
+        assertThat(flushed.get(1L)).containsExactly(List.of(1, 3));
+        assertThat(flushed.get(2L)).containsExactly(List.of(2));
+    }
+
+    @Test
+    void submit_shouldFlushImmediatelyWhenBatchIsFull() {
+        // Arrange
+        final Map<Long, List<List<Integer>>> flushed = new ConcurrentHashMap<>();
+        batcher = new WindowedBatcher<>("test", 60_000, 2, 1, record(flushed));
+
+        // Act
+        batcher.submit(1L, 1);
+        batcher.submit(1L, 2).orTimeout(5, TimeUnit.SECONDS).join();
+
+        // Assert
+        assertThat(flushed.get(1L)).containsExactly(List.of(1, 2));
+    }
+
+    @Test
+    void submit_shouldPropagateHandlerFailureToWholeBatch() {
+        // Arrange
+        batcher = new WindowedBatcher<>("test", 50, 100, 1, (key, items) -> {
+            throw new IllegalStateException("boom");
+        });
+
+        // Act
+        final var first = batcher.submit(1L, 1);
+        final var second = batcher.submit(1L, 2);
+
+        // Assert
+        assertThatThrownBy(() -> first.orTimeout(5, TimeUnit.SECONDS).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> second.orTimeout(5, TimeUnit.SECONDS).join())
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private static BiConsumer<Long, List<Integer>> record(Map<Long, List<List<Integer>>> flushed) {
+        return (key, items) -> flushed.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+                .add(List.copyOf(items));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.rbcs.infrastructure.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 集群账户归属测试，使用测试环境的本地redis，每个AccountOwnership实例模拟一个节点
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountOwnershipTest {
+    private static final long LEASE_MILLIS = 300;
+    private static final long HEARTBEAT_MILLIS = 100;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    private AccountOwnership nodeA;
+    private AccountOwnership nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new AccountOwnership(properties("test-node-a"), redissonClient);
+        nodeB = new AccountOwnership(properties("test-node-b"), redissonClient);
+        nodeA.join();
+        nodeB.join();
+        nodeA.heartbeat();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.leave();
+        nodeB.leave();
+    }
+
+    private static ClusterProperties properties(String nodeId) {
+        final var properties = new ClusterProperties();
+        properties.setNodeId(nodeId);
+        properties.setLeaseMillis(LEASE_MILLIS);
+        properties.setHeartbeatMillis(HEARTBEAT_MILLIS);
+        properties.setVirtualNodes(16);
+        return properties;
+    }
+
+    @Test
+    void heartbeat_nodesShouldAgreeOnOwnersAfterLease() throws InterruptedException {
+        // Act
+        final var unstable = nodeA.isLocal(1L) || nodeB.isLocal(1L);
+        Thread.sleep(LEASE_MILLIS + 50);
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+
+        // Assert
+        assertThat(unstable).isFalse();
+        assertThat(nodeA.isStable()).isTrue();
+        assertThat(nodeB.isStable()).isTrue();
+        final var owners = LongStream.rangeClosed(1, 100).mapToObj(nodeA::ownerOf).toList();
+        assertThat(LongStream.rangeClosed(1, 100).mapToObj(nodeB::ownerOf).toList()).isEqualTo(owners);
+        assertThat(owners).contains("test-node-a", "test-node-b");
+        for (long accountId = 1; accountId <= 100; accountId++) {
+            assertThat(nodeA.isLocal(accountId)).isNotEqualTo(nodeB.isLocal(accountId));
+        }
+    }
+
+    @Test
+    void isLocal_shouldRequireAllAccountsOwned() throws InterruptedException {
+        // Arrange
+        Thread.sleep(LEASE_MILLIS + 50);
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        long ownedByA = 1;
+        while (!"test-node-a".equals(nodeA.ownerOf(ownedByA))) {
+            ownedByA++;
+        }
+        long ownedByB = 1;
+        while (!"test-node-b".equals(nodeA.ownerOf(ownedByB))) {
+            ownedByB++;
+        }
+
+        // Act & Assert
+        assertThat(nodeA.isLocal(List.of(ownedByA))).isTrue();
+        assertThat(nodeA.isLocal(List.of(ownedByA, ownedByB))).isFalse();
+        assertThat(nodeB.isLocal(List.of(ownedByA, ownedByB))).isFalse();
+        assertThat(nodeA.commonOwnerOf(List.of(ownedByA, ownedByB))).isNull();
+        assertThat(nodeA.commonOwnerOf(List.of(ownedByB))).isEqualTo("test-node-b");
+    }
+
+    @Test
+    void heartbeat_expiredNodeShouldDepart() throws InterruptedException {
+        // Arrange
+        Thread.sleep(LEASE_MILLIS + 50);
+        nodeA.heartbeat();
+        assertThat(nodeA.isStable()).isTrue();
+
+        // Act: 节点B不再续约
+        Thread.sleep(LEASE_MILLIS + 100);
+        nodeA.heartbeat();
+
+        // Assert
+        assertThat(nodeA.departedMembers()).containsExactly("test-node-b");
+        assertThat(nodeA.isStable()).isFalse();
+        assertThat(LongStream.rangeClosed(1, 100).mapToObj(nodeA::ownerOf)).containsOnly("test-node-a");
+    }
+
+    @Test
+    void isStable_shouldStopLocalExecutionWhenOwnLeaseIsAboutToExpire() throws InterruptedException {
+        // Arrange
+        Thread.sleep(LEASE_MILLIS + 50);
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        long ownedByA = 1;
+        while (!"test-node-a".equals(nodeA.ownerOf(ownedByA))) {
+            ownedByA++;
+        }
+        assertThat(nodeA.isLocal(ownedByA)).isTrue();
+
+        // Act: 节点A的心跳停滞，租约剩余不足一个心跳间隔
+        Thread.sleep(LEASE_MILLIS - HEARTBEAT_MILLIS + 50);
+
+        // Assert
+        assertThat(nodeA.isStable()).isFalse();
+        assertThat(nodeA.isLocal(ownedByA)).isFalse();
+    }
+}
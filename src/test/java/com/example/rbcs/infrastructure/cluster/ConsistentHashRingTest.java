@@ -0,0 +1,52 @@
+package com.example.rbcs.infrastructure.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    @Test
+    void ownerOf_shouldReturnNull_whenRingEmpty() {
+        assertThat(new ConsistentHashRing(List.of(), 16).ownerOf(1L)).isNull();
+    }
+
+    @Test
+    void ownerOf_shouldBeDeterministic() {
+        final var ring = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+        final var another = new ConsistentHashRing(List.of("c", "a", "b"), 64);
+        for (long id = 1; id <= 1000; id++) {
+            assertThat(ring.ownerOf(id)).isEqualTo(another.ownerOf(id));
+        }
+    }
+
+    @Test
+    void ownerOf_shouldSpreadAccountsAcrossMembers() {
+        final var ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= 30000; id++) {
+            counts.merge(ring.ownerOf(id), 1, Integer::sum);
+        }
+        assertThat(counts).containsOnlyKeys("a", "b", "c");
+        counts.values().forEach(count -> assertThat(count).isBetween(5000, 15000));
+    }
+
+    /**
+     * 新增节点时，只有迁移到新节点的账户归属发生变化
+     */
+    @Test
+    void ownerOf_shouldOnlyMoveAccountsToNewMember() {
+        final var before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        final var after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+        for (long id = 1; id <= 10000; id++) {
+            final var owner = after.ownerOf(id);
+            if (!owner.equals(before.ownerOf(id))) {
+                assertThat(owner).isEqualTo("d");
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.rbcs.infrastructure.cluster;
+
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import com.example.rbcs.infrastructure.lock.ContentionRequeuer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 交易转发测试，使用测试环境的本地redis
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionForwarderTest {
+    private static final String NODE_ID = "test-forward";
+    private static final String DEPARTED_NODE_ID = "test-departed";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    private final AccountOwnership ownership = mock(AccountOwnership.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private TransactionForwarder forwarder;
+
+    @BeforeEach
+    void setUp() {
+        when(ownership.getNodeId()).thenReturn(NODE_ID);
+        when(ownership.departedMembers()).thenReturn(Set.of());
+        final var properties = new ClusterProperties();
+        properties.setInboxConsumers(1);
+        forwarder = new TransactionForwarder(ownership, redissonClient, eventPublisher, properties, mock(ContentionRequeuer.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        forwarder.stop();
+        redissonClient.getKeys().delete(
+                "rbcs:cluster:inbox:" + NODE_ID, "rbcs:cluster:processing:" + NODE_ID,
+                "rbcs:cluster:inbox:" + DEPARTED_NODE_ID, "rbcs:cluster:processing:" + DEPARTED_NODE_ID);
+    }
+
+    private int processingSize(String nodeId) {
+        return redissonClient.getQueue("rbcs:cluster:processing:" + nodeId, StringCodec.INSTANCE).size();
+    }
+
+    @Test
+    void forward_shouldExecuteAndAcknowledge() throws InterruptedException {
+        // Arrange
+        forwarder.start();
+
+        // Act
+        forwarder.forward(NODE_ID, 42L);
+
+        // Assert
+        verify(eventPublisher, timeout(3000)).publishEvent(new TransactionExecuteRequest(42L));
+        Thread.sleep(100);
+        assertThat(processingSize(NODE_ID)).isZero();
+    }
+
+    @Test
+    void failedExecution_shouldBeRedelivered() throws InterruptedException {
+        // Arrange
+        doThrow(new IllegalStateException("boom")).doNothing().when(eventPublisher).publishEvent(any(Object.class));
+        forwarder.start();
+
+        // Act
+        forwarder.forward(NODE_ID, 43L);
+
+        // Assert
+        verify(eventPublisher, timeout(3000).times(2)).publishEvent(new TransactionExecuteRequest(43L));
+        Thread.sleep(100);
+        assertThat(processingSize(NODE_ID)).isZero();
+        assertThat(redissonClient.getQueue("rbcs:cluster:inbox:" + NODE_ID, StringCodec.INSTANCE).size()).isZero();
+    }
+
+    @Test
+    void failedExecution_shouldBeDroppedAfterMaxAttempts() {
+        // Arrange
+        doThrow(new IllegalStateException("boom")).when(eventPublisher).publishEvent(any(Object.class));
+        forwarder.start();
+
+        // Act
+        forwarder.forward(NODE_ID, 44L);
+
+        // Assert
+        verify(eventPublisher, timeout(5000).times(TransactionForwarder.MAX_ATTEMPTS)).publishEvent(new TransactionExecuteRequest(44L));
+    }
+
+    @Test
+    void start_shouldRedriveUnfinishedMessages() {
+        // Arrange: 上次运行中取出但没有执行完的消息
+        redissonClient.getQueue("rbcs:cluster:processing:" + NODE_ID, StringCodec.INSTANCE).offer("45:trace:0");
+
+        // Act
+        forwarder.start();
+
+        // Assert
+        verify(eventPublisher, timeout(3000)).publishEvent(new TransactionExecuteRequest(45L));
+    }
+
+    @Test
+    void takeOverDepartedInboxes_shouldMoveQueuedAndUnfinishedMessages() {
+        // Arrange
+        doNothing().when(eventPublisher).publishEvent(any(Object.class));
+        when(ownership.departedMembers()).thenReturn(Set.of(DEPARTED_NODE_ID));
+        forwarder.forward(DEPARTED_NODE_ID, 46L);
+        redissonClient.getQueue("rbcs:cluster:processing:" + DEPARTED_NODE_ID, StringCodec.INSTANCE).offer("47:trace:0");
+        forwarder.start();
+
+        // Act
+        forwarder.takeOverDepartedInboxes();
+
+        // Assert
+        verify(eventPublisher, timeout(3000)).publishEvent(new TransactionExecuteRequest(46L));
+        verify(eventPublisher, timeout(3000)).publishEvent(new TransactionExecuteRequest(47L));
+        assertThat(processingSize(DEPARTED_NODE_ID)).isZero();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.rbcs.infrastructure.dedup;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.event.TransactionCompletedEvent;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionServiceImpl;
+import com.example.rbcs.infrastructure.defer.Defers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "rbcs.dedup.enabled=true")
+@ActiveProfiles("test")
+class ExecutionDeduplicatorTest {
+
+    @Autowired
+    private ExecutionDeduplicator deduplicator;
+
+    @Autowired
+    private TransactionServiceImpl transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private Defers defers;
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().delete("rbcs:dedup:transactions");
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        redissonClient.getKeys().delete("rbcs:dedup:transactions");
+    }
+
+    @Test
+    void tryBegin_inFlightShouldBeSuppressedUntilEnd() {
+        // Arrange
+        assertThat(deduplicator.tryBegin(-1L)).isTrue();
+        assertThat(deduplicator.tryBegin(-1L)).isFalse();
+
+        // Act
+        deduplicator.end(-1L);
+
+        // Assert
+        assertThat(deduplicator.tryBegin(-1L)).isTrue();
+        deduplicator.end(-1L);
+    }
+
+    /**
+     * 事务回滚时不写入已完成标记，执行中标记在回滚后清除，交易可以再次执行
+     */
+    @Test
+    void tryBegin_rolledBackExecutionShouldBeAllowedAgain() {
+        // Arrange
+        final var transaction = Transaction.builder().id(-3L).build();
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(deduplicator.tryBegin(-3L)).isTrue();
+            eventPublisher.publishEvent(new TransactionCompletedEvent(transaction));
+            deduplicator.end(-3L);
+            // 事务结束前仍视为执行中
+            assertThat(deduplicator.tryBegin(-3L)).isFalse();
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertThat(deduplicator.tryBegin(-3L)).isTrue();
+        deduplicator.end(-3L);
+    }
+
+    @Test
+    void tryBegin_committedExecutionShouldBeSuppressed() {
+        // Arrange
+        final var transaction = Transaction.builder().id(-4L).build();
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(deduplicator.tryBegin(-4L)).isTrue();
+            eventPublisher.publishEvent(new TransactionCompletedEvent(transaction));
+            deduplicator.end(-4L);
+        });
+
+        // Assert
+        assertThat(deduplicator.tryBegin(-4L)).isFalse();
+    }
+
+    @Test
+    void tryBegin_completedShouldBeSuppressed() {
+        // Arrange
+        final var transaction = Transaction.builder().id(-2L).build();
+        final var suppressed = meterRegistry.counter("rbcs.dedup.suppressed", "state", "completed", "level", "local");
+        final var before = suppressed.count();
+
+        // Act
+        deduplicator.onCompleted(new TransactionCompletedEvent(transaction));
+
+        // Assert
+        assertThat(deduplicator.tryBegin(-2L)).isFalse();
+        assertThat(suppressed.count() - before).isEqualTo(1);
+    }
+
+    @Test
+    void executeTransactions_duplicatesInBatchShouldBeHandledWithoutExecution() {
+        // Arrange
+        final var account = new Account();
+        account.activate();
+        account.setBalance(1000L);
+        account.setAccountNumber("1234567890");
+        accountRepository.save(account);
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        assertThat(deduplicator.tryBegin(transaction.getId())).isTrue();
+
+        // Act: 另一个线程正在执行该交易时收到重复的批量请求
+        final var handled = transactionService.executeTransactions(List.of(transaction.getId()));
+        deduplicator.end(transaction.getId());
+
+        // Assert
+        assertThat(handled).containsExactly(transaction.getId());
+        assertThat(transactionRepository.findById(transaction.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.PENDING);
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualTo(1000L);
+    }
+}
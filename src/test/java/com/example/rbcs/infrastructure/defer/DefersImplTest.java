@@ -0,0 +1,56 @@
+package com.example.rbcs.infrastructure.defer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DefersImplTest {
+
+    @Autowired
+    private Defers defers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void committedTransaction_shouldRunBothDefers() {
+        // Arrange
+        final List<String> executed = new ArrayList<>();
+
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            defers.deferOnTransactionComplete(() -> executed.add("complete"));
+            defers.deferOnTransactionCommit(() -> executed.add("commit"));
+            assertThat(executed).isEmpty();
+        });
+
+        // Assert
+        assertThat(executed).containsExactlyInAnyOrder("complete", "commit");
+    }
+
+    @Test
+    void rolledBackTransaction_shouldDiscardCommitDefers() {
+        // Arrange
+        final List<String> executed = new ArrayList<>();
+
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            defers.deferOnTransactionComplete(() -> executed.add("complete"));
+            defers.deferOnTransactionCommit(() -> executed.add("commit"));
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertThat(executed).containsExactly("complete");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.rbcs.infrastructure.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+    private static final long EPOCH = 1_704_067_200_000L;
+
+    @Test
+    void nextId_shouldEncodeTimestampAndWorker() {
+        // Arrange
+        final var now = EPOCH + 123_456L;
+        final var generator = new SnowflakeIdGenerator(() -> 513, EPOCH, 10, () -> now);
+
+        // Act
+        final var id = generator.nextId();
+
+        // Assert
+        assertThat(id).isPositive();
+        assertThat(generator.timestampOf(id)).isEqualTo(now);
+        assertThat((id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & (WorkerIdLease.MAX_WORKERS - 1)).isEqualTo(513);
+    }
+
+    @Test
+    void nextId_shouldIncreaseWithinAndAcrossMilliseconds() {
+        // Arrange
+        final var clock = new AtomicLong(EPOCH + 1);
+        final var generator = new SnowflakeIdGenerator(() -> 1, EPOCH, 10, clock::get);
+
+        // Act & Assert
+        var previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 100 == 0) {
+                clock.incrementAndGet();
+            }
+            final var id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_shouldWaitForNextMillisecondWhenSequenceExhausted() {
+        // Arrange
+        final var clock = new AtomicLong(EPOCH + 1);
+        final var calls = new AtomicLong();
+        // 每调用一定次数时钟才前进，模拟同一毫秒内的大量请求
+        final var generator = new SnowflakeIdGenerator(() -> 1, EPOCH, 10,
+                () -> calls.incrementAndGet() % 10_000 == 0 ? clock.incrementAndGet() : clock.get());
+
+        // Act
+        final Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // Assert
+        assertThat(ids).hasSize(20_000);
+        assertThat(clock.get()).isGreaterThan(EPOCH + 1);
+    }
+
+    @Test
+    void nextId_shouldRefuseLargeClockBackward() {
+        // Arrange
+        final var clock = new AtomicLong(EPOCH + 1_000);
+        final var generator = new SnowflakeIdGenerator(() -> 1, EPOCH, 10, clock::get);
+        generator.nextId();
+
+        // Act
+        clock.addAndGet(-100);
+
+        // Assert
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nextId_concurrentCallsShouldBeUnique() throws InterruptedException {
+        // Arrange
+        final var generator = new SnowflakeIdGenerator(() -> 7, EPOCH, 10, System::currentTimeMillis);
+        int threadCount = 8;
+        int perThread = 20_000;
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    for (int j = 0; j < perThread; j++) {
+                        ids.add(generator.nextId());
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(ids).hasSize(threadCount * perThread);
+    }
+
+    /**
+     * 低并发时每毫秒只生成一个ID，按ID取模分片也要分布均匀
+     */
+    @Test
+    void nextId_lowBitsShouldSpreadAcrossShards() {
+        // Arrange
+        final var clock = new AtomicLong(EPOCH);
+        final var generator = new SnowflakeIdGenerator(() -> 3, EPOCH, 10, clock::get);
+        final var shards = new int[16];
+
+        // Act
+        for (int i = 0; i < 1_600; i++) {
+            clock.incrementAndGet();
+            shards[(int) Math.floorMod(generator.nextId(), 16L)]++;
+        }
+
+        // Assert
+        for (int count : shards) {
+            assertThat(count).isGreaterThan(0);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.rbcs.infrastructure.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 节点号租约测试，使用测试环境的本地redis，租约不启动续约线程，由测试手动续约并控制本地时钟
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WorkerIdLeaseTest {
+    private static final String KEY_PREFIX = "rbcs:id:worker:";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final List<WorkerIdLease> leases = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        leases.forEach(WorkerIdLease::release);
+    }
+
+    private WorkerIdLease newLease() {
+        final var properties = new IdGeneratorProperties();
+        properties.setWorkerLeaseMillis(30_000);
+        properties.setWorkerRenewMillis(100);
+        final var lease = new WorkerIdLease(redissonClient, properties, clock::get);
+        leases.add(lease);
+        return lease;
+    }
+
+    private String ownerOf(int workerId) {
+        return redissonClient.<String>getBucket(KEY_PREFIX + workerId, StringCodec.INSTANCE).get();
+    }
+
+    @Test
+    void acquire_shouldLeaseDistinctWorkers() {
+        // Act
+        final var first = newLease();
+        final var second = newLease();
+
+        // Assert
+        assertThat(first.getWorkerId()).isNotEqualTo(second.getWorkerId());
+        assertThat(ownerOf(first.getWorkerId())).isNotNull().isNotEqualTo(ownerOf(second.getWorkerId()));
+    }
+
+    @Test
+    void renew_shouldExtendLocalLease() {
+        // Arrange
+        final var lease = newLease();
+        final var workerId = lease.getWorkerId();
+        clock.addAndGet(20_000);
+
+        // Act
+        lease.renew();
+        clock.addAndGet(20_000);
+
+        // Assert: 距离租用已超过租期，但续约后仍然有效
+        assertThat(lease.getWorkerId()).isEqualTo(workerId);
+        assertThat(redissonClient.getBucket(KEY_PREFIX + workerId).remainTimeToLive()).isPositive();
+    }
+
+    @Test
+    void getWorkerId_expiredLeaseShouldBeRefused() {
+        // Arrange
+        final var lease = newLease();
+
+        // Act
+        clock.addAndGet(30_000);
+
+        // Assert
+        assertThatThrownBy(lease::getWorkerId).isInstanceOf(IllegalStateException.class);
+        lease.renew();
+        assertThat(lease.getWorkerId()).isNotNegative();
+    }
+
+    @Test
+    void renew_lostLeaseShouldSwitchToAnotherWorker() {
+        // Arrange
+        final var lease = newLease();
+        final var lost = lease.getWorkerId();
+        // 模拟租约过期后节点号被其他节点租用
+        redissonClient.getBucket(KEY_PREFIX + lost, StringCodec.INSTANCE).set("other-instance");
+
+        // Act
+        lease.renew();
+
+        // Assert
+        assertThat(lease.getWorkerId()).isNotEqualTo(lost);
+        assertThat(ownerOf(lost)).isEqualTo("other-instance");
+        redissonClient.getBucket(KEY_PREFIX + lost).delete();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.rbcs.infrastructure.lock;
+
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentionRequeuerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LockProperties properties;
+    private ContentionRequeuer requeuer;
+    private ApplicationEventPublisher eventPublisher = event -> {
+    };
+
+    @BeforeEach
+    void setUp() {
+        properties = new LockProperties();
+        properties.setRequeueBaseDelayMillis(10);
+        properties.setRequeueMaxDelayMillis(100);
+        requeuer = new ContentionRequeuer(properties, event -> eventPublisher.publishEvent(event), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requeuer.shutdown();
+    }
+
+    @Test
+    void nextDelayMillis_shouldGrowExponentiallyWithinCap() {
+        assertThat(requeuer.nextDelayMillis("sqs", 1)).isBetween(10L, 15L);
+        assertThat(requeuer.nextDelayMillis("sqs", 3)).isBetween(40L, 60L);
+        assertThat(requeuer.nextDelayMillis("sqs", 64)).isEqualTo(100L);
+        assertThat(meterRegistry.counter("rbcs.lock.requeue", "via", "sqs").count()).isEqualTo(3);
+        assertThat(meterRegistry.summary("rbcs.lock.requeue.delay", "via", "sqs").count()).isEqualTo(3);
+    }
+
+    @Test
+    void requeueLocally_shouldRetryUntilLockIsAvailable() throws InterruptedException {
+        // Arrange
+        final var attempts = new AtomicInteger();
+        final var executed = new CountDownLatch(1);
+        eventPublisher = event -> {
+            assertThat(event).isEqualTo(new TransactionExecuteRequest(42L));
+            if (attempts.incrementAndGet() < 3) {
+                throw new AccountLockContendedException(42L, List.of(1L));
+            }
+            executed.countDown();
+        };
+
+        // Act
+        requeuer.requeueLocally(42L, 1);
+
+        // Assert
+        assertThat(executed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.counter("rbcs.lock.requeue", "via", "local").count()).isEqualTo(3);
+    }
+}
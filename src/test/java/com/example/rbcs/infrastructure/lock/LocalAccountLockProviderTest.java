@@ -0,0 +1,80 @@
+package com.example.rbcs.infrastructure.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalAccountLockProviderTest {
+
+    @Test
+    void executeWithLock_crossOrderShouldNotDeadlock() throws InterruptedException {
+        // Arrange
+        final var properties = new LockProperties();
+        properties.setStripes(16);
+        final var provider = new LocalAccountLockProvider(properties);
+        int threadCount = 500;
+        final var running = new AtomicInteger();
+        final var maxRunning = new AtomicInteger();
+        final var executed = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(50);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            final var accounts = i % 2 == 0 ? List.of(1L, 2L) : List.of(2L, 1L);
+            executorService.submit(() -> {
+                try {
+                    provider.executeWithLock(accounts, () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        executed.incrementAndGet();
+                        running.decrementAndGet();
+                    });
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        // Assert
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        executorService.shutdown();
+        assertThat(executed.get()).isEqualTo(threadCount);
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    void executeWithLock_shouldGiveUpAfterWaitTime() throws InterruptedException {
+        // Arrange
+        final var properties = new LockProperties();
+        properties.setWaitMillis(50);
+        final var provider = new LocalAccountLockProvider(properties);
+        final var holding = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var holder = new Thread(() -> provider.executeWithLock(List.of(1L), () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        holding.await();
+
+        // Act
+        final var executed = provider.executeWithLock(List.of(1L), () -> {
+        });
+
+        // Assert
+        assertThat(executed).isFalse();
+        release.countDown();
+        holder.join();
+    }
+}
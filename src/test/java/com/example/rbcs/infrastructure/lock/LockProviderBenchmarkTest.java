@@ -0,0 +1,159 @@
+package com.example.rbcs.infrastructure.lock;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionServiceImpl;
+import com.example.rbcs.infrastructure.defer.Defers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 各账户锁实现在热点竞争下的吞吐与尾延迟对比
+ * 每个实现启动一个独立的上下文，运行方式: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class LockProviderBenchmarkTest {
+    private static final int ACCOUNT_COUNT = 4;
+    private static final int TRANSACTION_COUNT = 2000;
+    private static final int THREAD_COUNT = 32;
+
+    @Nested
+    @SpringBootTest(properties = "rbcs.lock.provider=redisson")
+    @ActiveProfiles("test")
+    class Redisson extends Workload {
+    }
+
+    @Nested
+    @SpringBootTest(properties = "rbcs.lock.provider=lua")
+    @ActiveProfiles("test")
+    class Lua extends Workload {
+    }
+
+    @Nested
+    @SpringBootTest(properties = "rbcs.lock.provider=database")
+    @ActiveProfiles("test")
+    class Database extends Workload {
+    }
+
+    @Nested
+    @SpringBootTest(properties = "rbcs.lock.provider=local")
+    @ActiveProfiles("test")
+    class Local extends Workload {
+    }
+
+    @Nested
+    @SpringBootTest(properties = "rbcs.lock.provider=optimistic")
+    @ActiveProfiles("test")
+    class Optimistic extends Workload {
+    }
+
+    abstract static class Workload {
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private TransactionServiceImpl transactionService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private AccountLockProvider accountLockProvider;
+
+        @MockitoBean
+        private ApplicationEventPublisher eventPublisher;
+
+        @MockitoBean
+        private Defers defers;
+
+        private final List<Account> accounts = new ArrayList<>();
+
+        @BeforeEach
+        void setUp() {
+            for (int i = 0; i < ACCOUNT_COUNT; i++) {
+                final var account = new Account();
+                account.activate();
+                account.setBalance(1_000_000L);
+                account.setAccountNumber("bench-" + i);
+                accounts.add(accountRepository.save(account));
+            }
+        }
+
+        @AfterEach
+        void tearDown() {
+            transactionRepository.deleteAll();
+            accountRepository.deleteAll();
+            accounts.clear();
+        }
+
+        @Test
+        void transfer() throws InterruptedException {
+            // Arrange
+            final List<Long> transactionIds = new ArrayList<>();
+            for (int i = 0; i < TRANSACTION_COUNT; i++) {
+                final var source = accounts.get(i % ACCOUNT_COUNT);
+                final var target = accounts.get((i + 1) % ACCOUNT_COUNT);
+                transactionIds.add(transactionService.createTransaction(source, target, Transaction.Type.TRANSFER, 1L).getId());
+            }
+            final var latencies = new long[TRANSACTION_COUNT];
+            CountDownLatch latch = new CountDownLatch(TRANSACTION_COUNT);
+            ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+
+            // Act
+            final var start = System.nanoTime();
+            for (int i = 0; i < TRANSACTION_COUNT; i++) {
+                final var index = i;
+                executorService.submit(() -> {
+                    final var begin = System.nanoTime();
+                    try {
+                        transactionService.executeTransaction(transactionIds.get(index));
+                    } catch (Exception e) {
+                        System.err.println("Error: " + e.getMessage());
+                    } finally {
+                        latencies[index] = System.nanoTime() - begin;
+                        latch.countDown();
+                    }
+                });
+            }
+            latch.await();
+            final var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            executorService.shutdown();
+
+            // Assert
+            Arrays.sort(latencies);
+            final var completed = transactionRepository.findAllById(transactionIds).stream()
+                    .filter(transaction -> transaction.getStatus() == Transaction.Status.COMPLETED)
+                    .count();
+            System.out.printf("[benchmark][%s] %d transfers, %d threads: %d ms, %.1f tps, p50 %.2f ms, p99 %.2f ms, max %.2f ms, completed: %d%n",
+                    accountLockProvider.getClass().getSimpleName(), TRANSACTION_COUNT, THREAD_COUNT, elapsedMillis,
+                    TRANSACTION_COUNT * 1000.0 / Math.max(elapsedMillis, 1),
+                    latencies[TRANSACTION_COUNT / 2] / 1e6,
+                    latencies[TRANSACTION_COUNT * 99 / 100] / 1e6,
+                    latencies[TRANSACTION_COUNT - 1] / 1e6,
+                    completed);
+            final var total = accountRepository.findAllById(accounts.stream().map(Account::getId).toList()).stream()
+                    .mapToLong(Account::getBalance)
+                    .sum();
+            assertThat(total).isEqualTo(ACCOUNT_COUNT * 1_000_000L);
+        }
+    }
+}
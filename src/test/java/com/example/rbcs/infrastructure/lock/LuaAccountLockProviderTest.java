@@ -0,0 +1,110 @@
+package com.example.rbcs.infrastructure.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Lua多账户锁测试
+ */
+@SpringBootTest(properties = "rbcs.lock.provider=lua")
+@ActiveProfiles("test")
+class LuaAccountLockProviderTest {
+
+    @Autowired
+    private LuaAccountLockProvider provider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void executeWithLock_crossOrderShouldRunSerially() throws InterruptedException {
+        // Arrange
+        int threadCount = 200;
+        final var running = new AtomicInteger();
+        final var maxRunning = new AtomicInteger();
+        final var executed = new AtomicInteger();
+        final var lastToken = new AtomicLong();
+        final var tokenRegressed = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            final var accounts = i % 2 == 0 ? List.of(101L, 102L) : List.of(102L, 101L);
+            executorService.submit(() -> {
+                try {
+                    provider.executeWithLock(accounts, () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        final var token = LuaAccountLockProvider.currentFencingToken();
+                        if (token <= lastToken.getAndSet(token)) {
+                            tokenRegressed.incrementAndGet();
+                        }
+                        executed.incrementAndGet();
+                        running.decrementAndGet();
+                    });
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        // Assert
+        assertThat(latch.await(60, TimeUnit.SECONDS)).isTrue();
+        executorService.shutdown();
+        assertThat(executed.get()).isEqualTo(threadCount);
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(tokenRegressed.get()).isZero();
+        assertThat(LuaAccountLockProvider.currentFencingToken()).isNull();
+    }
+
+    /**
+     * 无竞争时加锁和释放各一次往返
+     */
+    @Test
+    void executeWithLock_uncontendedShouldTakeTwoRoundTrips() {
+        // Arrange
+        final var calls = meterRegistry.counter("rbcs.lock.lua.redis.calls");
+        final var before = calls.count();
+
+        // Act
+        final var executed = provider.executeWithLock(List.of(201L, 202L, 203L), () -> {
+        });
+
+        // Assert
+        assertThat(executed).isTrue();
+        assertThat(calls.count() - before).isEqualTo(2);
+    }
+
+    @Test
+    void executeWithLock_nestedShouldRunForHeldAccountsAndRejectOthers() {
+        // Arrange
+        final var nested = new AtomicInteger();
+
+        // Act
+        final var executed = provider.executeWithLock(List.of(301L, 302L), () -> {
+            provider.executeWithLock(List.of(302L), nested::incrementAndGet);
+            assertThatThrownBy(() -> provider.executeWithLock(List.of(302L, 303L), nested::incrementAndGet))
+                    .isInstanceOf(IllegalStateException.class);
+        });
+
+        // Assert
+        assertThat(executed).isTrue();
+        assertThat(nested.get()).isEqualTo(1);
+        assertThat(provider.executeWithLock(List.of(302L, 303L), nested::incrementAndGet)).isTrue();
+        assertThat(nested.get()).isEqualTo(2);
+    }
+}
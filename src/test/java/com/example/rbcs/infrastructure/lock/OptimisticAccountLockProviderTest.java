@@ -0,0 +1,55 @@
+package com.example.rbcs.infrastructure.lock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticAccountLockProviderTest {
+
+    @Test
+    void executeWithLock_shouldRetryOnVersionConflict() {
+        // Arrange
+        final var provider = new OptimisticAccountLockProvider(new LockProperties());
+        final var attempts = new AtomicInteger();
+
+        // Act
+        final var executed = provider.executeWithLock(List.of(1L), () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Account", 1L);
+            }
+        });
+
+        // Assert
+        assertThat(executed).isTrue();
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    void executeWithLock_shouldGiveUpAfterMaxAttempts() {
+        // Arrange
+        final var properties = new LockProperties();
+        properties.setOptimisticAttempts(2);
+        final var provider = new OptimisticAccountLockProvider(properties);
+
+        // Act
+        final var executed = provider.executeWithLock(List.of(1L), () -> {
+            throw new ObjectOptimisticLockingFailureException("Account", 1L);
+        });
+
+        // Assert
+        assertThat(executed).isFalse();
+    }
+
+    @Test
+    void executeWithLock_shouldNotRetryOtherExceptions() {
+        final var provider = new OptimisticAccountLockProvider(new LockProperties());
+        assertThatThrownBy(() -> provider.executeWithLock(List.of(1L), () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+}
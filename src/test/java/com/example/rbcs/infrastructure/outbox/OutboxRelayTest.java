@@ -0,0 +1,186 @@
+package com.example.rbcs.infrastructure.outbox;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.recovery.PendingTransactionRecovery;
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "rbcs.outbox.enabled=true",
+        "rbcs.outbox.batch-size=2",
+        "rbcs.outbox.relay-interval-millis=3600000",
+        "rbcs.recovery.min-age-millis=0",
+        "rbcs.recovery.interval-millis=3600000"
+})
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private PendingTransactionRecovery recovery;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private OutboxProperties properties;
+
+    @MockitoBean
+    private TransactionPublisher transactionPublisher;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = new Account();
+        account.activate();
+        account.setBalance(1000L);
+        account.setAccountNumber("1234567890");
+        accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        properties.setMaxBatchesPerRun(20);
+        properties.setMaxRunMillis(5000);
+        redissonClient.getKeys().deleteByPattern("rbcs:recovery:*");
+        outboxMessageRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void createTransaction_shouldWriteOutboxMessage() {
+        // Act
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+
+        // Assert
+        assertThat(outboxMessageRepository.findAll())
+                .extracting(OutboxMessage::getTransactionId)
+                .containsExactly(transaction.getId());
+    }
+
+    @Test
+    void relay_shouldPublishAllMessagesAndDeleteThem() {
+        // Arrange
+        final var ids = List.of(
+                transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L).getId(),
+                transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 200L).getId(),
+                transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 300L).getId());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        // 每批最多2条，3条消息分两批投递
+        final ArgumentCaptor<List<TransactionPublisher.OutgoingMessage>> captor = ArgumentCaptor.captor();
+        verify(transactionPublisher, times(2)).publishBatch(captor.capture());
+        assertThat(captor.getAllValues().stream().flatMap(List::stream).map(TransactionPublisher.OutgoingMessage::transactionId))
+                .containsExactlyElementsOf(ids);
+        assertThat(outboxMessageRepository.count()).isZero();
+    }
+
+    @Test
+    void relay_shouldStopAfterMaxBatchesPerRun() {
+        // Arrange
+        properties.setMaxBatchesPerRun(1);
+        transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 200L);
+        transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 300L);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert: 本轮只中继一批，剩余的留到下一轮
+        verify(transactionPublisher, times(1)).publishBatch(anyList());
+        assertThat(outboxMessageRepository.count()).isEqualTo(1);
+        outboxRelay.relay();
+        assertThat(outboxMessageRepository.count()).isZero();
+    }
+
+    @Test
+    void relay_shouldStopAfterMaxRunMillis() {
+        // Arrange: 每批投递耗时超过单轮运行上限
+        properties.setMaxRunMillis(50);
+        transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 200L);
+        transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 300L);
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return null;
+        }).when(transactionPublisher).publishBatch(anyList());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(transactionPublisher, times(1)).publishBatch(anyList());
+        assertThat(outboxMessageRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_shouldKeepMessagesWhenPublishFailed() {
+        // Arrange
+        transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        doThrow(new IllegalStateException("sqs unavailable")).when(transactionPublisher).publishBatch(anyList());
+
+        // Act & Assert
+        assertThatThrownBy(() -> outboxRelay.relay()).isInstanceOf(IllegalStateException.class);
+        assertThat(outboxMessageRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void recover_shouldRedeliverPendingTransactionLostAfterRelay() {
+        // Arrange: 消息已经投递并从发件箱删除，但在消费环节丢失，交易仍处于pending
+        redissonClient.getKeys().deleteByPattern("rbcs:recovery:*");
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        outboxRelay.relay();
+        assertThat(outboxMessageRepository.count()).isZero();
+
+        // Act
+        final var recovered = recovery.recover();
+
+        // Assert
+        assertThat(recovered).isEqualTo(1);
+        final ArgumentCaptor<List<TransactionPublisher.OutgoingMessage>> captor = ArgumentCaptor.captor();
+        verify(transactionPublisher, times(2)).publishBatch(captor.capture());
+        assertThat(captor.getAllValues().get(1)).extracting(TransactionPublisher.OutgoingMessage::transactionId)
+                .containsExactly(transaction.getId());
+    }
+}
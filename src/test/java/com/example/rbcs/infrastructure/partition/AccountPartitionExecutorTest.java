@@ -0,0 +1,166 @@
+package com.example.rbcs.infrastructure.partition;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccountPartitionExecutorTest {
+
+    private AccountPartitionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        final var properties = new PartitionProperties();
+        properties.setCount(4);
+        properties.setQueueCapacity(100);
+        executor = new AccountPartitionExecutor(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_shouldReturnTaskResult() {
+        assertThat(executor.execute(List.of(1L), () -> 42)).isEqualTo(42);
+    }
+
+    @Test
+    void execute_shouldRethrowTaskException() {
+        assertThatThrownBy(() -> executor.execute(List.of(1L), (Runnable) () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+
+    @Test
+    void execute_sameAccountShouldRunSerially() throws InterruptedException {
+        // Arrange
+        int threadCount = 200;
+        final var running = new AtomicInteger();
+        final var maxRunning = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(50);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    executor.execute(List.of(7L), () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        running.decrementAndGet();
+                    });
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    /**
+     * 交叉方向的跨分区任务并发执行，不能出现死锁
+     */
+    @Test
+    void execute_crossPartitionTasksShouldNotDeadlock() throws InterruptedException {
+        // Arrange
+        long a = 1L;
+        long b = 2L;
+        while (executor.partitionOf(a) == executor.partitionOf(b)) {
+            b++;
+        }
+        final var pair = List.of(a, b);
+        final var reversed = List.of(b, a);
+        int threadCount = 500;
+        final var counter = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(50);
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            final var accounts = i % 2 == 0 ? pair : reversed;
+            executorService.submit(() -> {
+                try {
+                    executor.execute(accounts, counter::incrementAndGet);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        // Assert
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        executorService.shutdown();
+        assertThat(counter.get()).isEqualTo(threadCount);
+    }
+
+    private long accountInPartition(int partition) {
+        long accountId = 1L;
+        while (executor.partitionOf(accountId) != partition) {
+            accountId++;
+        }
+        return accountId;
+    }
+
+    /**
+     * 分区工作线程内提交跨分区任务：首个分区是当前分区时直接执行，首个分区编号更小时立即拒绝而不是死锁
+     */
+    @Test
+    void execute_nestedMultiPartitionTaskShouldRunInlineOrFailFast() {
+        // Arrange
+        final var lower = accountInPartition(0);
+        final var current = accountInPartition(1);
+        final var higher = accountInPartition(2);
+
+        // Act
+        final var inline = executor.execute(List.of(current), () -> executor.execute(List.of(current, higher), () -> 1));
+
+        // Assert
+        assertThat(inline).isEqualTo(1);
+        assertThatThrownBy(() -> executor.execute(List.of(current), () -> executor.execute(List.of(lower, current), () -> 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * 停机时队列中的任务以异常结束，等待的调用方不会永久阻塞，之后的提交直接拒绝
+     */
+    @Test
+    void shutdown_shouldAbortQueuedTasks() throws Exception {
+        // Arrange
+        final var started = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> executor.execute(List.of(1L), () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        final var queued = CompletableFuture.supplyAsync(() -> executor.execute(List.of(1L), () -> 1));
+        Thread.sleep(100);
+
+        // Act
+        executor.shutdown();
+
+        // Assert
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> executor.execute(List.of(2L), () -> 1)).isInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.rbcs.infrastructure.recovery;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.defer.Defers;
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "rbcs.recovery.min-age-millis=0",
+        "rbcs.recovery.interval-millis=3600000",
+        "rbcs.recovery.segment-size=3",
+        "rbcs.recovery.batch-size=2",
+        "rbcs.recovery.max-queue-depth=100"
+})
+@ActiveProfiles("test")
+class PendingTransactionRecoveryTest {
+
+    @Autowired
+    private PendingTransactionRecovery recovery;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @MockitoBean
+    private TransactionPublisher transactionPublisher;
+
+    @MockitoBean
+    private Defers defers;
+
+    private final List<Long> transactionIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().deleteByPattern("rbcs:recovery:*");
+        final var account = new Account();
+        account.activate();
+        account.setBalance(1000L);
+        account.setAccountNumber("1234567890");
+        accountRepository.save(account);
+        for (int i = 0; i < 7; i++) {
+            transactionIds.add(transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 10L).getId());
+        }
+        when(transactionPublisher.backlog()).thenReturn(-1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        redissonClient.getKeys().deleteByPattern("rbcs:recovery:*");
+    }
+
+    @Test
+    void recover_shouldRepublishEachPendingTransactionOncePerSweep() {
+        // Act
+        final var first = recovery.recover();
+        final var second = recovery.recover();
+
+        // Assert
+        assertThat(first).isEqualTo(transactionIds.size());
+        assertThat(second).isZero();
+        final ArgumentCaptor<List<TransactionPublisher.OutgoingMessage>> captor = ArgumentCaptor.captor();
+        verify(transactionPublisher, atLeastOnce()).publishBatch(captor.capture());
+        assertThat(captor.getAllValues().stream().flatMap(List::stream).map(TransactionPublisher.OutgoingMessage::transactionId))
+                .containsExactlyInAnyOrderElementsOf(transactionIds);
+    }
+
+    @Test
+    void recover_shouldPauseWhenQueueIsBacklogged() {
+        // Arrange
+        when(transactionPublisher.backlog()).thenReturn(100L);
+
+        // Act
+        final var recovered = recovery.recover();
+
+        // Assert
+        assertThat(recovered).isZero();
+        verify(transactionPublisher, never()).publishBatch(anyList());
+    }
+
+    @Test
+    void recover_shouldLimitByRemainingQueueCapacity() {
+        // Arrange
+        when(transactionPublisher.backlog()).thenReturn(97L);
+
+        // Act
+        final var recovered = recovery.recover();
+
+        // Assert
+        assertThat(recovered).isEqualTo(3);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.rbcs.infrastructure.ringbuffer;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.defer.Defers;
+import com.example.rbcs.infrastructure.lock.ContentionRequeuer;
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 进程内环形缓冲区传输测试，通过 ringbuffer profile 启用
+ */
+@SpringBootTest(properties = {
+        "rbcs.ring-buffer.buffer-size=1024",
+        "rbcs.ring-buffer.batch-execute=true",
+        "rbcs.ring-buffer.max-batch-size=20"
+})
+@ActiveProfiles({"test", "ringbuffer"})
+class RingBufferTransportTest {
+
+    @Autowired
+    private TransactionPublisher transactionPublisher;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @MockitoBean
+    private Defers defers;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = new Account();
+        account.activate();
+        account.setBalance(1000L);
+        account.setAccountNumber("1234567890");
+        accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void publish_shouldBeExecutedByWorker() throws InterruptedException {
+        // Arrange
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+
+        // Act
+        assertThat(transactionPublisher).isInstanceOf(RingBufferTransactionTransport.class);
+        transactionPublisher.publish(transaction.getId());
+
+        // Assert
+        awaitCompleted(List.of(transaction.getId()));
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualTo(1100L);
+    }
+
+    @Test
+    void publishBatch_concurrentDepositsShouldAllBeExecuted() throws InterruptedException {
+        // Arrange
+        final List<Long> transactionIds = new ArrayList<>();
+        final List<TransactionPublisher.OutgoingMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 1L);
+            transactionIds.add(transaction.getId());
+            messages.add(new TransactionPublisher.OutgoingMessage(transaction.getId(), "trace-" + i));
+        }
+
+        // Act
+        transactionPublisher.publishBatch(messages);
+
+        // Assert
+        awaitCompleted(transactionIds);
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualTo(1200L);
+    }
+
+    /**
+     * 执行失败计入指标，停机后拒绝新消息，发件箱中继因此回滚保留发件箱行
+     */
+    @Test
+    void shutdown_shouldRejectNewMessagesAndFailuresShouldBeCounted() throws InterruptedException {
+        // Arrange
+        final var failingPublisher = mock(ApplicationEventPublisher.class);
+        doThrow(new IllegalStateException("database unavailable")).when(failingPublisher).publishEvent(any(Object.class));
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var properties = new RingBufferProperties();
+        properties.setBufferSize(16);
+        properties.setWorkers(1);
+        final var transport = new RingBufferTransactionTransport(failingPublisher, mock(ContentionRequeuer.class), properties, meterRegistry);
+
+        // Act
+        transport.publish(1L);
+        transport.shutdown();
+
+        // Assert
+        assertThat(meterRegistry.counter("rbcs.ring-buffer.failed").count()).isEqualTo(1);
+        assertThatThrownBy(() -> transport.publish(2L)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> transport.publishBatch(List.of(new TransactionPublisher.OutgoingMessage(3L, "trace-3"))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private void awaitCompleted(List<Long> transactionIds) throws InterruptedException {
+        final var deadline = System.currentTimeMillis() + 30_000;
+        while (!transactionRepository.findAllById(transactionIds).stream()
+                .allMatch(transaction -> transaction.getStatus() == Transaction.Status.COMPLETED)) {
+            assertThat(System.currentTimeMillis()).as("transactions not completed in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.rbcs.infrastructure.sqs;
+
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class BufferedSqsPublisherTest {
+
+    private final TransactionPublisher transactionPublisher = mock(TransactionPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Long> sent = Collections.synchronizedList(new ArrayList<>());
+    private BufferedSqsPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            final List<TransactionPublisher.OutgoingMessage> messages = invocation.getArgument(0);
+            messages.forEach(message -> sent.add(message.transactionId()));
+            return null;
+        }).when(transactionPublisher).publishBatch(anyList());
+    }
+
+    @Test
+    void publish_shouldSendInBatchesOfAtMostTen() {
+        // Arrange
+        recordBatches();
+        publisher = new BufferedSqsPublisher(transactionPublisher, meterRegistry, 100, 200, 1);
+        publisher.start();
+
+        // Act
+        for (long id = 1; id <= 25; id++) {
+            publisher.publish(id);
+        }
+        publisher.stop();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<TransactionPublisher.OutgoingMessage>> batches = ArgumentCaptor.forClass(List.class);
+        verify(transactionPublisher, atLeastOnce()).publishBatch(batches.capture());
+        assertThat(batches.getAllValues()).allSatisfy(batch -> assertThat(batch).hasSizeBetween(1, 10));
+        assertThat(batches.getAllValues()).anySatisfy(batch -> assertThat(batch).hasSize(10));
+        assertThat(sent).hasSize(25).doesNotHaveDuplicates();
+        verify(transactionPublisher, never()).publish(1L);
+    }
+
+    @Test
+    void flush_failedBatchShouldFallBackPerMessageAndRestoreMdc() {
+        // Arrange
+        publisher = new BufferedSqsPublisher(transactionPublisher, meterRegistry, 100, 20, 0);
+        doThrow(new IllegalStateException("batch failed")).when(transactionPublisher).publishBatch(anyList());
+        doThrow(new IllegalStateException("send failed")).when(transactionPublisher).publish(2L);
+        MDC.put("traceId", "caller");
+
+        // Act
+        publisher.flush(List.of(
+                new TransactionPublisher.OutgoingMessage(1L, "t1"),
+                new TransactionPublisher.OutgoingMessage(2L, "t2"),
+                new TransactionPublisher.OutgoingMessage(3L, "t3")));
+
+        // Assert: 第2条发送失败不影响第3条
+        verify(transactionPublisher).publish(1L);
+        verify(transactionPublisher).publish(2L);
+        verify(transactionPublisher).publish(3L);
+        assertThat(meterRegistry.counter("rbcs.sqs.publisher.failed").count()).isEqualTo(1);
+        assertThat(MDC.get("traceId")).isEqualTo("caller");
+    }
+
+    @Test
+    void stop_shouldDrainBufferedAndInFlightMessages() {
+        // Arrange: 较长的时间窗口，停机时发送线程手上还有没发出去的批次
+        recordBatches();
+        publisher = new BufferedSqsPublisher(transactionPublisher, meterRegistry, 100, 500, 1);
+        publisher.start();
+        for (long id = 1; id <= 15; id++) {
+            publisher.publish(id);
+        }
+
+        // Act
+        publisher.stop();
+
+        // Assert
+        assertThat(sent).containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, 15).boxed().toList());
+    }
+
+    @Test
+    void publish_afterStopShouldSendSynchronously() {
+        // Arrange
+        publisher = new BufferedSqsPublisher(transactionPublisher, meterRegistry, 100, 20, 1);
+        publisher.start();
+        publisher.stop();
+
+        // Act
+        publisher.publish(7L);
+
+        // Assert
+        verify(transactionPublisher).publish(7L);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.rbcs.infrastructure.sqs;
+
+import com.example.rbcs.domain.event.TransactionExecuteRequest;
+import com.example.rbcs.infrastructure.lock.AccountLockContendedException;
+import com.example.rbcs.infrastructure.lock.ContentionRequeuer;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SqsTransactionListenerTest {
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ContentionRequeuer contentionRequeuer = mock(ContentionRequeuer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Visibility visibility = mock(Visibility.class);
+    private final SqsTransactionListener listener = new SqsTransactionListener(eventPublisher, contentionRequeuer, meterRegistry);
+
+    private final Message message = Message.builder()
+            .body("1")
+            .attributes(Map.of(MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT, "2"))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void handle_contendedShouldWaitForVisibilityChange() {
+        // Arrange
+        doThrow(new AccountLockContendedException(1L, List.of(1L))).when(eventPublisher).publishEvent(any(TransactionExecuteRequest.class));
+        when(contentionRequeuer.nextDelayMillis("sqs", 2)).thenReturn(2500L);
+        final var changed = new CompletableFuture<Void>();
+        when(visibility.changeTo(anyInt())).thenAnswer(invocation -> {
+            changed.complete(null);
+            return changed;
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> listener.handle(message, visibility)).isInstanceOf(AccountLockContendedException.class);
+        verify(visibility).changeTo(eq(3));
+        assertThat(changed).isDone();
+        assertThat(meterRegistry.counter("rbcs.sqs.visibility.change.failed").count()).isZero();
+    }
+
+    @Test
+    void handle_visibilityChangeFailureShouldBeRecorded() {
+        // Arrange
+        doThrow(new AccountLockContendedException(1L, List.of(1L))).when(eventPublisher).publishEvent(any(TransactionExecuteRequest.class));
+        when(contentionRequeuer.nextDelayMillis("sqs", 2)).thenReturn(1000L);
+        when(visibility.changeTo(anyInt())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("receipt handle expired")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> listener.handle(message, visibility)).isInstanceOf(AccountLockContendedException.class);
+        assertThat(meterRegistry.counter("rbcs.sqs.visibility.change.failed").count()).isEqualTo(1);
+    }
+}
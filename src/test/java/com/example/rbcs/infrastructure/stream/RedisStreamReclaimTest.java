@@ -0,0 +1,137 @@
+package com.example.rbcs.infrastructure.stream;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.defer.Defers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * redis stream待处理消息认领测试
+ * 本节点不启动消费线程，消息只会被测试中的"crashed"消费者读取，之后只能通过认领执行或转入死信
+ */
+@SpringBootTest(properties = {
+        "rbcs.transport=redis-stream",
+        "rbcs.redis-stream.key=rbcs:stream:test:reclaim",
+        "rbcs.redis-stream.dead-letter-key=rbcs:stream:test:reclaim:dead",
+        "rbcs.redis-stream.consumers=0",
+        "rbcs.redis-stream.claim-idle-millis=200",
+        "rbcs.redis-stream.claim-interval-millis=100",
+        "rbcs.redis-stream.max-deliveries=2"
+})
+@ActiveProfiles("test")
+class RedisStreamReclaimTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private RedisStreamProperties properties;
+
+    @MockitoBean
+    private Defers defers;
+
+    private Account account;
+    private RStream<String, String> stream;
+
+    @BeforeEach
+    void setUp() {
+        account = new Account();
+        account.activate();
+        account.setBalance(1000L);
+        account.setAccountNumber("1234567890");
+        accountRepository.save(account);
+        stream = redissonClient.getStream(properties.getKey(), StringCodec.INSTANCE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    /**
+     * 被崩溃的消费者读取但未确认的消息，空闲超时后由认领执行
+     */
+    @Test
+    void pendingMessagesOfCrashedConsumer_shouldBeReclaimed() throws InterruptedException {
+        // Arrange
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        final var id = add(transaction.getId());
+
+        // Act: 模拟另一个消费者读取后崩溃
+        final var read = stream.readGroup(properties.getGroup(), "crashed", StreamReadGroupArgs.neverDelivered().count(100));
+
+        // Assert
+        assertThat(read).containsKey(id);
+        await(() -> transactionRepository.findById(transaction.getId()).orElseThrow().getStatus() == Transaction.Status.COMPLETED);
+        await(() -> stream.listPending(properties.getGroup()).getTotal() == 0);
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualTo(1100L);
+    }
+
+    /**
+     * 投递次数达到上限的消息转入死信stream，不再执行
+     */
+    @Test
+    void pendingMessagesDeliveredTooOften_shouldBeDeadLettered() throws InterruptedException {
+        // Arrange
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        final var id = add(transaction.getId());
+        stream.readGroup(properties.getGroup(), "crashed", StreamReadGroupArgs.neverDelivered().count(100));
+
+        // Act: 再投递一次给崩溃的消费者，达到最大投递次数
+        stream.claim(properties.getGroup(), "crashed", 0, TimeUnit.MILLISECONDS, id);
+
+        // Assert
+        final var deadLetters = redissonClient.<String, String>getStream(properties.getDeadLetterKey(), StringCodec.INSTANCE);
+        final var transactionId = String.valueOf(transaction.getId());
+        await(() -> deadLetters.range(StreamMessageId.MIN, StreamMessageId.MAX).values().stream()
+                .anyMatch(fields -> transactionId.equals(fields.get(RedisStreamPublisher.FIELD_TRANSACTION_ID))));
+        await(() -> stream.listPending(properties.getGroup()).getTotal() == 0);
+        assertThat(transactionRepository.findById(transaction.getId()).orElseThrow().getStatus()).isEqualTo(Transaction.Status.PENDING);
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualTo(1000L);
+    }
+
+    private StreamMessageId add(long transactionId) {
+        return stream.add(StreamAddArgs.entries(Map.of(
+                RedisStreamPublisher.FIELD_TRANSACTION_ID, String.valueOf(transactionId),
+                RedisStreamPublisher.FIELD_TRACE_ID, "trace-crashed")));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        final var deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
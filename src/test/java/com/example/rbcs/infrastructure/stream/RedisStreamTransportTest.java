@@ -0,0 +1,108 @@
+package com.example.rbcs.infrastructure.stream;
+
+import com.example.rbcs.domain.entity.Account;
+import com.example.rbcs.domain.entity.Transaction;
+import com.example.rbcs.domain.repository.AccountRepository;
+import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.domain.service.TransactionService;
+import com.example.rbcs.infrastructure.defer.Defers;
+import com.example.rbcs.infrastructure.transport.TransactionPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * redis stream传输测试，使用测试环境的本地redis
+ */
+@SpringBootTest(properties = {
+        "rbcs.transport=redis-stream",
+        "rbcs.redis-stream.key=rbcs:stream:test",
+        "rbcs.redis-stream.dead-letter-key=rbcs:stream:test:dead"
+})
+@ActiveProfiles("test")
+class RedisStreamTransportTest {
+
+    @Autowired
+    private TransactionPublisher transactionPublisher;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @MockitoBean
+    private Defers defers;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = new Account();
+        account.activate();
+        account.setBalance(1000L);
+        account.setAccountNumber("1234567890");
+        accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void publish_shouldBeConsumedAndExecuted() throws InterruptedException {
+        // Arrange
+        final var transaction = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+
+        // Act
+        assertThat(transactionPublisher).isInstanceOf(RedisStreamPublisher.class);
+        transactionPublisher.publish(transaction.getId());
+
+        // Assert
+        awaitCompleted(List.of(transaction.getId()));
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualTo(1100L);
+    }
+
+    @Test
+    void publishBatch_shouldBeConsumedAndExecuted() throws InterruptedException {
+        // Arrange
+        final var first = transactionService.createTransaction(account, null, Transaction.Type.DEPOSIT, 100L);
+        final var second = transactionService.createTransaction(account, null, Transaction.Type.WITHDRAWAL, 50L);
+
+        // Act
+        transactionPublisher.publishBatch(List.of(
+                new TransactionPublisher.OutgoingMessage(first.getId(), "trace-1"),
+                new TransactionPublisher.OutgoingMessage(second.getId(), "trace-2")));
+
+        // Assert
+        awaitCompleted(List.of(first.getId(), second.getId()));
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance()).isEqualTo(1050L);
+    }
+
+    private void awaitCompleted(List<Long> transactionIds) throws InterruptedException {
+        await(() -> transactionRepository.findAllById(transactionIds).stream()
+                .allMatch(transaction -> transaction.getStatus() == Transaction.Status.COMPLETED));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        final var deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
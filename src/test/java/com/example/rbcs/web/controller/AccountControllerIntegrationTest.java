@@ -3,6 +3,7 @@ package com.example.rbcs.web.controller;
 import com.example.rbcs.domain.entity.Account;
 import com.example.rbcs.domain.repository.AccountRepository;
 import com.example.rbcs.web.controller.form.AccountForm;
+import com.example.rbcs.web.controller.response.AccountImportResponse;
 import com.example.rbcs.web.controller.response.AccountResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,12 +11,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -70,6 +75,22 @@ class AccountControllerIntegrationTest {
         assertThat(accountResponse.getBalance()).isZero();
     }
 
+    @Test
+    void shardAccount_success() {
+        // Arrange
+        Long accountId = setupAccountId;
+
+        // Act
+        restTemplate.put("/api/v1/accounts/{id}/shards?count={count}", null, accountId, 4);
+        ResponseEntity<AccountResponse> response = restTemplate.getForEntity(
+                "/api/v1/accounts/{id}", AccountResponse.class, accountId);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getShards()).isEqualTo(4);
+        assertThat(response.getBody().getBalance()).isZero();
+    }
+
     @Test
     void getAccountByNo_success() {
         // Arrange
@@ -256,4 +277,80 @@ class AccountControllerIntegrationTest {
         Account account = accountRepository.findById(accountId).orElseThrow();
         assertThat(account.getStatus()).isIn(Account.Status.ACTIVATED, Account.Status.FROZEN);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<AccountImportResponse> importAccounts(String body, String contentType, boolean activate) {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        return restTemplate.postForEntity("/api/v1/accounts/import?activate={activate}",
+                new HttpEntity<>(body, headers), AccountImportResponse.class, activate);
+    }
+
+    @Test
+    void importAccounts_csvShouldSkipExistingAndDuplicated() {
+        // Arrange
+        var csv = "accountNo\n2000001\n2000002\n\n1234567\n\"2000003\",extra\n2000002\n";
+
+        // Act
+        var response = importAccounts(csv, "text/csv", false);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getTotal()).isEqualTo(5);
+        assertThat(response.getBody().getCreated()).isEqualTo(3);
+        assertThat(response.getBody().getDuplicated()).isEqualTo(2);
+        assertThat(response.getBody().getInvalid()).isZero();
+        assertThat(accountRepository.findByAccountNumberIn(List.of("2000001", "2000002", "2000003")))
+                .hasSize(3)
+                .allMatch(account -> account.getStatus() == Account.Status.INITIAL);
+    }
+
+    @Test
+    void importAccounts_ndjsonShouldActivateInSamePass() {
+        // Arrange
+        var ndjson = "{\"accountNo\":\"3000001\"}\n{\"accountNo\":\"3000002\"}\nnot json\n{\"other\":1}\n";
+
+        // Act
+        var response = importAccounts(ndjson, "application/x-ndjson", true);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getCreated()).isEqualTo(2);
+        assertThat(response.getBody().getInvalid()).isEqualTo(2);
+        assertThat(accountRepository.findByAccountNumberIn(List.of("3000001", "3000002")))
+                .hasSize(2)
+                .allMatch(account -> account.getStatus() == Account.Status.ACTIVATED);
+    }
+
+    @Test
+    void importAccounts_ndjsonNonTextAccountNumberShouldBeInvalid() {
+        // Arrange: null不能被当作账户号"null"导入，数字和布尔值同样不合法
+        var ndjson = "{\"accountNo\":\"3000003\"}\n{\"accountNo\":null}\n{\"accountNo\":3000004}\n{\"accountNo\":true}\n";
+
+        // Act
+        var response = importAccounts(ndjson, "application/x-ndjson", false);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getCreated()).isEqualTo(1);
+        assertThat(response.getBody().getInvalid()).isEqualTo(3);
+        assertThat(accountRepository.findByAccountNumberIn(List.of("3000003", "3000004", "null", "true")))
+                .extracting(Account::getAccountNumber)
+                .containsExactly("3000003");
+    }
+
+    @Test
+    void importAccounts_largeImportAcrossChunks() {
+        // Arrange
+        var csv = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            csv.append(4_000_000 + i).append('\n');
+        }
+
+        // Act
+        var response = importAccounts(csv.toString(), "text/csv", true);
+
+        // Assert
+        assertThat(response.getBody().getCreated()).isEqualTo(2500);
+        assertThat(accountRepository.count()).isEqualTo(2501);
+    }
+}
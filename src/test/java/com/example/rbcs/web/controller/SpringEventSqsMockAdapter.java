@@ -1,5 +1,6 @@
 package com.example.rbcs.web.controller;
 
+import com.example.rbcs.domain.event.TransactionBatchCreatedEvent;
 import com.example.rbcs.domain.event.TransactionCreatedEvent;
 import com.example.rbcs.domain.event.TransactionExecuteRequest;
 import io.awspring.cloud.sqs.operations.SqsTemplate;
@@ -36,4 +37,13 @@ public class SpringEventSqsMockAdapter {
         MDC.put("traceId", finalTraceId);
         eventPublisher.publishEvent(new TransactionExecuteRequest(event.getAggregateRoot().getId()));
     }
+
+    @EventListener
+    @Async
+    public void handle(TransactionBatchCreatedEvent event) {
+        if (!StringUtils.hasText(MDC.get("traceId"))) {
+            MDC.put("traceId", UUID.randomUUID().toString().replaceAll("-", ""));
+        }
+        event.getAggregateRoot().forEach(transaction -> eventPublisher.publishEvent(new TransactionExecuteRequest(transaction.getId())));
+    }
 }
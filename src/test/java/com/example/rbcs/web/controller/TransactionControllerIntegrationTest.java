@@ -4,10 +4,18 @@ import com.example.rbcs.domain.entity.Account;
 import com.example.rbcs.domain.entity.Transaction;
 import com.example.rbcs.domain.repository.AccountRepository;
 import com.example.rbcs.domain.repository.TransactionRepository;
+import com.example.rbcs.infrastructure.archive.ArchivedTransaction;
+import com.example.rbcs.infrastructure.archive.ArchivedTransactionRepository;
+import com.example.rbcs.infrastructure.idempotency.IdempotencyKeyRepository;
 import com.example.rbcs.web.controller.form.AccountForm;
+import com.example.rbcs.web.controller.form.TransactionBatchForm;
 import com.example.rbcs.web.controller.form.TransactionForm;
 import com.example.rbcs.web.controller.response.AccountResponse;
+import com.example.rbcs.web.controller.response.TransactionHistoryItemResponse;
+import com.example.rbcs.web.controller.response.TransactionHistoryResponse;
 import com.example.rbcs.web.controller.response.TransactionResponse;
+import com.example.rbcs.web.controller.response.TransactionSearchResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,12 +23,30 @@ import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -37,11 +63,21 @@ class TransactionControllerIntegrationTest {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ArchivedTransactionRepository archivedTransactionRepository;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private AccountResponse sourceAccount;
     private AccountResponse destinationAccount;
 
     @AfterEach
     public void teardown() {
+        idempotencyKeyRepository.deleteAllInBatch();
+        archivedTransactionRepository.deleteAllInBatch();
         transactionRepository.deleteAllInBatch();
         accountRepository.deleteAllInBatch();
     }
@@ -202,4 +238,319 @@ class TransactionControllerIntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody()).contains("Destination account id is required for transfer");
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<String> postWithIdempotencyKey(String key, Transaction.Type type, long amount) {
+        var form = new TransactionForm();
+        form.setSourceAccountId(sourceAccount.getId());
+        form.setDestinationAccountId(destinationAccount.getId());
+        form.setType(type);
+        form.setAmount(amount);
+        var headers = new HttpHeaders();
+        headers.set("Idempotency-Key", key);
+        return restTemplate.postForEntity("/api/v1/transactions", new HttpEntity<>(form, headers), String.class);
+    }
+
+    @Test
+    void createTransaction_sameIdempotencyKeyShouldReplay() {
+        // Arrange
+        var key = UUID.randomUUID().toString();
+
+        // Act
+        var first = postWithIdempotencyKey(key, Transaction.Type.DEPOSIT, 300L);
+        var second = postWithIdempotencyKey(key, Transaction.Type.DEPOSIT, 300L);
+
+        // Assert
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(first.getHeaders().containsKey("Idempotent-Replayed")).isFalse();
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(idOf(second.getBody())).isEqualTo(idOf(first.getBody()));
+        assertThat(transactionRepository.count()).isEqualTo(1);
+        assertThat(idempotencyKeyRepository.findByIdempotencyKey(key).orElseThrow().getTransactionId())
+                .isEqualTo(Long.parseLong(idOf(first.getBody())));
+    }
+
+    @Test
+    void createTransaction_idempotencyKeyReusedWithDifferentParameters() {
+        // Arrange
+        var key = UUID.randomUUID().toString();
+        postWithIdempotencyKey(key, Transaction.Type.DEPOSIT, 300L);
+
+        // Act
+        var response = postWithIdempotencyKey(key, Transaction.Type.DEPOSIT, 400L);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(response.getBody()).contains("IdempotencyKeyReused");
+        assertThat(transactionRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createTransaction_concurrentRequestsWithSameIdempotencyKey() throws InterruptedException {
+        // Arrange
+        var key = UUID.randomUUID().toString();
+        int threadCount = 10;
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        // Act
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    var response = postWithIdempotencyKey(key, Transaction.Type.DEPOSIT, 100L);
+                    if (response.getStatusCode() == HttpStatus.CREATED) {
+                        ids.add(idOf(response.getBody()));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // Assert
+        assertThat(ids).hasSize(1);
+        assertThat(transactionRepository.count()).isEqualTo(1);
+    }
+
+    private static TransactionForm form(Transaction.Type type, Long source, Long destination, long amount) {
+        var form = new TransactionForm();
+        form.setType(type);
+        form.setSourceAccountId(source);
+        form.setDestinationAccountId(destination);
+        form.setAmount(amount);
+        return form;
+    }
+
+    @Test
+    void createTransactions_batchShouldReturnResultPerItem() throws Exception {
+        // Arrange
+        var batch = new TransactionBatchForm();
+        batch.setItems(List.of(
+                form(Transaction.Type.DEPOSIT, sourceAccount.getId(), null, 100L),
+                form(Transaction.Type.TRANSFER, sourceAccount.getId(), sourceAccount.getId(), 10L),
+                form(Transaction.Type.DEPOSIT, sourceAccount.getId(), null, 200L),
+                form(Transaction.Type.DEPOSIT, 9999999999L, null, 100L)));
+
+        // Act
+        var response = restTemplate.postForEntity("/api/v1/transactions/batch", batch, String.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        var lines = response.getBody().lines().map(line -> {
+            try {
+                return OBJECT_MAPPER.readTree(line);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines).extracting(line -> line.get("index").asInt()).containsExactly(0, 1, 2, 3);
+        assertThat(lines.get(0).get("transaction").get("status").asText()).isEqualTo("PENDING");
+        assertThat(lines.get(1).get("exception").asText()).isEqualTo("TransactionAccountInvalid");
+        assertThat(lines.get(2).get("transaction").get("amount").asLong()).isEqualTo(200L);
+        assertThat(lines.get(3).get("exception").asText()).isEqualTo("AccountNotFoundException");
+        assertThat(transactionRepository.count()).isEqualTo(2);
+
+        for (int i = 0; i < 50 && getAccount(sourceAccount.getId()).getBalance() != 300L; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(getAccount(sourceAccount.getId()).getBalance()).isEqualTo(300L);
+        assertThat(getTransaction(lines.get(0).get("transaction").get("id").asLong()).getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void createTransactions_emptyBatch() {
+        // Act
+        var response = restTemplate.postForEntity("/api/v1/transactions/batch", new TransactionBatchForm(), String.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void createTransactions_invalidItemShouldRejectWholeBatch() {
+        // Arrange
+        var batch = new TransactionBatchForm();
+        batch.setItems(List.of(
+                form(Transaction.Type.DEPOSIT, sourceAccount.getId(), null, 100L),
+                form(null, sourceAccount.getId(), null, 0L)));
+        var withNullItem = new TransactionBatchForm();
+        withNullItem.setItems(Arrays.asList(form(Transaction.Type.DEPOSIT, sourceAccount.getId(), null, 100L), null));
+
+        // Act
+        var response = restTemplate.postForEntity("/api/v1/transactions/batch", batch, String.class);
+        var nullItemResponse = restTemplate.postForEntity("/api/v1/transactions/batch", withNullItem, String.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(nullItemResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(transactionRepository.count()).isZero();
+    }
+
+    @Test
+    void getTransactionHistory_shouldPageThroughAllTransactionsNewestFirst() throws Exception {
+        // Arrange
+        createTransaction(Transaction.Type.DEPOSIT, 1000L);
+        createTransaction(Transaction.Type.DEPOSIT, 1000L);
+        createTransaction(Transaction.Type.TRANSFER, 100L);
+        createTransaction(Transaction.Type.WITHDRAWAL, 100L);
+        createTransaction(Transaction.Type.TRANSFER, 100L);
+
+        // Act
+        List<TransactionHistoryItemResponse> items = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var response = restTemplate.getForEntity("/api/v1/accounts/{id}/transactions?limit=2" + (cursor == null ? "" : "&cursor=" + cursor),
+                    TransactionHistoryResponse.class, sourceAccount.getId());
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            items.addAll(response.getBody().getItems());
+            cursor = response.getBody().getNextCursor();
+            pages++;
+        } while (cursor != null);
+        var destination = restTemplate.getForEntity("/api/v1/accounts/{id}/transactions",
+                TransactionHistoryResponse.class, destinationAccount.getId()).getBody();
+
+        // Assert
+        assertThat(pages).isEqualTo(3);
+        assertThat(items).hasSize(5);
+        assertThat(items).extracting(TransactionHistoryItemResponse::getId).doesNotHaveDuplicates();
+        assertThat(items).extracting(TransactionHistoryItemResponse::getType)
+                .containsExactly("TRANSFER", "WITHDRAWAL", "TRANSFER", "DEPOSIT", "DEPOSIT");
+        assertThat(destination.getItems()).hasSize(2)
+                .allMatch(item -> item.getTargetAccountId().equals(destinationAccount.getId().toString()));
+    }
+
+    @Test
+    void getTransactionHistory_invalidCursor() {
+        // Act
+        var response = restTemplate.getForEntity("/api/v1/accounts/{id}/transactions?cursor=not-a-cursor",
+                String.class, sourceAccount.getId());
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void exportTransactions_ndjsonWithGzip() throws Exception {
+        // Arrange
+        var from = Instant.now().minus(1, ChronoUnit.MINUTES);
+        var deposit = createTransaction(Transaction.Type.DEPOSIT, 1000L);
+        var transfer = createTransaction(Transaction.Type.TRANSFER, 100L);
+        var to = Instant.now().plus(1, ChronoUnit.MINUTES);
+
+        // Act
+        var response = restTemplate.getForEntity("/api/v1/transactions/export?from={from}&to={to}&gzip=true",
+                byte[].class, from.toString(), to.toString());
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).endsWith(".ndjson.gz\"");
+        List<String> lines;
+        try (var reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(response.getBody())), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        assertThat(lines).hasSize(2);
+        assertThat(lines).extracting(TransactionControllerIntegrationTest::idOf).containsExactly(deposit.getId(), transfer.getId());
+        var transferRow = OBJECT_MAPPER.readTree(lines.get(1));
+        assertThat(transferRow.get("targetAccountId").asText()).isEqualTo(destinationAccount.getId().toString());
+        assertThat(transferRow.get("amount").asLong()).isEqualTo(100L);
+        assertThat(transferRow.get("status").asText()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void exportTransactions_csvOnlyContainsRange() throws Exception {
+        // Arrange
+        var deposit = createTransaction(Transaction.Type.DEPOSIT, 1000L);
+        var from = Instant.now().plus(1, ChronoUnit.MINUTES);
+        var to = from.plus(1, ChronoUnit.DAYS);
+
+        // Act
+        var inRange = restTemplate.getForEntity("/api/v1/transactions/export?from={from}&to={to}&format=CSV",
+                String.class, from.minus(1, ChronoUnit.DAYS).toString(), from.toString());
+        var outOfRange = restTemplate.getForEntity("/api/v1/transactions/export?from={from}&to={to}&format=CSV",
+                String.class, from.toString(), to.toString());
+        var invalid = restTemplate.getForEntity("/api/v1/transactions/export?from={from}&to={to}",
+                String.class, to.toString(), from.toString());
+
+        // Assert
+        assertThat(inRange.getStatusCode()).isEqualTo(HttpStatus.OK);
+        var lines = inRange.getBody().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,source_account_id,target_account_id,type,status,amount");
+        assertThat(lines[1]).startsWith(deposit.getId() + "," + sourceAccount.getId() + ",,DEPOSIT,COMPLETED,1000,");
+        assertThat(outOfRange.getBody().split("\n")).hasSize(1);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void searchTransactions_shouldFilterAndPage() throws Exception {
+        // Arrange
+        createTransaction(Transaction.Type.DEPOSIT, 1000L);
+        createTransaction(Transaction.Type.TRANSFER, 100L);
+        createTransaction(Transaction.Type.WITHDRAWAL, 200L);
+        createTransaction(Transaction.Type.TRANSFER, 300L);
+
+        // Act
+        var first = restTemplate.getForEntity("/api/v1/transactions/search?accountId={id}&type=TRANSFER&limit=1",
+                TransactionSearchResponse.class, destinationAccount.getId()).getBody();
+        var second = restTemplate.getForEntity("/api/v1/transactions/search?accountId={id}&type=TRANSFER&limit=1&cursor={cursor}",
+                TransactionSearchResponse.class, destinationAccount.getId(), first.getNextCursor()).getBody();
+        var byAmount = restTemplate.getForEntity("/api/v1/transactions/search?status=COMPLETED&minAmount=150&maxAmount=500",
+                TransactionSearchResponse.class).getBody();
+        var invalid = restTemplate.getForEntity("/api/v1/transactions/search?minAmount=500&maxAmount=100", String.class);
+        var typeWithoutWindow = restTemplate.getForEntity("/api/v1/transactions/search?type=TRANSFER", String.class);
+        var typeInWindow = restTemplate.getForEntity("/api/v1/transactions/search?type=TRANSFER&from={from}",
+                TransactionSearchResponse.class, Instant.now().minus(1, ChronoUnit.HOURS).toString()).getBody();
+
+        // Assert
+        assertThat(first.getItems()).extracting(TransactionHistoryItemResponse::getAmount).containsExactly(300L);
+        assertThat(first.getTotal()).isEqualTo(2L);
+        assertThat(first.getTotalExact()).isTrue();
+        assertThat(second.getItems()).extracting(TransactionHistoryItemResponse::getAmount).containsExactly(100L);
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getTotal()).isNull();
+        assertThat(byAmount.getItems()).extracting(TransactionHistoryItemResponse::getType).containsExactly("TRANSFER", "WITHDRAWAL");
+        assertThat(byAmount.getTotal()).isEqualTo(2L);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(typeWithoutWindow.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(typeInWindow.getItems()).extracting(TransactionHistoryItemResponse::getAmount).containsExactly(300L, 100L);
+    }
+
+    @Test
+    void getTransaction_shouldFallBackToArchive() {
+        // Arrange
+        var archived = new ArchivedTransaction();
+        archived.setId(123456789012345678L);
+        archived.setSourceAccountId(sourceAccount.getId());
+        archived.setAmount(100L);
+        archived.setType(Transaction.Type.DEPOSIT);
+        archived.setStatus(Transaction.Status.COMPLETED);
+        archived.setCreatedAt(new Date());
+        archived.setArchivedAt(new Date());
+        archivedTransactionRepository.save(archived);
+
+        // Act
+        var found = restTemplate.getForEntity("/api/v1/transactions/{id}", TransactionResponse.class, archived.getId());
+        var missing = restTemplate.getForEntity("/api/v1/transactions/{id}", String.class, archived.getId() + 1);
+
+        // Assert
+        assertThat(found.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(found.getBody().getId()).isEqualTo(String.valueOf(archived.getId()));
+        assertThat(found.getBody().getSourceAccountId()).isEqualTo(sourceAccount.getId().toString());
+        assertThat(found.getBody().getStatus()).isEqualTo("COMPLETED");
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private static String idOf(String body) {
+        try {
+            return OBJECT_MAPPER.readTree(body).get("id").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}